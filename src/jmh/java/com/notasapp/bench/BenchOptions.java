@@ -0,0 +1,75 @@
+package com.notasapp.bench;
+
+import java.util.Map;
+
+/**
+ * Lectura de las opciones --nombre=valor de las herramientas de medición.
+ *
+ * Cada herramienta comprueba sus opciones enteras con validate antes de
+ * arrancar nada; el resto de argumentos se pasan a la aplicación medida, de
+ * modo que también admiten cualquier propiedad (--notas.mongo.uri=...).
+ */
+final class BenchOptions {
+
+    private BenchOptions() {
+    }
+
+    /**
+     * Comprueba que las opciones con valor entero tengan un número válido.
+     * @param args Argumentos de línea de comandos
+     * @param integerOptions Las opciones enteras y el valor mínimo que admite cada una
+     * @return El mensaje de la primera opción no válida, o null si todas son válidas
+     */
+    static String validate(String[] args, Map<String, Integer> integerOptions) {
+        for (Map.Entry<String, Integer> option : integerOptions.entrySet()) {
+            String value = optionValue(args, option.getKey());
+            if (value != null && parseInteger(value, option.getValue()) == null) {
+                return "Valor no válido para " + option.getKey() + ": '" + value
+                        + "' (se espera un número entero mayor o igual que " + option.getValue() + ")";
+            };
+        };
+        return null;
+    };
+
+    /**
+     * Obtiene el valor de una opción entera, ya comprobada por validate.
+     * @param args Argumentos de línea de comandos
+     * @param name El nombre de la opción, con los guiones
+     * @param defaultValue El valor si no se indicó la opción
+     * @return El valor de la opción
+     */
+    static int intOption(String[] args, String name, int defaultValue) {
+        String value = optionValue(args, name);
+        return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+    };
+
+    /**
+     * Obtiene el valor de una opción de línea de comandos con la forma --nombre=valor.
+     * @param args Argumentos de línea de comandos
+     * @param name El nombre de la opción, con los guiones
+     * @return El valor de la opción, o null si no se indicó
+     */
+    static String optionValue(String[] args, String name) {
+        for (String arg : args) {
+            if (arg.startsWith(name + "=")) {
+                return arg.substring(name.length() + 1);
+            };
+        };
+        return null;
+    };
+
+    /**
+     * Interpreta un número entero no menor que un mínimo.
+     * @param value El texto
+     * @param minimum El valor mínimo admitido
+     * @return El número, o null si el texto no es un número válido
+     */
+    private static Integer parseInteger(String value, int minimum) {
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            return parsed >= minimum ? parsed : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    };
+};
@@ -0,0 +1,176 @@
+package com.notasapp.bench;
+
+import com.notasapp.utils.ContentCompression;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Mide el ahorro de espacio y el coste de comprimir y descomprimir el
+ * contenido de las notas con ContentCompression, para varios tamaños de nota
+ * y dos tipos de contenido habituales: registros (logs) pegados y
+ * transcripciones de reuniones.
+ *
+ * Los textos se generan con una semilla fija, de modo que los resultados son
+ * comparables entre ejecuciones y máquinas. No necesita MongoDB ni el
+ * contexto de Spring; se ejecuta desde el perfil de Maven jmh:
+ * mvn -P jmh test-compile exec:exec@bench -Dbench=ContentCompressionReport
+ */
+public class ContentCompressionReport {
+
+    // Tamaños de contenido medidos, en bytes
+    private static final int[] SIZES = {512, 1024, 4 * 1024, 16 * 1024, 64 * 1024, 256 * 1024};
+
+    // Bytes procesados en cada medición (se repite cada texto hasta alcanzarlos)
+    private static final long BYTES_PER_MEASUREMENT = 64L * 1024 * 1024;
+
+    private static final String[] LEVELS = {"INFO", "INFO", "INFO", "DEBUG", "WARN", "ERROR"};
+    private static final String[] COMPONENTS = {"NotesService", "UserService", "MongoConfig", "NoteImportService",
+            "HttpLoadReport", "org.mongodb.driver.cluster", "o.s.web.servlet.DispatcherServlet"};
+    private static final String[] SPEAKERS = {"Ana", "Luis", "Marta", "Jordi", "Carmen"};
+    private static final String[] WORDS = {"el", "la", "de", "que", "y", "en", "un", "proyecto", "entrega",
+            "cliente", "revisar", "semana", "equipo", "tarea", "presupuesto", "pendiente", "reunión", "acuerdo",
+            "propuesta", "fecha", "versión", "pruebas", "despliegue", "incidencia", "prioridad", "documento",
+            "seguimiento", "responsable", "objetivo", "próxima", "mañana", "viernes", "correo", "datos"};
+
+    /**
+     * Ejecuta la medición y muestra el resultado.
+     * @param args No se usan
+     */
+    public static void main(String[] args) {
+        new ContentCompressionReport().run().forEach(System.out::println);
+    };
+
+    /**
+     * Ejecuta la medición para todos los tamaños y tipos de contenido.
+     * @return Un resultado por tipo de contenido y tamaño
+     */
+    public List<Result> run() {
+        List<Result> results = new ArrayList<>();
+        for (int size : SIZES) {
+            results.add(measure("logs", logText(size, new Random(size))));
+            results.add(measure("transcripción", transcriptText(size, new Random(size))));
+        }
+        return results;
+    }
+
+    /**
+     * Mide un texto: tamaño comprimido y tiempo medio de compresión y descompresión.
+     * @param kind El tipo de contenido
+     * @param text El texto
+     * @return El resultado
+     */
+    private Result measure(String kind, String text) {
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = ContentCompression.compress(utf8);
+        int iterations = (int) Math.max(10, BYTES_PER_MEASUREMENT / utf8.length);
+
+        // Calentamiento para que el JIT compile los caminos medidos
+        for (int i = 0; i < iterations / 4; i++) {
+            ContentCompression.decompress(ContentCompression.compress(text));
+        }
+
+        // Se acumula la longitud para que el JIT no descarte el trabajo
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += ContentCompression.compress(text).length;
+        }
+        long encodeNanos = (System.nanoTime() - start) / iterations;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += ContentCompression.decompress(compressed).length();
+        }
+        long decodeNanos = (System.nanoTime() - start) / iterations;
+
+        if (sink == 0) {
+            throw new IllegalStateException("Medición vacía");
+        }
+        return new Result(kind, utf8.length, compressed.length, encodeNanos, decodeNanos);
+    }
+
+    /**
+     * Genera líneas de registro de aplicación hasta el tamaño indicado.
+     * @param size Tamaño aproximado en bytes
+     * @param random Generador con semilla fija
+     * @return El texto
+     */
+    private static String logText(int size, Random random) {
+        StringBuilder text = new StringBuilder(size + 200);
+        long millis = 1_700_000_000_000L;
+        while (text.length() < size) {
+            millis += random.nextInt(2000);
+            text.append("2025-03-").append(10 + random.nextInt(20)).append('T')
+                    .append(String.format("%02d:%02d:%02d.%03d", random.nextInt(24), random.nextInt(60),
+                            random.nextInt(60), millis % 1000))
+                    .append("  ").append(LEVELS[random.nextInt(LEVELS.length)])
+                    .append(' ').append(1000 + random.nextInt(9000)).append(" --- [nio-8080-exec-")
+                    .append(1 + random.nextInt(200)).append("] ")
+                    .append(COMPONENTS[random.nextInt(COMPONENTS.length)])
+                    .append(" : request id=").append(Long.toHexString(random.nextLong()))
+                    .append(" user=carga-").append(random.nextInt(100))
+                    .append(" took ").append(random.nextInt(500)).append(" ms\n");
+        }
+        return text.substring(0, size);
+    }
+
+    /**
+     * Genera intervenciones de una reunión hasta el tamaño indicado.
+     * @param size Tamaño aproximado en caracteres
+     * @param random Generador con semilla fija
+     * @return El texto
+     */
+    private static String transcriptText(int size, Random random) {
+        StringBuilder text = new StringBuilder(size + 200);
+        while (text.length() < size) {
+            text.append('[').append(String.format("%02d:%02d", random.nextInt(60), random.nextInt(60))).append("] ")
+                    .append(SPEAKERS[random.nextInt(SPEAKERS.length)]).append(": ");
+            int words = 8 + random.nextInt(25);
+            for (int i = 0; i < words; i++) {
+                text.append(WORDS[random.nextInt(WORDS.length)]).append(i == words - 1 ? ".\n" : " ");
+            }
+        }
+        return text.substring(0, size);
+    }
+
+    /**
+     * Resultado de la medición de un tipo y tamaño de contenido.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Result {
+        // Tipo de contenido
+        private String kind;
+
+        // Tamaño original en bytes UTF-8 y tamaño comprimido con cabecera
+        private int originalBytes;
+        private int compressedBytes;
+
+        // Tiempo medio de compresión y descompresión de un contenido
+        private long encodeNanos;
+        private long decodeNanos;
+
+        /**
+         * Calcula el espacio ahorrado.
+         * @return Porcentaje del tamaño original que se ahorra
+         */
+        public double getSavedPercent() {
+            return 100.0 * (originalBytes - compressedBytes) / originalBytes;
+        }
+
+        @Override
+        public String toString() {
+            return "%-14s %7d B -> %7d B (%5.1f %% menos)  comprimir %8.1f µs (%6.0f MB/s)  descomprimir %8.1f µs (%6.0f MB/s)"
+                    .formatted(kind, originalBytes, compressedBytes, getSavedPercent(),
+                            encodeNanos / 1000.0, throughput(encodeNanos), decodeNanos / 1000.0, throughput(decodeNanos));
+        }
+
+        private double throughput(long nanos) {
+            return originalBytes * 1000.0 / Math.max(1, nanos);
+        }
+    }
+};
@@ -0,0 +1,134 @@
+package com.notasapp.bench;
+
+import com.notasapp.Main;
+import com.notasapp.config.ConnectionPoolMonitor;
+import com.notasapp.service.NotesService;
+import com.notasapp.service.UserService;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ejecuta la simulación de carga de WorkloadSimulator contra un MongoDB
+ * embebido (flapdoodle) recién arrancado, que se detiene al terminar.
+ *
+ * La simulación crea usuarios simulado-N con sus notas, así que antes de
+ * empezar comprueba que la base de datos esté vacía y se niega a ejecutarse
+ * si no lo está: nunca escribe en una base de datos con datos reales.
+ *
+ * Admite --users, --seed-notes, --mix, --think-time, --warm-up, --duration y
+ * --hgrm=carpeta; el resto de argumentos se pasan a la aplicación como
+ * propiedades.
+ */
+public class EmbeddedMongoSimulation {
+
+    // Usuarios simultáneos, notas iniciales y duraciones por defecto
+    private static final int DEFAULT_USERS = 100;
+    private static final int DEFAULT_SEED_NOTES = 20;
+    private static final Duration DEFAULT_WARM_UP = Duration.ofSeconds(10);
+    private static final Duration DEFAULT_DURATION = Duration.ofSeconds(60);
+
+    // Base de datos propia de la simulación
+    private static final String DATABASE = "tnote-simulacion";
+
+    // Opciones con valor entero y el valor mínimo que admite cada una
+    private static final Map<String, Integer> INTEGER_OPTIONS = Map.of("--users", 1, "--seed-notes", 0);
+
+    public static void main(String[] args) {
+        String invalidOption = BenchOptions.validate(args, INTEGER_OPTIONS);
+        if (invalidOption != null) {
+            System.out.println(invalidOption);
+            return;
+        };
+
+        try (TransitionWalker.ReachedState<RunningMongodProcess> mongod = Mongod.instance().start(Version.Main.V7_0)) {
+            ServerAddress address = mongod.current().getServerAddress();
+
+            List<String> appArgs = new ArrayList<>(Arrays.asList(args));
+            appArgs.add("--notas.mongo.uri=mongodb://" + address.getHost() + ":" + address.getPort());
+            appArgs.add("--notas.mongo.database=" + DATABASE);
+            appArgs.add("--spring.autoconfigure.exclude="
+                    + "de.flapdoodle.embed.mongo.spring.autoconfigure.EmbeddedMongoAutoConfiguration");
+            try (ConfigurableApplicationContext context = SpringApplication.run(Main.class, appArgs.toArray(String[]::new))) {
+                String notEmpty = checkEmptyDatabase(context);
+                if (notEmpty != null) {
+                    System.out.println(notEmpty);
+                    return;
+                };
+                simulate(context, args);
+            };
+        };
+    };
+
+    /**
+     * Comprueba que la aplicación use una base de datos MongoDB sin documentos,
+     * salvo los índices que crea el propio arranque.
+     * @param context El contexto de Spring
+     * @return El motivo por el que no se puede simular, o null si la base de datos está vacía
+     */
+    private static String checkEmptyDatabase(ConfigurableApplicationContext context) {
+        MongoTemplate mongoTemplate = context.getBeanProvider(MongoTemplate.class).getIfAvailable();
+        if (mongoTemplate == null) {
+            return "La simulación solo se ejecuta contra MongoDB, no con el almacenamiento embebido.";
+        };
+        for (String collection : mongoTemplate.getCollectionNames()) {
+            if (mongoTemplate.getCollection(collection).estimatedDocumentCount() > 0) {
+                return "La base de datos " + mongoTemplate.getDb().getName() + " no está vacía (colección "
+                        + collection + "): la simulación solo se ejecuta en una base de datos dedicada.";
+            };
+        };
+        return null;
+    };
+
+    /**
+     * Simula muchos usuarios simultáneos y muestra la latencia de cada operación.
+     * @param context El contexto de Spring
+     * @param args Argumentos de línea de comandos con las opciones de la simulación
+     */
+    private static void simulate(ConfigurableApplicationContext context, String[] args) {
+        String mix = BenchOptions.optionValue(args, "--mix");
+        String thinkTime = BenchOptions.optionValue(args, "--think-time");
+        String warmUp = BenchOptions.optionValue(args, "--warm-up");
+        String duration = BenchOptions.optionValue(args, "--duration");
+        String histograms = BenchOptions.optionValue(args, "--hgrm");
+        WorkloadSimulator simulator = new WorkloadSimulator(
+                context.getBean(NotesService.class), context.getBean(UserService.class));
+
+        try {
+            List<WorkloadSimulator.Result> results = simulator.run(
+                    BenchOptions.intOption(args, "--users", DEFAULT_USERS),
+                    BenchOptions.intOption(args, "--seed-notes", DEFAULT_SEED_NOTES),
+                    WorkloadSimulator.parseMix(mix != null ? mix : WorkloadSimulator.DEFAULT_MIX),
+                    thinkTime != null ? DurationStyle.detectAndParse(thinkTime) : Duration.ZERO,
+                    warmUp != null ? DurationStyle.detectAndParse(warmUp) : DEFAULT_WARM_UP,
+                    duration != null ? DurationStyle.detectAndParse(duration) : DEFAULT_DURATION);
+            results.forEach(System.out::println);
+            if (histograms != null) {
+                WorkloadSimulator.writeHistograms(results, Path.of(histograms));
+                System.out.println("Histogramas guardados en " + histograms);
+            };
+            context.getBeanProvider(ConnectionPoolMonitor.class)
+                    .ifAvailable(monitor -> System.out.println(monitor.snapshot()));
+        } catch (IllegalArgumentException e) {
+            System.out.println("Opciones de simulación no válidas: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Error al guardar los histogramas: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("Simulación interrumpida.");
+        };
+    };
+};
@@ -0,0 +1,294 @@
+package com.notasapp.bench;
+
+import com.notasapp.Main;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Mide el rendimiento y la latencia de la API HTTP con muchas conexiones concurrentes.
+ *
+ * Cada conexión es un hilo virtual del cliente que repite peticiones sin
+ * pausa con su propia conexión HTTP/1.1 (sin multiplexar): el servidor ve
+ * tantas conexiones abiertas a la vez como conexiones se pidan. La mezcla de
+ * peticiones imita el uso normal: 70 % primera página del listado, 20 %
+ * detalle de una nota y 10 % creación de notas.
+ *
+ * Con main arranca la API HTTP (perfil http) en este mismo proceso, la mide
+ * con --connections conexiones y --requests peticiones, y termina. Se ejecuta
+ * desde el perfil de Maven jmh, fuera de la aplicación:
+ * mvn -P jmh test-compile exec:exec@bench -Dbench=HttpLoadReport -Dbench.args="..."
+ */
+public class HttpLoadReport {
+
+    // Conexiones concurrentes y peticiones por defecto
+    private static final int DEFAULT_CONNECTIONS = 1000;
+    private static final int DEFAULT_REQUESTS = 50000;
+
+    // Opciones con valor entero y el valor mínimo que admite cada una
+    private static final Map<String, Integer> INTEGER_OPTIONS = Map.of("--connections", 1, "--requests", 1);
+
+    // Usuarios entre los que se reparten las conexiones y notas iniciales de cada uno
+    private static final int USERS = 100;
+    private static final int SEED_NOTES_PER_USER = 20;
+
+    // Peticiones de calentamiento, que no se miden
+    private static final int WARM_UP_REQUESTS = 2000;
+
+    private static final Pattern NOTE_ID = Pattern.compile("\"id\":\"([0-9a-f]{24})\"");
+
+    private final URI baseUri;
+    private final HttpClient client;
+
+    // IDs de las notas iniciales de cada usuario, para las peticiones de detalle
+    private final List<List<String>> noteIds = new ArrayList<>();
+
+    /**
+     * Arranca la API HTTP, la mide y muestra el resultado.
+     * @param args --connections, --requests y propiedades de la aplicación
+     */
+    public static void main(String[] args) {
+        String invalidOption = BenchOptions.validate(args, INTEGER_OPTIONS);
+        if (invalidOption != null) {
+            System.out.println(invalidOption);
+            return;
+        };
+
+        SpringApplication application = new SpringApplication(Main.class);
+        application.setAdditionalProfiles("http");
+        try (ConfigurableApplicationContext context = application.run(args)) {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            HttpLoadReport report = new HttpLoadReport(URI.create("http://localhost:" + port));
+            System.out.println(report.run(
+                    BenchOptions.intOption(args, "--connections", DEFAULT_CONNECTIONS),
+                    BenchOptions.intOption(args, "--requests", DEFAULT_REQUESTS)));
+        } catch (IOException e) {
+            System.out.println("Error en la medición: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("Medición interrumpida.");
+        };
+    };
+
+    /**
+     * Constructor que indica el servidor a medir.
+     * @param baseUri La URL base del servidor, por ejemplo http://localhost:8080
+     */
+    public HttpLoadReport(URI baseUri) {
+        this.baseUri = baseUri;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * Crea las notas iniciales, calienta el servidor y ejecuta la medición.
+     * @param connections Número de conexiones concurrentes
+     * @param requests Número total de peticiones medidas
+     * @return El resultado de la medición
+     * @throws IOException si falla la creación de las notas iniciales
+     * @throws InterruptedException si se interrumpe la espera
+     */
+    public Result run(int connections, int requests) throws IOException, InterruptedException {
+        seed();
+        measure(Math.min(connections, WARM_UP_REQUESTS), WARM_UP_REQUESTS);
+        return measure(connections, requests);
+    }
+
+    /**
+     * Crea las notas iniciales de cada usuario y guarda sus IDs.
+     * @throws IOException si el servidor rechaza alguna creación
+     * @throws InterruptedException si se interrumpe la espera
+     */
+    private void seed() throws IOException, InterruptedException {
+        for (int user = 0; user < USERS; user++) {
+            List<String> ids = new ArrayList<>(SEED_NOTES_PER_USER);
+            for (int i = 0; i < SEED_NOTES_PER_USER; i++) {
+                HttpResponse<String> response = client.send(createRequest(user, i), HttpResponse.BodyHandlers.ofString());
+                Matcher matcher = NOTE_ID.matcher(response.body());
+                if (response.statusCode() != 201 || !matcher.find()) {
+                    throw new IOException("No se pudo crear una nota inicial: HTTP " + response.statusCode());
+                }
+                ids.add(matcher.group(1));
+            }
+            noteIds.add(ids);
+        }
+    }
+
+    /**
+     * Lanza las peticiones desde tantas conexiones concurrentes como se indique
+     * y registra la latencia de cada una.
+     * @param connections Número de conexiones concurrentes
+     * @param requests Número total de peticiones
+     * @return El resultado de la medición
+     * @throws InterruptedException si se interrumpe la espera
+     */
+    private Result measure(int connections, int requests) throws InterruptedException {
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int connection = 0; connection < connections; connection++) {
+                int user = connection % USERS;
+                executor.submit(() -> {
+                    int index;
+                    while ((index = next.getAndIncrement()) < requests) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(nextRequest(user, index),
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        latencies[index] = System.nanoTime() - sent;
+                    }
+                });
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        Arrays.sort(latencies);
+        return new Result(connections, requests, errors.get(), elapsed,
+                percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+                Duration.ofNanos(latencies[latencies.length - 1]));
+    }
+
+    /**
+     * Elige la siguiente petición según la mezcla de la medición.
+     * @param user El usuario de la conexión
+     * @param index El número de petición
+     * @return La petición a enviar
+     */
+    private HttpRequest nextRequest(int user, int index) {
+        int roll = ThreadLocalRandom.current().nextInt(100);
+        if (roll < 70) {
+            return get(user, "/api/notes?size=20");
+        }
+        if (roll < 90) {
+            List<String> ids = noteIds.get(user);
+            return get(user, "/api/notes/" + ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+        }
+        return createRequest(user, index);
+    }
+
+    /**
+     * Construye una petición GET de un usuario.
+     * @param user El número de usuario
+     * @param path La ruta y la consulta
+     * @return La petición
+     */
+    private HttpRequest get(int user, String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("X-User", username(user))
+                .GET()
+                .build();
+    }
+
+    /**
+     * Construye la petición de creación de una nota de un usuario.
+     * @param user El número de usuario
+     * @param index Un número para distinguir el título
+     * @return La petición
+     */
+    private HttpRequest createRequest(int user, int index) {
+        String body = "{\"title\":\"Nota de carga " + index + "\",\"content\":\"Contenido de prueba de carga\","
+                + "\"status\":\"No hecho\"}";
+        return HttpRequest.newBuilder(baseUri.resolve("/api/notes"))
+                .header("X-User", username(user))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /**
+     * Nombre de usuario de la medición.
+     * @param user El número de usuario
+     * @return El nombre de usuario
+     */
+    private static String username(int user) {
+        return "carga-" + user;
+    }
+
+    /**
+     * Obtiene un percentil de latencias ya ordenadas.
+     * @param sorted Latencias en nanosegundos, en orden ascendente
+     * @param percentile El percentil (0-100)
+     * @return La latencia del percentil
+     */
+    private static Duration percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return Duration.ofNanos(sorted[Math.max(0, index)]);
+    }
+
+    /**
+     * Resultado de una medición.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Result {
+        // Conexiones concurrentes
+        private int connections;
+
+        // Peticiones medidas
+        private int requests;
+
+        // Peticiones con error de red o respuesta 4xx/5xx
+        private int errors;
+
+        // Tiempo total
+        private Duration elapsed;
+
+        // Latencias por percentil y máxima
+        private Duration p50;
+        private Duration p90;
+        private Duration p99;
+        private Duration max;
+
+        /**
+         * Calcula las peticiones por segundo.
+         * @return Peticiones completadas por segundo
+         */
+        public double getRequestsPerSecond() {
+            return requests * 1_000_000_000.0 / Math.max(1, elapsed.toNanos());
+        }
+
+        @Override
+        public String toString() {
+            return ("%d conexiones, %d peticiones (%d errores) en %d ms: %.1f peticiones/s%n"
+                    + "latencia p50 %.2f ms  p90 %.2f ms  p99 %.2f ms  máx %.2f ms").formatted(
+                    connections, requests, errors, elapsed.toMillis(), getRequestsPerSecond(),
+                    millis(p50), millis(p90), millis(p99), millis(max));
+        }
+
+        private static double millis(Duration duration) {
+            return duration.toNanos() / 1_000_000.0;
+        }
+    }
+};
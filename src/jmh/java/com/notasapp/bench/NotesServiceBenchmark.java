@@ -0,0 +1,218 @@
+package com.notasapp.bench;
+
+import com.notasapp.Main;
+import com.notasapp.model.BulkOptions;
+import com.notasapp.model.Note;
+import com.notasapp.model.NoteUpdateResult;
+import com.notasapp.model.User;
+import com.notasapp.service.NotesService;
+import com.notasapp.service.UserService;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bancos de pruebas JMH de los caminos más usados del servicio de notas y su
+ * persistencia: crear una nota, listar todas las notas o las de un estado,
+ * cambiar el estado de una nota y comprobar si un estado está disponible.
+ *
+ * Cada combinación de parámetros arranca un MongoDB embebido (flapdoodle)
+ * vacío, el contexto de Spring de la aplicación contra él y carga
+ * notesPerUser notas de contentBytes bytes para un mismo usuario. Para medir
+ * contra un servidor ya arrancado se indica su URI con
+ * -Dnotas.bench.mongo-uri=mongodb://... (la base de datos se vacía).
+ *
+ * Con 1.000.000 de notas, listar todas las notas de un usuario carga en
+ * memoria todo su contenido: el montón de cada bifurcación se amplía a 8 GB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class NotesServiceBenchmark {
+
+    // Usuario cuyas notas se leen y se modifican
+    private static final String USER = "bench-lector";
+
+    // Usuario en el que se crean notas durante la medición, para no alterar el conjunto leído
+    private static final String WRITER = "bench-escritor";
+
+    // Notas insertadas por llamada al cargar los datos
+    private static final int SEED_CHUNK = 10_000;
+
+    private static final String[] WORDS = {"el", "la", "de", "que", "y", "en", "un", "proyecto", "entrega",
+            "cliente", "revisar", "semana", "equipo", "tarea", "presupuesto", "pendiente", "reunión", "acuerdo",
+            "propuesta", "fecha", "versión", "pruebas", "despliegue", "incidencia", "prioridad", "documento"};
+
+    @Param({"1000", "100000", "1000000"})
+    public int notesPerUser;
+
+    @Param({"256", "4096"})
+    public int contentBytes;
+
+    private TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+    private ConfigurableApplicationContext context;
+
+    private NotesService notesService;
+    private UserService userService;
+
+    // Contenidos de nota ya generados, que se reparten en orden
+    private String[] contents;
+    private int nextContent;
+
+    // Nota cuyo estado se alterna, con su versión actual
+    private String toggledNoteId;
+    private Long toggledVersion;
+    private boolean toggled;
+
+    /**
+     * Arranca MongoDB y la aplicación y carga el conjunto de notas.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        String uri = System.getProperty("notas.bench.mongo-uri");
+        if (uri == null) {
+            mongod = Mongod.instance().start(Version.Main.V7_0);
+            ServerAddress address = mongod.current().getServerAddress();
+            uri = "mongodb://" + address.getHost() + ":" + address.getPort();
+        };
+
+        context = new SpringApplicationBuilder(Main.class)
+                .web(WebApplicationType.NONE)
+                .properties(Map.of(
+                        "spring.autoconfigure.exclude",
+                        "de.flapdoodle.embed.mongo.spring.autoconfigure.EmbeddedMongoAutoConfiguration",
+                        "spring.main.banner-mode", "off",
+                        "logging.level.root", "WARN"))
+                .run("--notas.mongo.uri=" + uri, "--notas.mongo.database=tnote-bench");
+        notesService = context.getBean(NotesService.class);
+        userService = context.getBean(UserService.class);
+
+        Random random = new Random(contentBytes);
+        contents = new String[64];
+        for (int i = 0; i < contents.length; i++) {
+            contents[i] = text(contentBytes, random);
+        };
+
+        userService.getOrCreateUser(USER);
+        userService.getOrCreateUser(WRITER);
+        notesService.deleteNotesByFilter(USER, null, BulkOptions.defaults());
+        notesService.deleteNotesByFilter(WRITER, null, BulkOptions.defaults());
+        seed();
+
+        Note toggledNote = notesService.createNote(USER, "Nota alternada", contents[0], "Hecho");
+        toggledNoteId = toggledNote.getId();
+        toggledVersion = toggledNote.getVersion();
+    };
+
+    /**
+     * Cierra la aplicación y detiene MongoDB.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        if (mongod != null) {
+            mongod.close();
+        };
+    };
+
+    @Benchmark
+    public Note createNote() {
+        return notesService.createNote(WRITER, "Nota nueva", nextContent(), "No hecho");
+    };
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Note> getAllNotesByUser() {
+        return notesService.getAllNotesByUser(USER);
+    };
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Note> getNotesByStatus() {
+        return notesService.getNotesByStatus(USER, "En proceso");
+    };
+
+    @Benchmark
+    public NoteUpdateResult updateNoteStatus() {
+        toggled = !toggled;
+        NoteUpdateResult result = notesService.updateNoteStatus(toggledNoteId, USER,
+                toggled ? "En revisión" : "Hecho", toggledVersion);
+        if (!result.isUpdated()) {
+            throw new IllegalStateException("La nota alternada no se pudo actualizar: " + result.getOutcome());
+        };
+        toggledVersion = result.getNote().getVersion();
+        return result;
+    };
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean isStatusAvailable() {
+        return userService.isStatusAvailable(USER, "En revisión");
+    };
+
+    /**
+     * Carga notesPerUser notas del usuario, repartidas por igual entre los
+     * estados predeterminados, por tandas para no tenerlas todas en memoria.
+     */
+    private void seed() {
+        BulkOptions options = BulkOptions.defaults();
+        for (int from = 0; from < notesPerUser; from += SEED_CHUNK) {
+            int count = Math.min(SEED_CHUNK, notesPerUser - from);
+            List<Note> notes = new ArrayList<>(count);
+            for (int i = from; i < from + count; i++) {
+                Note note = new Note();
+                note.setTitle("Nota " + i);
+                note.setContent(nextContent());
+                note.setStatus(User.DEFAULT_STATUSES.get(i % User.DEFAULT_STATUSES.size()));
+                notes.add(note);
+            };
+            notesService.createNotes(USER, notes, options);
+        };
+    };
+
+    private String nextContent() {
+        String content = contents[nextContent];
+        nextContent = (nextContent + 1) % contents.length;
+        return content;
+    };
+
+    /**
+     * Genera un texto de palabras al azar del tamaño indicado.
+     * @param size Tamaño en caracteres
+     * @param random Generador con semilla fija
+     * @return El texto
+     */
+    private static String text(int size, Random random) {
+        StringBuilder text = new StringBuilder(size + 16);
+        while (text.length() < size) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(8) == 0 ? ".\n" : " ");
+        };
+        return text.substring(0, size);
+    };
+};
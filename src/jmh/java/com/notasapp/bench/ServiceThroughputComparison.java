@@ -0,0 +1,201 @@
+package com.notasapp.bench;
+
+import com.notasapp.Main;
+import com.notasapp.config.ConnectionPoolMonitor;
+import com.notasapp.service.NotesService;
+import com.notasapp.service.ReactiveNotesService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Compara el rendimiento del servicio de notas bloqueante, con hilos de
+ * plataforma y con hilos virtuales, y el del servicio reactivo ante muchas
+ * sesiones concurrentes.
+ *
+ * Cada operación lee los resúmenes de las notas de un usuario (la consulta de
+ * los listados). Con hilos de plataforma hay un hilo del sistema operativo por
+ * sesión, como haría un servidor clásico con un hilo por petición; con hilos
+ * virtuales, como atiende la API HTTP, cada sesión suelta su hilo de
+ * plataforma mientras espera a la base de datos; el servicio reactivo lanza
+ * el mismo número de consultas simultáneas sin ocupar hilos mientras esperan.
+ * Con el almacenamiento embebido no hay servicio reactivo y solo se comparan
+ * los dos primeros modos.
+ *
+ * Con main arranca el contexto de la aplicación sin consola, compara las
+ * lecturas de las notas de --user con --sessions sesiones y --operations
+ * operaciones, y termina. Se ejecuta desde el perfil de Maven jmh:
+ * mvn -P jmh test-compile exec:exec@bench -Dbench=ServiceThroughputComparison -Dbench.args="..."
+ */
+public class ServiceThroughputComparison {
+
+    // Sesiones concurrentes y operaciones por defecto
+    private static final int DEFAULT_SESSIONS = 64;
+    private static final int DEFAULT_OPERATIONS = 20000;
+
+    // Opciones con valor entero y el valor mínimo que admite cada una
+    private static final Map<String, Integer> INTEGER_OPTIONS = Map.of("--sessions", 1, "--operations", 1);
+
+    // Operaciones de calentamiento por modo, que no se miden
+    private static final int WARM_UP_OPERATIONS = 500;
+
+    private final NotesService notesService;
+
+    // Servicio reactivo, o null con el almacenamiento embebido
+    private final ReactiveNotesService reactiveNotesService;
+
+    /**
+     * Arranca el contexto de la aplicación, ejecuta la comparación y muestra el resultado.
+     * @param args --user (obligatoria), --sessions, --operations y propiedades de la aplicación
+     */
+    public static void main(String[] args) {
+        String userId = BenchOptions.optionValue(args, "--user");
+        String invalidOption = userId == null
+                ? "Falta --user=usuario: el usuario cuyas notas se leen"
+                : BenchOptions.validate(args, INTEGER_OPTIONS);
+        if (invalidOption != null) {
+            System.out.println(invalidOption);
+            return;
+        };
+
+        try (ConfigurableApplicationContext context = SpringApplication.run(Main.class, args)) {
+            ServiceThroughputComparison comparison = new ServiceThroughputComparison(context.getBean(NotesService.class),
+                    context.getBeanProvider(ReactiveNotesService.class).getIfAvailable());
+            comparison.run(userId,
+                    BenchOptions.intOption(args, "--sessions", DEFAULT_SESSIONS),
+                    BenchOptions.intOption(args, "--operations", DEFAULT_OPERATIONS))
+                    .forEach(System.out::println);
+            // Con MongoDB, el estado del pool tras la carga indica si está bien dimensionado
+            context.getBeanProvider(ConnectionPoolMonitor.class)
+                    .ifAvailable(monitor -> System.out.println(monitor.snapshot()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("Comparación interrumpida.");
+        };
+    };
+
+    /**
+     * Constructor que recibe los servicios a comparar.
+     * @param notesService El servicio bloqueante
+     * @param reactiveNotesService El servicio reactivo, o null si no hay
+     */
+    public ServiceThroughputComparison(NotesService notesService, ReactiveNotesService reactiveNotesService) {
+        this.notesService = notesService;
+        this.reactiveNotesService = reactiveNotesService;
+    }
+
+    /**
+     * Ejecuta la comparación sobre las notas de un usuario.
+     * @param userId El usuario cuyas notas se leen
+     * @param sessions Número de sesiones concurrentes
+     * @param operations Número total de operaciones por modo
+     * @return El resultado con hilos de plataforma, el de hilos virtuales y, si hay servicio reactivo, el suyo
+     * @throws InterruptedException si se interrumpe la espera
+     */
+    public List<Result> run(String userId, int sessions, int operations) throws InterruptedException {
+        run(userId, sessions, WARM_UP_OPERATIONS, false);
+        run(userId, sessions, WARM_UP_OPERATIONS, true);
+
+        List<Result> results = new ArrayList<>(List.of(
+                new Result("plataforma", sessions, operations, run(userId, sessions, operations, false)),
+                new Result("virtuales", sessions, operations, run(userId, sessions, operations, true))));
+        if (reactiveNotesService != null) {
+            runReactive(userId, sessions, WARM_UP_OPERATIONS);
+            results.add(new Result("reactivo", sessions, operations, runReactive(userId, sessions, operations)));
+        }
+        return results;
+    }
+
+    /**
+     * Reparte las operaciones entre un hilo por sesión que llama al servicio.
+     * @param userId El usuario cuyas notas se leen
+     * @param sessions Número de sesiones concurrentes
+     * @param operations Número total de operaciones
+     * @param virtual true para usar hilos virtuales
+     * @return El tiempo transcurrido
+     * @throws InterruptedException si se interrumpe la espera
+     */
+    private Duration run(String userId, int sessions, int operations, boolean virtual) throws InterruptedException {
+        ExecutorService executor = virtual
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(sessions);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>(sessions);
+            for (int session = 0; session < sessions; session++) {
+                int sessionOperations = operations / sessions + (session < operations % sessions ? 1 : 0);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < sessionOperations; i++) {
+                        notesService.getNoteSummariesByUser(userId);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return Duration.ofNanos(System.nanoTime() - start);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falló una operación del servicio", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Lanza las operaciones sobre el servicio reactivo con tantas en curso como sesiones.
+     * @param userId El usuario cuyas notas se leen
+     * @param sessions Número de operaciones simultáneas
+     * @param operations Número total de operaciones
+     * @return El tiempo transcurrido
+     */
+    private Duration runReactive(String userId, int sessions, int operations) {
+        long start = System.nanoTime();
+        Flux.range(0, operations)
+                .flatMap(i -> reactiveNotesService.getNoteSummariesByUser(userId).collectList(), sessions)
+                .blockLast();
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    /**
+     * Resultado de uno de los modos.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Result {
+        // Nombre del modo medido
+        private String path;
+
+        // Sesiones concurrentes
+        private int sessions;
+
+        // Operaciones completadas
+        private int operations;
+
+        // Tiempo total
+        private Duration elapsed;
+
+        /**
+         * Calcula las operaciones por segundo.
+         * @return Operaciones completadas por segundo
+         */
+        public double getOperationsPerSecond() {
+            return operations * 1_000_000_000.0 / Math.max(1, elapsed.toNanos());
+        }
+
+        @Override
+        public String toString() {
+            return "%-10s %5d sesiones  %8d operaciones  %8d ms  %10.1f op/s".formatted(
+                    path, sessions, operations, elapsed.toMillis(), getOperationsPerSecond());
+        }
+    }
+};
@@ -0,0 +1,274 @@
+package com.notasapp.bench;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Mide el tiempo hasta que la consola pide el nombre de usuario, arrancando
+ * la aplicación varias veces en un proceso nuevo en cada modo de arranque:
+ * - estándar: el jar ejecutable tal cual (java -jar)
+ * - rápido: el jar extraído con las definiciones de beans generadas por AOT,
+ *   el archivo CDS del arranque de entrenamiento e inicialización diferida
+ *   (perfil de Maven faststart)
+ *
+ * Cada medición se añade a un fichero CSV (fecha, modo, ejecución,
+ * milisegundos) para comparar entre versiones.
+ *
+ * Con main mide el jar de target (o --jar) --runs veces por modo; se ejecuta
+ * desde el perfil de Maven jmh tras mvn package:
+ * mvn -P jmh test-compile exec:exec@bench -Dbench=StartupTimeReport -Dbench.args="..."
+ */
+public class StartupTimeReport {
+
+    // Arranques medidos por modo y ficheros por defecto
+    private static final int DEFAULT_RUNS = 5;
+    private static final String DEFAULT_FASTSTART_DIRECTORY = "target/faststart";
+    private static final String DEFAULT_CSV = "target/startup-times.csv";
+
+    // Opciones propias de la medición; el resto se pasan a la aplicación medida
+    private static final List<String> OPTIONS = List.of("--runs", "--jar", "--faststart-dir", "--profiles", "--startup-csv");
+
+    // Opciones con valor entero y el valor mínimo que admite cada una
+    private static final Map<String, Integer> INTEGER_OPTIONS = Map.of("--runs", 1);
+
+    // Texto que indica que la consola ya espera al usuario
+    private static final String PROMPT = "Ingrese su nombre de usuario";
+
+    // Tiempo máximo de espera de cada arranque
+    private static final long TIMEOUT_SECONDS = 120;
+
+    private final Path java;
+    private final Path jar;
+    private final Path fastStartDirectory;
+    private final List<String> profiles;
+    private final List<String> appArgs;
+
+    /**
+     * Mide el tiempo hasta la petición del usuario en cada modo de arranque y muestra el resultado.
+     * @param args --runs, --jar, --faststart-dir, --profiles, --startup-csv y argumentos de la aplicación medida
+     */
+    public static void main(String[] args) {
+        String invalidOption = BenchOptions.validate(args, INTEGER_OPTIONS);
+        if (invalidOption != null) {
+            System.out.println(invalidOption);
+            return;
+        };
+
+        String jar = BenchOptions.optionValue(args, "--jar");
+        String fastStartDirectory = BenchOptions.optionValue(args, "--faststart-dir");
+        String profiles = BenchOptions.optionValue(args, "--profiles");
+        String csv = BenchOptions.optionValue(args, "--startup-csv");
+        List<String> appArgs = Arrays.stream(args)
+                .filter(arg -> OPTIONS.stream().noneMatch(option -> arg.equals(option) || arg.startsWith(option + "=")))
+                .toList();
+
+        try {
+            Path executableJar = jar != null ? Path.of(jar) : findExecutableJar();
+            StartupTimeReport report = new StartupTimeReport(executableJar,
+                    Path.of(fastStartDirectory != null ? fastStartDirectory : DEFAULT_FASTSTART_DIRECTORY),
+                    List.of((profiles != null ? profiles : "faststart").split(",")), appArgs);
+            Path results = Path.of(csv != null ? csv : DEFAULT_CSV);
+            report.run(BenchOptions.intOption(args, "--runs", DEFAULT_RUNS), results)
+                    .forEach(System.out::println);
+            System.out.println("Mediciones añadidas a " + results);
+        } catch (IOException e) {
+            System.out.println("Error en la medición del arranque: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("Medición interrumpida.");
+        };
+    };
+
+    /**
+     * Busca en target el jar ejecutable generado por mvn package.
+     * @return La ruta del jar
+     * @throws IOException si no hay ningún jar
+     */
+    private static Path findExecutableJar() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of("target"))) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IOException("No hay ningún jar en target: ejecute mvn package o indique --jar"));
+        }
+    };
+
+    /**
+     * Constructor que indica qué arrancar.
+     * @param jar El jar ejecutable del modo estándar
+     * @param fastStartDirectory La carpeta generada por el perfil faststart
+     * @param profiles Los perfiles de Spring con los que se generó el modo rápido (incluido faststart)
+     * @param appArgs Argumentos adicionales para la aplicación en los dos modos
+     */
+    public StartupTimeReport(Path jar, Path fastStartDirectory, List<String> profiles, List<String> appArgs) {
+        this.java = Path.of(System.getProperty("java.home"), "bin", "java");
+        this.jar = jar;
+        this.fastStartDirectory = fastStartDirectory;
+        this.profiles = profiles;
+        this.appArgs = appArgs;
+    }
+
+    /**
+     * Arranca la aplicación runs veces en cada modo disponible.
+     * @param runs Arranques medidos por modo
+     * @param csv Fichero CSV al que se añaden las mediciones
+     * @return El resultado de cada modo
+     * @throws IOException si un arranque falla o no se puede escribir el CSV
+     * @throws InterruptedException si se interrumpe la espera
+     */
+    public List<Result> run(int runs, Path csv) throws IOException, InterruptedException {
+        List<Result> results = new ArrayList<>();
+        results.add(measure("estándar", standardCommand(), runs, csv));
+
+        Path fastJar = fastStartDirectory.resolve(jar.getFileName());
+        if (Files.exists(fastJar)) {
+            results.add(measure("rápido", fastStartCommand(fastJar), runs, csv));
+        } else {
+            System.out.println("No se encontró " + fastJar + ": genere el modo rápido con mvn -P faststart package");
+        }
+        return results;
+    }
+
+    /**
+     * Mide los arranques de un modo, tras uno de calentamiento de la caché de disco.
+     * @param mode El nombre del modo
+     * @param command La orden de arranque
+     * @param runs Arranques medidos
+     * @param csv Fichero CSV al que se añaden las mediciones
+     * @return El resultado del modo
+     * @throws IOException si un arranque falla
+     * @throws InterruptedException si se interrumpe la espera
+     */
+    private Result measure(String mode, List<String> command, int runs, Path csv) throws IOException, InterruptedException {
+        timeToPrompt(command);
+
+        long[] millis = new long[runs];
+        for (int run = 0; run < runs; run++) {
+            millis[run] = timeToPrompt(command);
+            Files.writeString(csv, "%s,%s,%d,%d%n".formatted(Instant.now(), mode, run + 1, millis[run]),
+                    StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        Arrays.sort(millis);
+        return new Result(mode, runs, millis[0], millis[runs / 2], millis[runs - 1]);
+    }
+
+    /**
+     * Arranca la aplicación y espera a que pida el nombre de usuario.
+     * @param command La orden de arranque
+     * @return Milisegundos desde que se lanzó el proceso hasta la petición
+     * @throws IOException si la aplicación termina o tarda demasiado sin llegar a pedirlo
+     * @throws InterruptedException si se interrumpe la espera
+     */
+    private long timeToPrompt(List<String> command) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try {
+            // La salida se lee en un hilo aparte para poder limitar la espera
+            StringBuilder output = new StringBuilder();
+            Thread reader = Thread.ofVirtual().start(() -> readUntilPrompt(process.getInputStream(), output));
+            if (!reader.join(Duration.ofSeconds(TIMEOUT_SECONDS))) {
+                throw new IOException("La aplicación no pidió el usuario en " + TIMEOUT_SECONDS + " s");
+            }
+            if (!output.toString().contains(PROMPT)) {
+                throw new IOException("La aplicación terminó sin pedir el usuario:\n" + tail(output.toString()));
+            }
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    /**
+     * Lee la salida del proceso hasta que aparece la petición del usuario o termina.
+     * @param in La salida del proceso
+     * @param output Donde se acumula lo leído
+     */
+    private static void readUntilPrompt(InputStream in, StringBuilder output) {
+        byte[] buffer = new byte[8192];
+        try {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                output.append(new String(buffer, 0, read, StandardCharsets.ISO_8859_1));
+                if (output.indexOf(PROMPT) >= 0) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // El proceso terminó; quien espera comprueba si llegó a pedir el usuario
+        }
+    }
+
+    /**
+     * Orden del modo estándar: el jar ejecutable, sin AOT ni CDS.
+     * @return La orden
+     */
+    private List<String> standardCommand() {
+        List<String> command = new ArrayList<>(List.of(java.toString()));
+        List<String> standardProfiles = profiles.stream().filter(profile -> !profile.equals("faststart")).toList();
+        if (!standardProfiles.isEmpty()) {
+            command.add("-Dspring.profiles.active=" + String.join(",", standardProfiles));
+        }
+        command.addAll(List.of("-jar", jar.toString()));
+        command.addAll(appArgs);
+        return command;
+    }
+
+    /**
+     * Orden del modo rápido: el jar extraído con el archivo CDS y AOT activado.
+     * @param fastJar El jar de la carpeta extraída
+     * @return La orden
+     */
+    private List<String> fastStartCommand(Path fastJar) {
+        List<String> command = new ArrayList<>(List.of(java.toString(),
+                "-XX:SharedArchiveFile=" + fastStartDirectory.resolve("tnote.jsa"),
+                "-Dspring.aot.enabled=true",
+                "-Dspring.profiles.active=" + String.join(",", profiles),
+                "-jar", fastJar.toString()));
+        command.addAll(appArgs);
+        return command;
+    }
+
+    private static String tail(String text) {
+        return text.length() <= 2000 ? text : text.substring(text.length() - 2000);
+    }
+
+    /**
+     * Resultado de un modo de arranque.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Result {
+        // Nombre del modo
+        private String mode;
+
+        // Arranques medidos
+        private int runs;
+
+        // Tiempo hasta la petición del usuario: mínimo, mediana y máximo, en milisegundos
+        private long minMillis;
+        private long medianMillis;
+        private long maxMillis;
+
+        @Override
+        public String toString() {
+            return "%-9s %d arranques: mínimo %d ms, mediana %d ms, máximo %d ms"
+                    .formatted(mode, runs, minMillis, medianMillis, maxMillis);
+        }
+    }
+};
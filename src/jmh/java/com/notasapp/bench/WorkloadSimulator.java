@@ -0,0 +1,397 @@
+package com.notasapp.bench;
+
+import com.notasapp.model.Note;
+import com.notasapp.model.NoteUpdateResult;
+import com.notasapp.model.User;
+import com.notasapp.service.NotesService;
+import com.notasapp.service.UserService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Simula muchos usuarios a la vez usando los servicios de notas y de
+ * usuarios, sin consola, y mide la latencia de cada tipo de operación.
+ *
+ * Cada usuario simulado es un hilo virtual que repite operaciones elegidas al
+ * azar según una mezcla con pesos (por ejemplo 35 % listar, 20 % filtrar por
+ * estado...), con una pausa opcional entre operaciones. Las latencias se
+ * registran en histogramas HDR por operación; primero se ejecuta un periodo
+ * de calentamiento que no se mide.
+ */
+public class WorkloadSimulator {
+
+    // Mezcla de operaciones por defecto, en pesos relativos
+    public static final String DEFAULT_MIX =
+            "inicio-sesion:5,listar:35,filtrar:20,crear:15,editar:15,eliminar:5,estados:5";
+
+    // Notas por página en los listados, como en la consola
+    private static final int PAGE_SIZE = 10;
+
+    // Estado que los usuarios simulados añaden y eliminan
+    private static final String EXTRA_STATUS = "Simulado";
+
+    // Latencia máxima registrable en los histogramas (1 minuto), con 3 cifras significativas
+    private static final long HIGHEST_TRACKABLE_NANOS = 60_000_000_000L;
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    /**
+     * Operaciones que puede hacer un usuario simulado.
+     */
+    public enum Operation {
+        LOGIN("inicio-sesion"),
+        LIST("listar"),
+        FILTER("filtrar"),
+        CREATE("crear"),
+        EDIT("editar"),
+        DELETE("eliminar"),
+        STATUS("estados");
+
+        private final String label;
+
+        Operation(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * Obtiene la operación con un nombre dado.
+         * @param label El nombre de la operación, por ejemplo "listar"
+         * @return La operación
+         * @throws IllegalArgumentException si el nombre no es de ninguna operación
+         */
+        public static Operation fromLabel(String label) {
+            for (Operation operation : values()) {
+                if (operation.label.equals(label)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Operación desconocida: " + label);
+        }
+    };
+
+    private final NotesService notesService;
+    private final UserService userService;
+
+    // Latencias y errores de cada operación
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+    // Mientras es false, se está calentando y los errores no se cuentan
+    private volatile boolean measuring;
+
+    /**
+     * Constructor que recibe los servicios a simular.
+     * @param notesService El servicio de notas
+     * @param userService El servicio de usuarios
+     */
+    public WorkloadSimulator(NotesService notesService, UserService userService) {
+        this.notesService = notesService;
+        this.userService = userService;
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * Convierte una mezcla de operaciones escrita como "listar:35,crear:15,...".
+     * @param mix La mezcla
+     * @return El peso de cada operación, en el orden indicado
+     * @throws IllegalArgumentException si la mezcla no es válida
+     */
+    public static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Entrada de mezcla no válida: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Peso negativo: " + entry);
+            }
+            weights.put(Operation.fromLabel(parts[0].trim()), weight);
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("La mezcla no tiene ninguna operación");
+        }
+        return weights;
+    }
+
+    /**
+     * Crea las notas iniciales de los usuarios, calienta y ejecuta la simulación.
+     * @param users Número de usuarios simultáneos
+     * @param seedNotes Notas iniciales de cada usuario
+     * @param mix Peso de cada operación
+     * @param thinkTime Pausa de cada usuario entre operaciones
+     * @param warmUp Duración del calentamiento, que no se mide
+     * @param duration Duración de la medición
+     * @return Un resultado por operación ejecutada, en el orden de Operation
+     * @throws InterruptedException si se interrumpe la espera
+     */
+    public List<Result> run(int users, int seedNotes, Map<Operation, Integer> mix, Duration thinkTime,
+                            Duration warmUp, Duration duration) throws InterruptedException {
+        List<SimulatedUser> simulated = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            simulated.add(seed("simulado-" + i, seedNotes));
+        }
+        Operation[] table = weightedTable(mix);
+
+        long start = System.nanoTime();
+        long measureStart = start + warmUp.toNanos();
+        long end = measureStart + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (SimulatedUser user : simulated) {
+                executor.submit(() -> simulate(user, table, thinkTime, end));
+            }
+
+            // Al acabar el calentamiento se descartan sus latencias
+            sleepUntil(measureStart);
+            for (Recorder recorder : recorders.values()) {
+                recorder.reset();
+            }
+            measuring = true;
+        }
+        double seconds = Math.max(1, System.nanoTime() - measureStart) / 1_000_000_000.0;
+
+        List<Result> results = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = recorders.get(operation).getIntervalHistogram();
+            if (histogram.getTotalCount() > 0 || errors.get(operation).sum() > 0) {
+                results.add(new Result(operation.getLabel(), histogram, errors.get(operation).sum(), seconds));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Guarda la distribución de percentiles de cada operación en un fichero
+     * .hgrm (el formato de HdrHistogram, en milisegundos), para compararla o
+     * dibujarla con las herramientas de HdrHistogram.
+     * @param results Los resultados de la simulación
+     * @param directory La carpeta donde guardar los ficheros
+     * @throws IOException si no se pueden escribir los ficheros
+     */
+    public static void writeHistograms(List<Result> results, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Result result : results) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(result.getOperation() + ".hgrm")))) {
+                result.getHistogram().outputPercentileDistribution(out, 1_000_000.0);
+            }
+        }
+    }
+
+    /**
+     * Bucle de un usuario simulado hasta el final de la simulación.
+     * @param user El usuario
+     * @param table Tabla de operaciones repetidas según su peso
+     * @param thinkTime Pausa entre operaciones
+     * @param end Instante final (System.nanoTime)
+     */
+    private void simulate(SimulatedUser user, Operation[] table, Duration thinkTime, long end) {
+        while (System.nanoTime() < end) {
+            Operation operation = table[ThreadLocalRandom.current().nextInt(table.length)];
+            // Sin notas propias, editar o eliminar se convierte en crear
+            if ((operation == Operation.EDIT || operation == Operation.DELETE) && user.notes.isEmpty()) {
+                operation = Operation.CREATE;
+            }
+
+            long started = System.nanoTime();
+            try {
+                execute(user, operation);
+                recorders.get(operation).recordValue(Math.min(System.nanoTime() - started, HIGHEST_TRACKABLE_NANOS));
+            } catch (RuntimeException e) {
+                if (measuring) {
+                    errors.get(operation).increment();
+                }
+            }
+
+            if (!thinkTime.isZero()) {
+                try {
+                    Thread.sleep(thinkTime);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Ejecuta una operación de un usuario simulado.
+     * @param user El usuario
+     * @param operation La operación
+     */
+    private void execute(SimulatedUser user, Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (operation) {
+            case LOGIN -> userService.getOrCreateUser(user.username);
+            case LIST -> notesService.getNotesPage(user.username, null, null, true, PAGE_SIZE);
+            case FILTER -> {
+                String status = User.DEFAULT_STATUSES.get(random.nextInt(User.DEFAULT_STATUSES.size()));
+                notesService.getNotesPage(user.username, status, null, true, PAGE_SIZE);
+            }
+            case CREATE -> {
+                Note note = notesService.createNote(user.username, "Nota simulada " + random.nextInt(1_000_000),
+                        content(random), User.DEFAULT_STATUSES.get(random.nextInt(User.DEFAULT_STATUSES.size())));
+                if (note == null) {
+                    throw new IllegalStateException("Estado rechazado al crear");
+                }
+                user.notes.add(new NoteRef(note.getId(), note.getVersion()));
+            }
+            case EDIT -> {
+                NoteRef ref = user.notes.get(random.nextInt(user.notes.size()));
+                NoteUpdateResult result = notesService.updateNote(ref.id, user.username,
+                        "Nota editada " + random.nextInt(1_000_000), content(random), ref.version);
+                if (result.getNote() != null) {
+                    ref.version = result.getNote().getVersion();
+                }
+                if (!result.isUpdated()) {
+                    throw new IllegalStateException("Edición no aplicada: " + result.getOutcome());
+                }
+            }
+            case DELETE -> {
+                NoteRef ref = user.notes.remove(random.nextInt(user.notes.size()));
+                if (!notesService.deleteNote(ref.id, user.username)) {
+                    throw new IllegalStateException("Nota no encontrada al eliminar");
+                }
+            }
+            case STATUS -> {
+                boolean changed = user.hasExtraStatus
+                        ? userService.removeStatusFromUser(user.username, EXTRA_STATUS)
+                        : userService.addStatusToUser(user.username, EXTRA_STATUS);
+                if (changed) {
+                    user.hasExtraStatus = !user.hasExtraStatus;
+                }
+            }
+        }
+    }
+
+    /**
+     * Crea un usuario simulado con sus notas iniciales (sin medir).
+     * @param username El nombre de usuario
+     * @param seedNotes Número de notas iniciales
+     * @return El usuario simulado con los IDs de sus notas
+     */
+    private SimulatedUser seed(String username, int seedNotes) {
+        User user = userService.getOrCreateUser(username);
+        SimulatedUser simulated = new SimulatedUser(username, user.getAvailableStatuses().contains(EXTRA_STATUS));
+        for (int i = 0; i < seedNotes; i++) {
+            Note note = notesService.createNote(username, "Nota inicial " + i, content(ThreadLocalRandom.current()),
+                    User.DEFAULT_STATUSES.get(i % User.DEFAULT_STATUSES.size()));
+            simulated.notes.add(new NoteRef(note.getId(), note.getVersion()));
+        }
+        return simulated;
+    }
+
+    /**
+     * Construye una tabla en la que cada operación aparece tantas veces como su peso.
+     * @param mix Peso de cada operación
+     * @return La tabla
+     */
+    private static Operation[] weightedTable(Map<Operation, Integer> mix) {
+        List<Operation> table = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                table.add(operation);
+            }
+        });
+        return table.toArray(Operation[]::new);
+    }
+
+    private static String content(ThreadLocalRandom random) {
+        return "Contenido simulado " + Long.toHexString(random.nextLong()) + " con algo de texto para la nota.";
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long remaining = nanoTime - System.nanoTime();
+        if (remaining > 0) {
+            Thread.sleep(Duration.ofNanos(remaining));
+        }
+    }
+
+    /**
+     * Estado de un usuario simulado. Solo lo usa su propio hilo.
+     */
+    private static class SimulatedUser {
+        private final String username;
+        private final List<NoteRef> notes = new ArrayList<>();
+        private boolean hasExtraStatus;
+
+        SimulatedUser(String username, boolean hasExtraStatus) {
+            this.username = username;
+            this.hasExtraStatus = hasExtraStatus;
+        }
+    }
+
+    /**
+     * Una nota del usuario simulado y la última versión conocida.
+     */
+    private static class NoteRef {
+        private final String id;
+        private Long version;
+
+        NoteRef(String id, Long version) {
+            this.id = id;
+            this.version = version;
+        }
+    }
+
+    /**
+     * Resultado de la simulación para un tipo de operación.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Result {
+        // Nombre de la operación
+        private String operation;
+
+        // Latencias medidas, en nanosegundos
+        private Histogram histogram;
+
+        // Operaciones que lanzaron una excepción o no se aplicaron
+        private long errors;
+
+        // Duración de la medición en segundos
+        private double seconds;
+
+        /**
+         * Calcula las operaciones completadas por segundo.
+         * @return Operaciones por segundo
+         */
+        public double getThroughput() {
+            return histogram.getTotalCount() / seconds;
+        }
+
+        @Override
+        public String toString() {
+            return "%-14s %8d ops %6d errores %9.1f ops/s  p50 %8.2f ms  p95 %8.2f ms  p99 %8.2f ms  máx %8.2f ms"
+                    .formatted(operation, histogram.getTotalCount(), errors, getThroughput(),
+                            millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(95)),
+                            millis(histogram.getValueAtPercentile(99)), millis(histogram.getMaxValue()));
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+};
@@ -1,9 +1,15 @@
 package com.notasapp;
 
 import com.notasapp.controller.NotesController;
+import com.notasapp.model.BulkOptions;
+import com.notasapp.model.ImportReport;
+import com.notasapp.service.NoteImportService;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.ConfigurableApplicationContext;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
 
 /**
  * Clase principal que inicia la aplicación Spring Boot.
@@ -11,14 +17,60 @@ import org.springframework.context.ConfigurableApplicationContext;
  */
 @SpringBootApplication
 public class Main {
+    // Número de lotes leídos que pueden esperar a ser insertados durante una importación
+    private static final int DEFAULT_MAX_IN_FLIGHT_BATCHES = 4;
+
+    // Opciones con valor entero y el valor mínimo que admite cada una
+    private static final Map<String, Integer> INTEGER_OPTIONS = Map.of(
+            "--batch-size", 1, "--max-in-flight", 1);
+
+    // Resumen de los modos y opciones que se muestra cuando una opción no es válida
+    private static final String USAGE = """
+            Uso: java -jar target/4-lunch-<versión>.jar [opciones]
+              (sin opciones)              Interfaz de consola
+              --http                      API HTTP en lugar de la consola
+              --import=fichero.jsonl      Importa notas (--batch-size=N, --max-in-flight=N)""";
+
     /**
      * Método principal que arranca la aplicación y obtiene el controlador
      * de notas para iniciar la interfaz de usuario.
+     * Con --import=fichero.jsonl importa las notas del fichero y termina sin
+     * mostrar la interfaz; --batch-size y --max-in-flight ajustan la importación.
+     * Con --http arranca la API HTTP en lugar de la consola.
+     * Las herramientas de medición (API HTTP, hilos, compresión, arranque y
+     * simulación de carga) están en src/jmh/java y se ejecutan con el perfil
+     * de Maven jmh, nunca desde la aplicación.
      * @param args Argumentos de línea de comandos
      */
     public static void main(String[] args) {
-        // Iniciar el contexto de Spring
-        ConfigurableApplicationContext context = SpringApplication.run(Main.class, args);
+        // Las opciones se comprueban antes de arrancar nada
+        String invalidOption = validateOptions(args);
+        if (invalidOption != null) {
+            System.out.println(invalidOption);
+            System.out.println(USAGE);
+            return;
+        };
+
+        boolean http = hasOption(args, "--http");
+
+        // Iniciar el contexto de Spring, con el servidor web si se pidió el modo HTTP
+        SpringApplication application = new SpringApplication(Main.class);
+        if (http) {
+            application.setAdditionalProfiles("http");
+        };
+        ConfigurableApplicationContext context = application.run(args);
+
+        if (http) {
+            // El servidor sigue atendiendo peticiones hasta que se detenga el proceso
+            return;
+        };
+
+        String importFile = optionValue(args, "--import");
+        if (importFile != null) {
+            runImport(context, Path.of(importFile), args);
+            context.close();
+            return;
+        };
 
         // Obtener el controlador de notas del contexto de Spring
         NotesController notesController = context.getBean(NotesController.class);
@@ -26,4 +78,99 @@ public class Main {
         // Iniciar la interfaz de usuario
         notesController.start();
     };
-};
\ No newline at end of file
+
+    /**
+     * Importa un fichero JSON Lines de notas y muestra el informe.
+     * @param context El contexto de Spring
+     * @param source El fichero a importar
+     * @param args Argumentos de línea de comandos con las opciones de importación
+     */
+    private static void runImport(ConfigurableApplicationContext context, Path source, String[] args) {
+        BulkOptions options = new BulkOptions(intOption(args, "--batch-size", BulkOptions.DEFAULT_BATCH_SIZE), false);
+
+        try {
+            ImportReport report = context.getBean(NoteImportService.class).importNotes(source, options,
+                    intOption(args, "--max-in-flight", DEFAULT_MAX_IN_FLIGHT_BATCHES));
+            System.out.println("Importación completada. " + report);
+        } catch (IOException e) {
+            System.out.println("Error en la importación: " + e.getMessage());
+            System.out.println("Vuelva a ejecutar la importación para reanudarla desde la última línea confirmada.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("Importación interrumpida. Se reanudará desde la última línea confirmada.");
+        };
+    };
+
+    /**
+     * Comprueba que las opciones con valor entero tengan un número válido.
+     * @param args Argumentos de línea de comandos
+     * @return El mensaje de la primera opción no válida, o null si todas son válidas
+     */
+    static String validateOptions(String[] args) {
+        for (Map.Entry<String, Integer> option : INTEGER_OPTIONS.entrySet()) {
+            String value = optionValue(args, option.getKey());
+            if (value != null && parseInteger(value, option.getValue()) == null) {
+                return "Valor no válido para " + option.getKey() + ": '" + value
+                        + "' (se espera un número entero mayor o igual que " + option.getValue() + ")";
+            };
+        };
+        return null;
+    };
+
+    /**
+     * Obtiene el valor de una opción entera, ya comprobada por validateOptions.
+     * @param args Argumentos de línea de comandos
+     * @param name El nombre de la opción, con los guiones
+     * @param defaultValue El valor si no se indicó la opción
+     * @return El valor de la opción
+     */
+    static int intOption(String[] args, String name, int defaultValue) {
+        String value = optionValue(args, name);
+        return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+    };
+
+    /**
+     * Interpreta un número entero no menor que un mínimo.
+     * @param value El texto
+     * @param minimum El valor mínimo admitido
+     * @return El número, o null si el texto no es un número válido
+     */
+    private static Integer parseInteger(String value, int minimum) {
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            return parsed >= minimum ? parsed : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    };
+
+    /**
+     * Comprueba si se indicó una opción sin valor, como --http.
+     * @param args Argumentos de línea de comandos
+     * @param name El nombre de la opción, con los guiones
+     * @return true si la opción aparece entre los argumentos
+     */
+    static boolean hasOption(String[] args, String name) {
+        for (String arg : args) {
+            if (arg.equals(name)) {
+                return true;
+            };
+        };
+        return false;
+    };
+
+    /**
+     * Obtiene el valor de una opción de línea de comandos con la forma --nombre=valor.
+     * @param args Argumentos de línea de comandos
+     * @param name El nombre de la opción, con los guiones
+     * @return El valor de la opción, o null si no se indicó
+     */
+    static String optionValue(String[] args, String name) {
+        for (String arg : args) {
+            if (arg.startsWith(name + "=")) {
+                return arg.substring(name.length() + 1);
+            };
+        };
+        return null;
+    };
+};
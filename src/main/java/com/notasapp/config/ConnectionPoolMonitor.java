@@ -0,0 +1,103 @@
+package com.notasapp.config;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import com.notasapp.model.ConnectionPoolStats;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recoge estadísticas del pool de conexiones del cliente de MongoDB a partir
+ * de sus eventos. Solo usa contadores atómicos, de modo que no añade
+ * contención al préstamo de conexiones.
+ */
+public class ConnectionPoolMonitor implements ConnectionPoolListener {
+
+    private volatile int maxSize;
+
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final AtomicInteger peakInUse = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger peakWaiting = new AtomicInteger();
+
+    private final LongAdder checkOuts = new LongAdder();
+    private final LongAdder failedCheckOuts = new LongAdder();
+    private final LongAdder timedOutCheckOuts = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    @Override
+    public void connectionPoolCreated(ConnectionPoolCreatedEvent event) {
+        maxSize = event.getSettings().getMaxSize();
+    }
+
+    @Override
+    public void connectionCreated(ConnectionCreatedEvent event) {
+        open.incrementAndGet();
+    }
+
+    @Override
+    public void connectionClosed(ConnectionClosedEvent event) {
+        open.decrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        peakWaiting.accumulateAndGet(waiting.incrementAndGet(), Math::max);
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        waiting.decrementAndGet();
+        peakInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+        checkOuts.increment();
+        recordWait(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        waiting.decrementAndGet();
+        failedCheckOuts.increment();
+        if (event.getReason() == ConnectionCheckOutFailedEvent.Reason.TIMEOUT) {
+            timedOutCheckOuts.increment();
+        }
+        recordWait(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        inUse.decrementAndGet();
+    }
+
+    /**
+     * Obtiene una instantánea de las estadísticas actuales.
+     * @return Las estadísticas del pool
+     */
+    public ConnectionPoolStats snapshot() {
+        long completed = checkOuts.sum();
+        long failed = failedCheckOuts.sum();
+        long attempts = completed + failed;
+        return new ConnectionPoolStats(maxSize, open.get(), inUse.get(), peakInUse.get(),
+                waiting.get(), peakWaiting.get(), completed, failed, timedOutCheckOuts.sum(),
+                attempts == 0 ? 0 : totalWaitNanos.sum() / attempts / 1000,
+                maxWaitNanos.get() / 1000);
+    }
+
+    /**
+     * Acumula el tiempo que una operación esperó a obtener (o no) una conexión.
+     * @param nanos La espera en nanosegundos
+     */
+    private void recordWait(long nanos) {
+        totalWaitNanos.add(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+};
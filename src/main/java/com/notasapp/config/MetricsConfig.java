@@ -0,0 +1,58 @@
+package com.notasapp.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuración de la publicación de métricas.
+ *
+ * Los servicios y almacenamientos se miden con @Timed (notas.service y
+ * notas.store) y los comandos de MongoDB con MongoCommandMetrics. Las
+ * métricas se pueden consultar de dos formas, sin herramientas externas:
+ * - en modo HTTP, en /actuator/prometheus y /actuator/metrics
+ * - en cualquier modo, resumidas periódicamente en la consola por
+ *   MetricsConsoleReporter si se indica notas.metrics.log-interval (por ejemplo 1m)
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Cuenta los viajes a la base de datos de cada petición HTTP como una
+     * acción de usuario, nombrada por su método y su ruta (por ejemplo
+     * "GET /api/notes/{noteId}").
+     */
+    @Configuration
+    @Profile("http")
+    static class WebActionMetricsConfig implements WebMvcConfigurer {
+
+        private final UserActionMetrics actionMetrics;
+
+        WebActionMetricsConfig(UserActionMetrics actionMetrics) {
+            this.actionMetrics = actionMetrics;
+        }
+
+        @Override
+        public void addInterceptors(InterceptorRegistry registry) {
+            registry.addInterceptor(new HandlerInterceptor() {
+                @Override
+                public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                    actionMetrics.begin();
+                    return true;
+                }
+
+                @Override
+                public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                            Exception ex) {
+                    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                    actionMetrics.end(request.getMethod() + " " + (pattern != null ? pattern : "desconocida"));
+                }
+            }).addPathPatterns("/api/**");
+        }
+    }
+};
@@ -0,0 +1,128 @@
+package com.notasapp.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Muestra en la consola, cada cierto tiempo, un resumen de las métricas de la
+ * aplicación (las que empiezan por "notas."): número de llamadas, media,
+ * percentiles 50, 95 y 99 y máximo de cada temporizador y distribución.
+ *
+ * Los valores son acumulados desde el arranque. Sirve para ver los p99 en
+ * local sin montar Prometheus.
+ *
+ * Se activa con notas.metrics.log-interval (por ejemplo 1m). Nadie depende
+ * de él, por lo que se crea al arrancar también con inicialización diferida.
+ */
+@Component
+@Lazy(false)
+@ConditionalOnProperty(name = "notas.metrics.log-interval")
+public class MetricsConsoleReporter {
+
+    private final MeterRegistry registry;
+
+    private final Duration interval;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Constructor que configura el resumen; se programa en start.
+     * @param registry El registro de métricas
+     * @param interval El tiempo entre resúmenes
+     */
+    public MetricsConsoleReporter(MeterRegistry registry,
+                                  @Value("${notas.metrics.log-interval}") Duration interval) {
+        this.registry = registry;
+        this.interval = interval;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-console-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Programa el resumen periódico, una vez construido el informe.
+     */
+    @PostConstruct
+    public void start() {
+        long millis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::report, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Escribe el resumen de las métricas con al menos una medición.
+     */
+    public void report() {
+        List<Meter> meters = registry.getMeters().stream()
+                .filter(meter -> meter.getId().getName().startsWith("notas."))
+                .filter(meter -> meter instanceof Timer || meter instanceof DistributionSummary)
+                .sorted(Comparator.comparing(MetricsConsoleReporter::describe))
+                .toList();
+
+        StringBuilder report = new StringBuilder("\n=== MÉTRICAS (acumuladas desde el arranque) ===\n");
+        for (Meter meter : meters) {
+            if (meter instanceof Timer timer && timer.count() > 0) {
+                report.append(line(meter, timer.takeSnapshot(), timer.baseTimeUnit(), "ms"));
+            } else if (meter instanceof DistributionSummary summary && summary.count() > 0) {
+                report.append(line(meter, summary.takeSnapshot(), null, ""));
+            }
+        }
+        System.out.print(report);
+    }
+
+    /**
+     * Deja de programar resúmenes al cerrar la aplicación.
+     */
+    @PreDestroy
+    public void close() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * Formatea una línea del resumen.
+     * @param meter El medidor
+     * @param snapshot Su instantánea
+     * @param timeUnit La unidad base del temporizador, o null en una distribución
+     * @param unit El sufijo de unidad de los valores
+     * @return La línea
+     */
+    private static String line(Meter meter, HistogramSnapshot snapshot, TimeUnit timeUnit, String unit) {
+        StringBuilder line = new StringBuilder(describe(meter))
+                .append(" n=").append(snapshot.count())
+                .append(" media=").append(format(timeUnit == null ? snapshot.mean() : snapshot.mean(TimeUnit.MILLISECONDS), unit));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            double value = timeUnit == null ? percentile.value() : percentile.value(TimeUnit.MILLISECONDS);
+            line.append(" p").append(Math.round(percentile.percentile() * 100)).append('=').append(format(value, unit));
+        }
+        line.append(" máx=").append(format(timeUnit == null ? snapshot.max() : snapshot.max(TimeUnit.MILLISECONDS), unit));
+        return line.append('\n').toString();
+    }
+
+    private static String describe(Meter meter) {
+        return meter.getId().getName() + meter.getId().getTags().stream()
+                .map(Tag::getValue)
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private static String format(double value, String unit) {
+        return "%.2f%s".formatted(value, unit);
+    }
+};
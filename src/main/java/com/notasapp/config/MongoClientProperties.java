@@ -0,0 +1,167 @@
+package com.notasapp.config;
+
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadConcernLevel;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuración del cliente de MongoDB, bajo el prefijo notas.mongo.
+ * Si no se indican uri ni database, application.properties los toma de
+ * spring.data.mongodb.* (uri, o host y port; y database).
+ *
+ * Además de los valores por defecto del cliente (reads y writes), permite
+ * ajustar por separado las lecturas de listados (list-reads: páginas y
+ * búsqueda, que pueden ir a secundarios) y las escrituras de notas
+ * (note-writes). Un valor vacío en estos ajustes hereda el del cliente.
+ */
+@Data
+@ConfigurationProperties(prefix = "notas.mongo")
+public class MongoClientProperties {
+
+    // Cadena de conexión
+    private String uri = "mongodb://localhost:27017";
+
+    // Base de datos de la aplicación
+    private String database = "notesdb";
+
+    // Comprueba al arrancar que las consultas principales usan índice (ver QueryPlanVerifier)
+    private boolean verifyQueryPlans;
+
+    // Compresores de red en orden de preferencia: zstd, snappy y/o zlib
+    private List<String> compressors = new ArrayList<>();
+
+    // Compresión del contenido de las notas guardado en la base de datos
+    private final ContentCompression contentCompression = new ContentCompression();
+
+    // Pool de conexiones
+    private final Pool pool = new Pool();
+
+    // Tiempos de espera
+    private final Timeouts timeouts = new Timeouts();
+
+    // Preferencia y nivel de lectura por defecto del cliente
+    private final ReadSettings reads = new ReadSettings();
+
+    // Preferencia y nivel de lectura de los listados de notas
+    private final ReadSettings listReads = new ReadSettings();
+
+    // Nivel de confirmación de escritura por defecto del cliente
+    private final WriteSettings writes = new WriteSettings();
+
+    // Nivel de confirmación de las escrituras sobre notas
+    private final WriteSettings noteWrites = new WriteSettings();
+
+    /**
+     * Compresión del contenido de las notas (ver NoteContentConverter).
+     */
+    @Data
+    public static class ContentCompression {
+        // Si se comprime el contenido al guardar; los comprimidos se leen igualmente aunque se desactive
+        private boolean enabled = true;
+
+        // Tamaño del contenido a partir del cual se comprime
+        private DataSize threshold = DataSize.ofKilobytes(4);
+    };
+
+    /**
+     * Ajustes del pool de conexiones de cada servidor.
+     */
+    @Data
+    public static class Pool {
+        // Conexiones máximas por servidor
+        private int maxSize = 100;
+
+        // Conexiones que se mantienen abiertas aunque no se usen
+        private int minSize = 0;
+
+        // Tiempo máximo que una operación espera a que quede libre una conexión
+        private Duration maxWaitTime = Duration.ofSeconds(10);
+
+        // Tiempo tras el que se cierra una conexión sin uso (0 = nunca)
+        private Duration maxConnectionIdleTime = Duration.ZERO;
+
+        // Conexiones que se pueden estar estableciendo a la vez
+        private int maxConnecting = 2;
+    };
+
+    /**
+     * Tiempos de espera de red y de selección de servidor.
+     */
+    @Data
+    public static class Timeouts {
+        // Tiempo máximo para establecer una conexión
+        private Duration connect = Duration.ofSeconds(10);
+
+        // Tiempo máximo de espera de una respuesta (0 = sin límite)
+        private Duration socketRead = Duration.ZERO;
+
+        // Tiempo máximo para encontrar un servidor adecuado para la operación
+        private Duration serverSelection = Duration.ofSeconds(30);
+    };
+
+    /**
+     * Preferencia de lectura (primary, primaryPreferred, secondary,
+     * secondaryPreferred, nearest) y nivel de lectura (local, available,
+     * majority, linearizable, snapshot). Vacíos, no se aplican.
+     */
+    @Data
+    public static class ReadSettings {
+        private String readPreference;
+        private String readConcern;
+
+        /**
+         * Traduce la preferencia de lectura al tipo del driver.
+         * @return La preferencia, o null si no se indicó
+         */
+        public ReadPreference toReadPreference() {
+            return isBlank(readPreference) ? null : ReadPreference.valueOf(readPreference);
+        };
+
+        /**
+         * Traduce el nivel de lectura al tipo del driver.
+         * @return El nivel de lectura, o null si no se indicó
+         */
+        public ReadConcern toReadConcern() {
+            return isBlank(readConcern) ? null : new ReadConcern(ReadConcernLevel.fromString(readConcern));
+        };
+    };
+
+    /**
+     * Nivel de confirmación de escritura (acknowledged, w1, w2, w3, majority,
+     * journaled, unacknowledged) y tiempo máximo de espera de la confirmación.
+     * Vacío, no se aplica.
+     */
+    @Data
+    public static class WriteSettings {
+        private String writeConcern;
+        private Duration timeout;
+
+        /**
+         * Traduce el nivel de confirmación al tipo del driver.
+         * @return El nivel de confirmación, o null si no se indicó
+         * @throws IllegalArgumentException si el nombre no es válido
+         */
+        public WriteConcern toWriteConcern() {
+            if (isBlank(writeConcern)) {
+                return null;
+            };
+            WriteConcern concern = WriteConcern.valueOf(writeConcern);
+            if (concern == null) {
+                throw new IllegalArgumentException("Write concern no válido: " + writeConcern);
+            };
+            return timeout == null ? concern : concern.withWTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        };
+    };
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    };
+};
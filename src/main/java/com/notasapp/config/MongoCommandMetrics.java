@@ -0,0 +1,112 @@
+package com.notasapp.config;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registra la latencia y los documentos devueltos o escritos por cada
+ * comando enviado a MongoDB, etiquetados por comando, colección y resultado:
+ * - notas.mongo.command: tiempo de cada comando
+ * - notas.mongo.command.documents: documentos leídos (find, aggregate, getMore)
+ *   o escritos (insert, update, delete, findAndModify) por comando
+ *
+ * Además anota cada comando como un viaje de la acción de usuario en curso.
+ */
+public class MongoCommandMetrics implements CommandListener {
+
+    private final MeterRegistry registry;
+
+    // Colección de cada comando en curso, por su ID de petición
+    private final Map<Integer, String> collections = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor que inyecta el registro de métricas.
+     * @param registry El registro de métricas
+     */
+    public MongoCommandMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        collections.put(event.getRequestId(), collectionName(event.getCommandName(), event.getCommand()));
+        UserActionMetrics.recordRoundTrip();
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        String collection = collections.remove(event.getRequestId());
+        record(event.getCommandName(), collection, "success", event.getElapsedTime(TimeUnit.NANOSECONDS));
+        DistributionSummary.builder("notas.mongo.command.documents")
+                .description("Documentos leídos o escritos por comando de MongoDB")
+                .tags("command", event.getCommandName(), "collection", orNone(collection))
+                .register(registry)
+                .record(documentCount(event.getCommandName(), event.getResponse()));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        String collection = collections.remove(event.getRequestId());
+        record(event.getCommandName(), collection, "failure", event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Registra la duración de un comando.
+     * @param command El nombre del comando
+     * @param collection La colección, o null si no aplica
+     * @param status success o failure
+     * @param nanos La duración en nanosegundos
+     */
+    private void record(String command, String collection, String status, long nanos) {
+        Timer.builder("notas.mongo.command")
+                .description("Latencia de los comandos de MongoDB")
+                .tags("command", command, "collection", orNone(collection), "status", status)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Obtiene la colección sobre la que actúa un comando: el valor de su
+     * primer campo (find, insert, update...) o del campo collection en getMore.
+     * @param commandName El nombre del comando
+     * @param command El documento del comando
+     * @return La colección, o null si el comando no actúa sobre una
+     */
+    private static String collectionName(String commandName, BsonDocument command) {
+        BsonValue value = "getMore".equals(commandName) ? command.get("collection") : command.get(commandName);
+        return value != null && value.isString() ? value.asString().getValue() : null;
+    }
+
+    /**
+     * Cuenta los documentos de la respuesta de un comando: los del lote del
+     * cursor en las lecturas, n en las escrituras y 1 o 0 en findAndModify.
+     * @param commandName El nombre del comando
+     * @param response La respuesta del servidor
+     * @return Número de documentos
+     */
+    private static int documentCount(String commandName, BsonDocument response) {
+        if (response.isDocument("cursor")) {
+            BsonDocument cursor = response.getDocument("cursor");
+            String batch = cursor.containsKey("firstBatch") ? "firstBatch" : "nextBatch";
+            return cursor.isArray(batch) ? cursor.getArray(batch).size() : 0;
+        }
+        if ("findAndModify".equals(commandName)) {
+            return response.containsKey("value") && !response.get("value").isNull() ? 1 : 0;
+        }
+        return response.isNumber("n") ? response.getNumber("n").intValue() : 0;
+    }
+
+    private static String orNone(String collection) {
+        return collection != null ? collection : "none";
+    }
+};
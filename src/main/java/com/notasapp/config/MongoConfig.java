@@ -1,25 +1,161 @@
 package com.notasapp.config;
 
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.notasapp.model.Note;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.bson.Document;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Clase de configuración para establecer la conexión con MongoDB.
  * Define los beans necesarios para la integración con la base de datos.
+ * El cliente se ajusta con las propiedades notas.mongo.* (ver MongoClientProperties).
+ * No se carga con el perfil "embedded", que no usa MongoDB.
  */
 @Configuration
+@Profile("!embedded")
+@EnableMongoRepositories(basePackages = "com.notasapp.repository")
+@EnableConfigurationProperties(MongoClientProperties.class)
 public class MongoConfig {
 
+    private final MongoClientProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructor que inyecta la configuración del cliente.
+     * @param properties Las propiedades notas.mongo.*
+     * @param meterRegistry El registro de métricas
+     */
+    public MongoConfig(MongoClientProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Crea el monitor que recoge las estadísticas del pool de conexiones.
+     * @return El monitor del pool
+     */
+    @Bean
+    ConnectionPoolMonitor connectionPoolMonitor() {
+        return new ConnectionPoolMonitor();
+    }
+
+    /**
+     * Publica el estado del pool de conexiones como métricas notas.mongo.pool.*.
+     * @return El enlace de las métricas del pool
+     */
+    @Bean
+    MeterBinder connectionPoolMetrics() {
+        ConnectionPoolMonitor monitor = connectionPoolMonitor();
+        return registry -> {
+            Gauge.builder("notas.mongo.pool.max", monitor, m -> m.snapshot().getMaxSize()).register(registry);
+            Gauge.builder("notas.mongo.pool.open", monitor, m -> m.snapshot().getOpen()).register(registry);
+            Gauge.builder("notas.mongo.pool.in.use", monitor, m -> m.snapshot().getInUse()).register(registry);
+            Gauge.builder("notas.mongo.pool.waiting", monitor, m -> m.snapshot().getWaiting()).register(registry);
+            FunctionCounter.builder("notas.mongo.pool.checkouts", monitor, m -> m.snapshot().getCheckOuts())
+                    .register(registry);
+            FunctionCounter.builder("notas.mongo.pool.checkouts.failed", monitor, m -> m.snapshot().getFailedCheckOuts())
+                    .register(registry);
+            FunctionCounter.builder("notas.mongo.pool.checkouts.timed.out", monitor,
+                    m -> m.snapshot().getTimedOutCheckOuts()).register(registry);
+        };
+    }
+
+    /**
+     * Crea el registro de métricas de los comandos enviados a MongoDB.
+     * Lo usan el cliente bloqueante y el reactivo.
+     * @return El receptor de eventos de comandos
+     */
+    @Bean
+    MongoCommandMetrics mongoCommandMetrics() {
+        return new MongoCommandMetrics(meterRegistry);
+    }
+
     /**
      * Crea y configura el cliente de MongoDB.
      * @return Una instancia del cliente MongoDB configurado
      */
     @Bean
     MongoClient mongoClient() {
-        return MongoClients.create("mongodb://localhost:27017");
+        return MongoClients.create(clientSettings(properties)
+                .applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(connectionPoolMonitor()))
+                .addCommandListener(mongoCommandMetrics())
+                .build());
+    }
+
+    /**
+     * Crea el conversor que comprime el contenido de las notas.
+     * Con la compresión desactivada el conversor se registra igualmente, con
+     * un umbral inalcanzable, para seguir leyendo los contenidos ya comprimidos.
+     * @return El conversor del contenido
+     */
+    @Bean
+    NoteContentConverter noteContentConverter() {
+        MongoClientProperties.ContentCompression compression = properties.getContentCompression();
+        return new NoteContentConverter(compression.isEnabled() ? compression.getThreshold().toBytes() : Long.MAX_VALUE);
+    }
+
+    /**
+     * Crea la retrollamada que guarda las palabras del contenido comprimido
+     * junto a él, para la búsqueda por texto.
+     * @return La retrollamada, que la plantilla aplica antes de guardar cada nota
+     */
+    @Bean
+    NoteSearchTermsCallback noteSearchTermsCallback() {
+        return new NoteSearchTermsCallback(noteContentConverter());
+    }
+
+    /**
+     * Registra las conversiones propias: la compresión del contenido de las notas.
+     * @return Las conversiones de la aplicación
+     */
+    @Bean
+    MongoCustomConversions mongoCustomConversions() {
+        NoteContentConverter contentConverter = noteContentConverter();
+        return MongoCustomConversions.create(adapter -> adapter.configurePropertyConversions(
+                registrar -> registrar.registerConverter(Note.class, "content", contentConverter)));
+    }
+
+    /**
+     * Crea el conversor entre entidades y documentos con las conversiones
+     * propias. Lo comparten la plantilla bloqueante y la reactiva.
+     * @return El conversor configurado
+     */
+    @Bean
+    MappingMongoConverter mappingMongoConverter() {
+        MongoCustomConversions conversions = mongoCustomConversions();
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
     }
 
     /**
@@ -28,6 +164,108 @@ public class MongoConfig {
      */
     @Bean
     MongoTemplate mongoTemplate() {
-        return new MongoTemplate(mongoClient(), "notesdb");
+        return new NotesMongoTemplate(new SimpleMongoClientDatabaseFactory(mongoClient(), properties.getDatabase()),
+                mappingMongoConverter(), properties.getNoteWrites().toWriteConcern());
+    }
+
+    /**
+     * Traduce las propiedades a la configuración del cliente. La comparten el
+     * cliente bloqueante y el reactivo. Los valores de la cadena de conexión se
+     * aplican primero y las propiedades específicas los sustituyen.
+     * @param properties Las propiedades notas.mongo.*
+     * @return La configuración, aún abierta a ajustes propios de cada cliente
+     */
+    static MongoClientSettings.Builder clientSettings(MongoClientProperties properties) {
+        MongoClientProperties.Pool pool = properties.getPool();
+        MongoClientProperties.Timeouts timeouts = properties.getTimeouts();
+
+        MongoClientSettings.Builder builder = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(properties.getUri()))
+                .applyToConnectionPoolSettings(settings -> settings
+                        .maxSize(pool.getMaxSize())
+                        .minSize(pool.getMinSize())
+                        .maxWaitTime(pool.getMaxWaitTime().toMillis(), TimeUnit.MILLISECONDS)
+                        .maxConnectionIdleTime(pool.getMaxConnectionIdleTime().toMillis(), TimeUnit.MILLISECONDS)
+                        .maxConnecting(pool.getMaxConnecting()))
+                .applyToSocketSettings(settings -> settings
+                        .connectTimeout((int) timeouts.getConnect().toMillis(), TimeUnit.MILLISECONDS)
+                        .readTimeout((int) timeouts.getSocketRead().toMillis(), TimeUnit.MILLISECONDS))
+                .applyToClusterSettings(settings -> settings
+                        .serverSelectionTimeout(timeouts.getServerSelection().toMillis(), TimeUnit.MILLISECONDS));
+
+        if (!properties.getCompressors().isEmpty()) {
+            builder.compressorList(properties.getCompressors().stream().map(MongoConfig::compressor).toList());
+        }
+
+        ReadPreference readPreference = properties.getReads().toReadPreference();
+        if (readPreference != null) {
+            builder.readPreference(readPreference);
+        }
+        ReadConcern readConcern = properties.getReads().toReadConcern();
+        if (readConcern != null) {
+            builder.readConcern(readConcern);
+        }
+        WriteConcern writeConcern = properties.getWrites().toWriteConcern();
+        if (writeConcern != null) {
+            builder.writeConcern(writeConcern);
+        }
+        return builder;
+    }
+
+    /**
+     * Traduce el nombre de un compresor de red al del driver.
+     * @param name zstd, snappy o zlib
+     * @return El compresor
+     * @throws IllegalArgumentException si el nombre no es válido
+     */
+    private static MongoCompressor compressor(String name) {
+        return switch (name.trim().toLowerCase()) {
+            case "zstd" -> MongoCompressor.createZstdCompressor();
+            case "snappy" -> MongoCompressor.createSnappyCompressor();
+            case "zlib" -> MongoCompressor.createZlibCompressor();
+            default -> throw new IllegalArgumentException("Compresor no válido: " + name);
+        };
+    }
+
+    /**
+     * Plantilla que aplica a la colección de notas su propio nivel de
+     * confirmación de escritura. Se aplica a la colección y no con un
+     * WriteConcernResolver para cubrir también findAndModify (las ediciones
+     * versionadas) y las operaciones masivas, que no consultan el resolver.
+     */
+    static class NotesMongoTemplate extends MongoTemplate {
+
+        private final String notesCollection;
+        private final WriteConcern noteWriteConcern;
+
+        /**
+         * Constructor de la plantilla.
+         * @param databaseFactory El acceso a la base de datos
+         * @param converter El conversor entre entidades y documentos
+         * @param noteWriteConcern El nivel de confirmación de las notas, o null para el del cliente
+         */
+        NotesMongoTemplate(MongoDatabaseFactory databaseFactory, MongoConverter converter,
+                           WriteConcern noteWriteConcern) {
+            super(databaseFactory, converter);
+            this.notesCollection = getCollectionName(Note.class);
+            this.noteWriteConcern = noteWriteConcern;
+        }
+
+        @Override
+        public MongoCollection<Document> getCollection(String collectionName) {
+            return withNoteWriteConcern(super.getCollection(collectionName));
+        }
+
+        @Override
+        protected MongoCollection<Document> prepareCollection(MongoCollection<Document> collection) {
+            return withNoteWriteConcern(super.prepareCollection(collection));
+        }
+
+        private MongoCollection<Document> withNoteWriteConcern(MongoCollection<Document> collection) {
+            if (noteWriteConcern == null || !notesCollection.equals(collection.getNamespace().getCollectionName())) {
+                return collection;
+            }
+            return collection.withWriteConcern(noteWriteConcern);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,189 @@
+package com.notasapp.config;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.notasapp.model.Note;
+import com.notasapp.model.NoteTombstone;
+import com.notasapp.model.User;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Preparación de MongoDB al arrancar: crea los índices de las entidades,
+ * incluido el TTL de las marcas de eliminación, y abre las conexiones mínimas
+ * del pool. La lanza StartupWarmUp: los índices antes de terminar el arranque
+ * y las conexiones, por defecto, en segundo plano mientras la consola pide el
+ * usuario.
+ * No se carga con el perfil "embedded", que no usa MongoDB.
+ */
+@Component
+@Profile("!embedded")
+public class MongoWarmUp {
+
+    // Entidades cuyos índices declarados se crean al arrancar la aplicación
+    private static final List<Class<?>> INDEXED_ENTITIES = List.of(Note.class, User.class, NoteTombstone.class);
+
+    // Nombre del índice de texto de las notas
+    private static final String NOTE_TEXT_INDEX = "user_text";
+
+    // Nombre del índice del registro de cambios de las notas, sobre changedAt
+    private static final String NOTE_CHANGES_INDEX = "user_changed_id";
+
+    // Nombre del índice TTL que borra las marcas de eliminación caducadas
+    private static final String TOMBSTONE_TTL_INDEX = "deleted_ttl";
+
+    // Códigos de error de MongoDB al crear un índice que ya existe con otras opciones o con otras claves
+    private static final int INDEX_OPTIONS_CONFLICT = 85;
+    private static final int INDEX_KEY_SPECS_CONFLICT = 86;
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoClientProperties properties;
+    private final ConnectionPoolMonitor poolMonitor;
+    private final Duration tombstoneRetention;
+
+    /**
+     * Constructor que inyecta la plantilla y la configuración del cliente.
+     * @param mongoTemplate La plantilla de MongoDB
+     * @param properties Las propiedades notas.mongo.*
+     * @param poolMonitor El monitor del pool de conexiones
+     * @param tombstoneRetention Tiempo que se conservan las marcas de eliminación (notas.tombstones.retention)
+     */
+    public MongoWarmUp(MongoTemplate mongoTemplate, MongoClientProperties properties, ConnectionPoolMonitor poolMonitor,
+                       @Value("${notas.tombstones.retention:7d}") Duration tombstoneRetention) {
+        this.mongoTemplate = mongoTemplate;
+        this.properties = properties;
+        this.poolMonitor = poolMonitor;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    /**
+     * Selecciona el servidor y abre las conexiones mínimas del pool
+     * (notas.mongo.pool.min-size, al menos una) lanzando a la vez un ping por
+     * conexión, para que la primera operación no pague el establecimiento.
+     * @return Las conexiones abiertas del pool al terminar
+     */
+    public int openConnections() {
+        int connections = Math.max(1, properties.getPool().getMinSize());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Document>> pings = new ArrayList<>(connections);
+            for (int i = 0; i < connections; i++) {
+                pings.add(executor.submit(() -> mongoTemplate.executeCommand(new Document("ping", 1))));
+            }
+            for (Future<Document> ping : pings) {
+                ping.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Apertura de conexiones interrumpida", e);
+        }
+        return poolMonitor.snapshot().getOpen();
+    }
+
+    /**
+     * Crea los índices declarados con @Indexed/@CompoundIndex en las entidades.
+     * La plantilla se construye a mano, por lo que la propiedad
+     * spring.data.mongodb.auto-index-creation no se aplica sobre ella y los
+     * índices deben asegurarse explícitamente al arrancar. Si ya existen, cada
+     * creación solo los comprueba.
+     */
+    public void ensureIndexes() {
+        backfillNoteChangedAt();
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+
+        for (Class<?> entity : INDEXED_ENTITIES) {
+            IndexOperations indexOps = mongoTemplate.indexOps(entity);
+            resolver.resolveIndexFor(entity).forEach(indexOps::ensureIndex);
+        }
+
+        ensureNoteTextIndex();
+        ensureTombstoneTtlIndex();
+    }
+
+    /**
+     * Da a las notas guardadas antes de existir changedAt su updatedAt como
+     * fecha del último cambio, para que el registro de cambios las ordene y
+     * las pagine como a las demás. Se hace una sola vez: mientras no existe
+     * el índice del registro de cambios, que se crea justo después; con el
+     * índice creado, ninguna nota puede quedar sin changedAt.
+     */
+    private void backfillNoteChangedAt() {
+        MongoCollection<Document> notes = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Note.class));
+        for (Document index : notes.listIndexes()) {
+            if (NOTE_CHANGES_INDEX.equals(index.getString("name"))) {
+                return;
+            }
+        }
+        notes.updateMany(Filters.exists("changedAt", false),
+                List.of(new Document("$set", new Document("changedAt", "$updatedAt"))));
+    }
+
+    /**
+     * Crea el índice de texto de las notas sobre el título, el contenido y las
+     * palabras del contenido comprimido (NoteContentConverter.SEARCH_TERMS_FIELD).
+     * Lleva userId como prefijo para que cada búsqueda recorra solo las notas
+     * de un usuario, y da más peso al título; ninguna de las dos cosas se puede
+     * declarar con @TextIndexed, por eso se crea aquí. Solo puede haber un
+     * índice de texto por colección: si existe el de una versión anterior, sin
+     * las palabras del contenido comprimido, se sustituye.
+     */
+    private void ensureNoteTextIndex() {
+        MongoCollection<Document> notes = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Note.class));
+        Document keys = new Document("userId", 1).append("title", "text").append("content", "text")
+                .append(NoteContentConverter.SEARCH_TERMS_FIELD, "text");
+        IndexOptions options = new IndexOptions()
+                .name(NOTE_TEXT_INDEX)
+                .weights(new Document("title", 3).append("content", 1).append(NoteContentConverter.SEARCH_TERMS_FIELD, 1))
+                .defaultLanguage("spanish");
+        try {
+            notes.createIndex(keys, options);
+        } catch (MongoCommandException e) {
+            if (e.getErrorCode() != INDEX_OPTIONS_CONFLICT && e.getErrorCode() != INDEX_KEY_SPECS_CONFLICT) {
+                throw e;
+            }
+            notes.dropIndex(NOTE_TEXT_INDEX);
+            notes.createIndex(keys, options);
+        }
+    }
+
+    /**
+     * Crea el índice TTL que hace que MongoDB borre las marcas de eliminación
+     * al superar notas.tombstones.retention. El plazo depende de la
+     * configuración, así que no se puede declarar con @Indexed; si el índice
+     * ya existe con otro plazo, se cambia con collMod en lugar de recrearlo.
+     */
+    private void ensureTombstoneTtlIndex() {
+        String collection = mongoTemplate.getCollectionName(NoteTombstone.class);
+        long seconds = tombstoneRetention.toSeconds();
+        try {
+            mongoTemplate.getCollection(collection).createIndex(new Document("deletedAt", 1),
+                    new IndexOptions().name(TOMBSTONE_TTL_INDEX).expireAfter(seconds, TimeUnit.SECONDS));
+        } catch (MongoCommandException e) {
+            if (e.getErrorCode() != INDEX_OPTIONS_CONFLICT) {
+                throw e;
+            }
+            mongoTemplate.executeCommand(new Document("collMod", collection)
+                    .append("index", new Document("name", TOMBSTONE_TTL_INDEX).append("expireAfterSeconds", seconds)));
+        }
+    }
+};
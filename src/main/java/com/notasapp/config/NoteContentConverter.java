@@ -0,0 +1,102 @@
+package com.notasapp.config;
+
+import com.notasapp.utils.ContentCompression;
+import org.bson.types.Binary;
+import org.springframework.data.mongodb.core.convert.MongoConversionContext;
+import org.springframework.data.mongodb.core.convert.MongoValueConverter;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Conversor del contenido de las notas: guarda comprimido (binario con el
+ * byte de cabecera de ContentCompression) el contenido que supera el umbral,
+ * y como texto el resto. Al leer acepta ambas formas, por lo que los
+ * documentos guardados antes de activar la compresión se siguen leyendo.
+ *
+ * El índice de texto no ve el contenido comprimido. Por eso, junto a un
+ * contenido que alcanza el umbral se guarda en SEARCH_TERMS_FIELD el texto de
+ * sus palabras distintas (searchTerms), que sí está en el índice: la búsqueda
+ * por palabras encuentra la nota, aunque no la búsqueda de frases exactas.
+ * Las palabras se repiten mucho en los contenidos largos, así que este campo
+ * ocupa bastante menos que el texto completo.
+ */
+public class NoteContentConverter implements MongoValueConverter<String, Object> {
+
+    // Campo del documento con las palabras del contenido comprimido, incluido en el índice de texto
+    public static final String SEARCH_TERMS_FIELD = "contentTerms";
+
+    // Separadores entre palabras: todo lo que no sea letra ni número
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Tamaño en bytes UTF-8 a partir del cual se comprime el contenido
+    private final long threshold;
+
+    /**
+     * Constructor que indica el umbral de compresión.
+     * @param threshold Tamaño en bytes UTF-8 a partir del cual se comprime
+     */
+    public NoteContentConverter(long threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public Object write(String value, MongoConversionContext context) {
+        // Un carácter ocupa como mucho tres bytes UTF-8: los textos cortos no hace falta codificarlos
+        if (value.length() * 3L < threshold) {
+            return value;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length < threshold) {
+            return value;
+        }
+        byte[] compressed = ContentCompression.compress(utf8);
+
+        // Si apenas se reduce, se guarda como texto y sigue siendo buscable
+        return compressed.length < utf8.length ? new Binary(compressed) : value;
+    }
+
+    @Override
+    public String read(Object value, MongoConversionContext context) {
+        if (value instanceof Binary binary) {
+            return ContentCompression.decompress(binary.getData());
+        }
+        if (value instanceof byte[] bytes) {
+            return ContentCompression.decompress(bytes);
+        }
+        return value.toString();
+    }
+
+    /**
+     * Obtiene las palabras distintas de un contenido que alcanza el umbral,
+     * en minúsculas y en el orden en que aparecen, separadas por espacios.
+     * También se guardan si al final el contenido no se comprime por reducirse
+     * poco: repiten palabras que ya están en el índice y no cambian qué notas
+     * se encuentran.
+     * @param value El contenido de la nota
+     * @return Las palabras, o null si el contenido no alcanza el umbral y se guarda como texto
+     */
+    public String searchTerms(String value) {
+        if (value == null || !reachesThreshold(value)) {
+            return null;
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        for (String word : WORD_SEPARATOR.split(value.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                terms.add(word);
+            }
+        }
+        return String.join(" ", terms);
+    }
+
+    /**
+     * Comprueba si un contenido alcanza el umbral de compresión.
+     * @param value El contenido
+     * @return true si ocupa en UTF-8 al menos el umbral
+     */
+    private boolean reachesThreshold(String value) {
+        return value.length() * 3L >= threshold && value.getBytes(StandardCharsets.UTF_8).length >= threshold;
+    }
+};
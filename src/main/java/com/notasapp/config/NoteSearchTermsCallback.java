@@ -0,0 +1,38 @@
+package com.notasapp.config;
+
+import com.notasapp.model.Note;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.mapping.event.BeforeSaveCallback;
+
+/**
+ * Añade al documento de una nota, justo antes de guardarla, las palabras de
+ * su contenido cuando este se guarda comprimido (ver NoteContentConverter),
+ * para que el índice de texto la siga encontrando por su contenido.
+ *
+ * Cubre las inserciones y los guardados de la plantilla, incluidas las
+ * inserciones en bloque; las actualizaciones parciales del contenido escriben
+ * el campo ellas mismas en NoteRepositoryImpl.
+ */
+public class NoteSearchTermsCallback implements BeforeSaveCallback<Note> {
+
+    private final NoteContentConverter contentConverter;
+
+    /**
+     * Constructor que recibe el conversor que decide qué contenidos se comprimen.
+     * @param contentConverter El conversor del contenido
+     */
+    public NoteSearchTermsCallback(NoteContentConverter contentConverter) {
+        this.contentConverter = contentConverter;
+    }
+
+    @Override
+    public Note onBeforeSave(Note note, Document document, String collection) {
+        String terms = contentConverter.searchTerms(note.getContent());
+        if (terms != null) {
+            document.put(NoteContentConverter.SEARCH_TERMS_FIELD, terms);
+        } else {
+            document.remove(NoteContentConverter.SEARCH_TERMS_FIELD);
+        }
+        return note;
+    }
+};
@@ -0,0 +1,123 @@
+package com.notasapp.config;
+
+import com.notasapp.model.Note;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Comprueba al arrancar que las consultas principales de NoteRepository se
+ * resuelven con un índice (IXSCAN) y no recorriendo toda la colección (COLLSCAN).
+ * Se activa con la propiedad notas.mongo.verify-query-plans=true y aborta el
+ * arranque si alguna consulta ha perdido su índice.
+ */
+@Component
+@Profile("!embedded")
+@ConditionalOnProperty(name = "notas.mongo.verify-query-plans", havingValue = "true")
+public class QueryPlanVerifier implements ApplicationRunner {
+
+    // Valor de ejemplo para los filtros; el plan no depende del valor concreto
+    private static final String SAMPLE_USER = "query-plan-check";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructor que inyecta la plantilla de MongoDB.
+     * @param mongoTemplate La plantilla sobre la que se ejecutan los explain
+     */
+    public QueryPlanVerifier(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        verify();
+    }
+
+    /**
+     * Ejecuta explain sobre cada forma de consulta y falla si alguna usa COLLSCAN.
+     * @throws IllegalStateException si alguna consulta no usa un índice
+     */
+    public void verify() {
+        List<String> failures = new ArrayList<>();
+
+        for (Map.Entry<String, Document> query : queryShapes().entrySet()) {
+            Document plan = explain(query.getValue());
+            if (containsStage(plan, "COLLSCAN")) {
+                failures.add(query.getKey() + " -> " + plan.toJson());
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Consultas sin índice (COLLSCAN): " + failures);
+        }
+    }
+
+    /**
+     * Formas de consulta que generan los métodos de NoteRepository.
+     * @return Mapa del nombre de la consulta a su comando find
+     */
+    private Map<String, Document> queryShapes() {
+        String collection = mongoTemplate.getCollectionName(Note.class);
+        Map<String, Document> shapes = new LinkedHashMap<>();
+
+        shapes.put("findByUserId", new Document("find", collection)
+                .append("filter", new Document("userId", SAMPLE_USER)));
+        shapes.put("findByUserIdAndStatus", new Document("find", collection)
+                .append("filter", new Document("userId", SAMPLE_USER).append("status", "Hecho")));
+        shapes.put("findSummarySlice", new Document("find", collection)
+                .append("filter", new Document("userId", SAMPLE_USER))
+                .append("sort", new Document("updatedAt", -1).append("_id", -1)));
+        shapes.put("findSummarySlice(status)", new Document("find", collection)
+                .append("filter", new Document("userId", SAMPLE_USER).append("status", "Hecho"))
+                .append("sort", new Document("updatedAt", -1).append("_id", -1)));
+        shapes.put("deleteByTitle", new Document("find", collection)
+                .append("filter", new Document("userId", SAMPLE_USER).append("title", "Título")));
+        shapes.put("deleteByTitle(prefix)", new Document("find", collection)
+                .append("filter", new Document("userId", SAMPLE_USER)
+                        .append("title", new Document("$regex", "^Títu"))));
+        shapes.put("search", new Document("find", collection)
+                .append("filter", new Document("userId", SAMPLE_USER)
+                        .append("$text", new Document("$search", "nota"))));
+
+        return shapes;
+    }
+
+    /**
+     * Obtiene el plan elegido por el servidor para un comando find.
+     * @param findCommand El comando find a analizar
+     * @return El plan ganador (winningPlan) del resultado de explain
+     */
+    private Document explain(Document findCommand) {
+        Document result = mongoTemplate.getDb().runCommand(
+                new Document("explain", findCommand).append("verbosity", "queryPlanner"));
+        return result.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+    }
+
+    /**
+     * Busca recursivamente una etapa concreta dentro de un plan de ejecución.
+     * @param node Nodo del plan (documento, lista o valor)
+     * @param stage El nombre de la etapa a buscar
+     * @return true si la etapa aparece en el plan
+     */
+    private boolean containsStage(Object node, String stage) {
+        if (node instanceof Document document) {
+            if (stage.equals(document.get("stage"))) {
+                return true;
+            }
+            return document.values().stream().anyMatch(value -> containsStage(value, stage));
+        }
+        if (node instanceof List<?> list) {
+            return list.stream().anyMatch(value -> containsStage(value, stage));
+        }
+        return false;
+    }
+}
@@ -0,0 +1,102 @@
+package com.notasapp.config;
+
+import com.mongodb.WriteConcern;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.notasapp.model.Note;
+import org.bson.Document;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+
+/**
+ * Configuración de la conexión reactiva con MongoDB, que usa el servicio
+ * reactivo de listados y exportación. Convive con la conexión de MongoConfig
+ * sobre la misma base de datos y con los mismos ajustes notas.mongo.*; los
+ * índices se siguen creando al arrancar, desde la conexión bloqueante.
+ * No se carga con el perfil "embedded", que no usa MongoDB.
+ */
+@Configuration
+@Profile("!embedded")
+@EnableReactiveMongoRepositories(basePackages = "com.notasapp.repository.reactive")
+@EnableConfigurationProperties(MongoClientProperties.class)
+public class ReactiveMongoConfig {
+
+    private final MongoClientProperties properties;
+    private final MongoCommandMetrics commandMetrics;
+
+    /**
+     * Constructor que inyecta la configuración del cliente.
+     * @param properties Las propiedades notas.mongo.*
+     * @param commandMetrics El registro de métricas de comandos creado en MongoConfig
+     */
+    public ReactiveMongoConfig(MongoClientProperties properties, MongoCommandMetrics commandMetrics) {
+        this.properties = properties;
+        this.commandMetrics = commandMetrics;
+    }
+
+    /**
+     * Crea el cliente reactivo de MongoDB.
+     * @return Una instancia del cliente Reactive Streams configurado
+     */
+    @Bean
+    MongoClient reactiveMongoClient() {
+        return MongoClients.create(MongoConfig.clientSettings(properties)
+                .addCommandListener(commandMetrics)
+                .build());
+    }
+
+    /**
+     * Crea la plantilla reactiva que usan los repositorios reactivos.
+     * Usa el mismo conversor que la plantilla bloqueante, de modo que el
+     * contenido comprimido de las notas se lee igual por ambos caminos.
+     * @param mappingMongoConverter El conversor creado en MongoConfig
+     * @return Una instancia de ReactiveMongoTemplate configurada
+     */
+    @Bean
+    ReactiveMongoTemplate reactiveMongoTemplate(MappingMongoConverter mappingMongoConverter) {
+        return new NotesReactiveMongoTemplate(
+                new SimpleReactiveMongoDatabaseFactory(reactiveMongoClient(), properties.getDatabase()),
+                mappingMongoConverter, properties.getNoteWrites().toWriteConcern());
+    }
+
+    /**
+     * Plantilla reactiva que aplica a la colección de notas su propio nivel de
+     * confirmación de escritura, igual que MongoConfig.NotesMongoTemplate.
+     */
+    static class NotesReactiveMongoTemplate extends ReactiveMongoTemplate {
+
+        private final String notesCollection;
+        private final WriteConcern noteWriteConcern;
+
+        /**
+         * Constructor de la plantilla.
+         * @param databaseFactory El acceso reactivo a la base de datos
+         * @param converter El conversor entre entidades y documentos
+         * @param noteWriteConcern El nivel de confirmación de las notas, o null para el del cliente
+         */
+        NotesReactiveMongoTemplate(ReactiveMongoDatabaseFactory databaseFactory, MongoConverter converter,
+                                   WriteConcern noteWriteConcern) {
+            super(databaseFactory, converter);
+            this.notesCollection = getCollectionName(Note.class);
+            this.noteWriteConcern = noteWriteConcern;
+        }
+
+        @Override
+        protected MongoCollection<Document> prepareCollection(MongoCollection<Document> collection) {
+            MongoCollection<Document> prepared = super.prepareCollection(collection);
+            if (noteWriteConcern == null || !notesCollection.equals(prepared.getNamespace().getCollectionName())) {
+                return prepared;
+            }
+            return prepared.withWriteConcern(noteWriteConcern);
+        }
+    }
+};
@@ -0,0 +1,241 @@
+package com.notasapp.config;
+
+import com.notasapp.service.NotesService;
+import com.notasapp.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Prepara la aplicación al terminar de arrancar el contexto, por etapas:
+ * - índices: comprueba o crea los índices de MongoDB
+ * - conexiones: abre las conexiones mínimas del pool de MongoDB
+ * - usuario: carga en caché el último usuario que inició sesión en la
+ *   consola y lee la primera página de sus notas
+ *
+ * Las dos primeras solo existen con MongoDB (ver MongoWarmUp). Los índices
+ * se crean siempre antes de terminar el arranque y un fallo lo aborta: el
+ * índice único de usuarios y los que usan las consultas deben existir antes
+ * de la primera operación, sea de la consola, de la API HTTP, de una
+ * importación o de la comprobación de planes de consulta.
+ *
+ * Con notas.warm-up.background=true las otras dos etapas se ejecutan en un
+ * hilo aparte mientras la consola pide el usuario, de modo que el inicio de
+ * sesión de ese usuario no hace ningún viaje a la base de datos y el de otro
+ * usuario ya no paga el establecimiento de la conexión; un fallo se anota y
+ * se avisa tras iniciar sesión. Sin ella se ejecutan también antes de
+ * terminar el arranque y un fallo lo aborta, como en el modo HTTP.
+ *
+ * El tiempo de cada etapa se registra en la métrica notas.warm-up, etiquetada
+ * por etapa, y se puede mostrar tras iniciar sesión (notas.warm-up.show-timings).
+ */
+@Component
+public class StartupWarmUp {
+
+    // Notas de la primera página que se leen del último usuario (las de un listado de la consola)
+    private static final int FIRST_PAGE_SIZE = 20;
+
+    private final ObjectProvider<MongoWarmUp> mongoWarmUp;
+    private final UserService userService;
+    private final NotesService notesService;
+    private final MeterRegistry registry;
+    private final boolean background;
+    private final boolean showTimings;
+    private final Path lastUserFile;
+
+    // Etapas terminadas, en el orden en que terminaron
+    private final List<Stage> stages = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructor que inyecta lo que se prepara y la configuración notas.warm-up.*.
+     * @param mongoWarmUp La preparación de MongoDB, que no existe con el perfil "embedded"
+     * @param userService El servicio de usuarios
+     * @param notesService El servicio de notas
+     * @param registry El registro de métricas
+     * @param background Si las etapas se ejecutan en segundo plano
+     * @param showTimings Si la consola muestra los tiempos tras iniciar sesión
+     * @param lastUserFile Fichero donde se recuerda el último usuario de la consola
+     */
+    public StartupWarmUp(ObjectProvider<MongoWarmUp> mongoWarmUp, UserService userService, NotesService notesService,
+                         MeterRegistry registry,
+                         @Value("${notas.warm-up.background:true}") boolean background,
+                         @Value("${notas.warm-up.show-timings:false}") boolean showTimings,
+                         @Value("${notas.warm-up.last-user-file:${user.home}/.tnote/last-user}") Path lastUserFile) {
+        this.mongoWarmUp = mongoWarmUp;
+        this.userService = userService;
+        this.notesService = notesService;
+        this.registry = registry;
+        this.background = background;
+        this.showTimings = showTimings;
+        this.lastUserFile = lastUserFile;
+    }
+
+    /**
+     * Crea los índices y lanza el resto de etapas al terminar de arrancar el contexto.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void start() {
+        MongoWarmUp mongo = mongoWarmUp.getIfAvailable();
+        if (mongo != null) {
+            stage("índices", true, () -> {
+                mongo.ensureIndexes();
+                return null;
+            });
+        }
+
+        if (!background) {
+            run(mongo);
+            return;
+        }
+        Thread thread = new Thread(() -> run(mongo), "startup-warm-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Ejecuta en orden las etapas que pueden ir en segundo plano.
+     * @param mongo La preparación de MongoDB, o null con el perfil "embedded"
+     */
+    private void run(MongoWarmUp mongo) {
+        if (mongo != null) {
+            stage("conexiones", !background, () -> mongo.openConnections() + " abiertas");
+        }
+
+        String lastUser = readLastUser();
+        if (lastUser != null) {
+            stage("usuario", !background, () -> {
+                userService.getOrCreateUser(lastUser);
+                notesService.getNotesPage(lastUser, null, null, true, FIRST_PAGE_SIZE);
+                return lastUser;
+            });
+        }
+    }
+
+    /**
+     * Ejecuta una etapa midiendo su tiempo. Si es obligatoria un fallo se
+     * propaga y aborta el arranque; si no, se anota y se sigue con la
+     * siguiente etapa.
+     * @param name El nombre de la etapa
+     * @param required Si un fallo debe propagarse
+     * @param body La etapa, que devuelve un detalle para el informe o null
+     */
+    private void stage(String name, boolean required, Supplier<String> body) {
+        long start = System.nanoTime();
+        String detail = null;
+        String error = null;
+        try {
+            detail = body.get();
+        } catch (RuntimeException e) {
+            if (required) {
+                throw e;
+            }
+            error = e.getMessage();
+        } finally {
+            long nanos = System.nanoTime() - start;
+            Timer.builder("notas.warm-up")
+                    .description("Duración de cada etapa de la preparación al arrancar")
+                    .tag("stage", name)
+                    .register(registry)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+            stages.add(new Stage(name, nanos / 1_000_000.0, detail, error));
+        }
+    }
+
+    /**
+     * Recuerda el usuario que acaba de iniciar sesión en la consola, para
+     * preparar el siguiente arranque. No poder guardarlo solo hace que el
+     * siguiente arranque no lo prepare.
+     * @param username El nombre de usuario
+     */
+    public void rememberUser(String username) {
+        if (username.equals(readLastUser())) {
+            return;
+        }
+        try {
+            Files.createDirectories(lastUserFile.toAbsolutePath().getParent());
+            Files.writeString(lastUserFile, username, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            // Sin fichero el siguiente arranque simplemente no prepara el usuario
+        }
+    }
+
+    /**
+     * Muestra en la consola, tras iniciar sesión, los tiempos de las etapas
+     * terminadas si se pidió con notas.warm-up.show-timings, y siempre las
+     * etapas que fallaron.
+     * @param loginMillis Lo que tardó el inicio de sesión desde que se pulsó Enter
+     */
+    public void printReport(double loginMillis) {
+        List<Stage> finished = List.copyOf(stages);
+        if (showTimings) {
+            String timings = finished.stream().map(Stage::toString).collect(Collectors.joining(", "));
+            System.out.printf("(Preparación: %s; inicio de sesión %.1f ms)%n",
+                    timings.isEmpty() ? "en curso" : timings, loginMillis);
+        }
+        finished.stream()
+                .filter(stage -> stage.getError() != null)
+                .forEach(stage -> System.out.println("Aviso: falló la preparación de "
+                        + stage.getName() + ": " + stage.getError()));
+    }
+
+    /**
+     * Obtiene las etapas terminadas hasta ahora.
+     * @return Las etapas, en el orden en que terminaron
+     */
+    public List<Stage> getStages() {
+        return List.copyOf(stages);
+    }
+
+    /**
+     * Lee el último usuario que inició sesión en la consola.
+     * @return El nombre de usuario, o null si no hay ninguno guardado
+     */
+    private String readLastUser() {
+        try {
+            String username = Files.readString(lastUserFile, StandardCharsets.UTF_8).strip();
+            return username.isEmpty() ? null : username;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Resultado de una etapa de la preparación.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Stage {
+        // Nombre de la etapa
+        private String name;
+
+        // Duración en milisegundos
+        private double millis;
+
+        // Detalle para el informe, o null
+        private String detail;
+
+        // Mensaje de error si la etapa falló, o null
+        private String error;
+
+        @Override
+        public String toString() {
+            String suffix = error != null ? " (falló)" : detail != null ? " (" + detail + ")" : "";
+            return "%s %.1f ms%s".formatted(name, millis, suffix);
+        }
+    }
+};
@@ -0,0 +1,80 @@
+package com.notasapp.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cuenta los viajes de ida y vuelta a la base de datos de cada acción de
+ * usuario (una opción del menú de la consola o una petición HTTP) y los
+ * registra en la métrica notas.action.round.trips, etiquetada por acción.
+ *
+ * La acción en curso se guarda por hilo: los comandos de MongoDB se cuentan
+ * en el hilo que los lanza (ver MongoCommandMetrics), por lo que solo se
+ * cuentan los del cliente bloqueante. El almacenamiento embebido no hace
+ * viajes a ningún servidor y sus acciones registran 0.
+ */
+@Component
+public class UserActionMetrics {
+
+    // Viajes de la acción en curso en cada hilo, o null si no hay ninguna
+    private static final ThreadLocal<int[]> ROUND_TRIPS = new ThreadLocal<>();
+
+    private final MeterRegistry registry;
+
+    /**
+     * Constructor que inyecta el registro de métricas.
+     * @param registry El registro de métricas
+     */
+    public UserActionMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Ejecuta una acción de usuario contando sus viajes a la base de datos.
+     * @param action El nombre de la acción
+     * @param body La acción
+     */
+    public void run(String action, Runnable body) {
+        begin();
+        try {
+            body.run();
+        } finally {
+            end(action);
+        }
+    }
+
+    /**
+     * Empieza a contar los viajes de una acción en el hilo actual.
+     */
+    public void begin() {
+        ROUND_TRIPS.set(new int[1]);
+    }
+
+    /**
+     * Termina la acción en curso del hilo actual y registra sus viajes.
+     * @param action El nombre de la acción
+     */
+    public void end(String action) {
+        int[] roundTrips = ROUND_TRIPS.get();
+        ROUND_TRIPS.remove();
+        if (roundTrips == null) {
+            return;
+        }
+        DistributionSummary.builder("notas.action.round.trips")
+                .description("Viajes a la base de datos por acción de usuario")
+                .tag("action", action)
+                .register(registry)
+                .record(roundTrips[0]);
+    }
+
+    /**
+     * Anota un viaje a la base de datos en la acción en curso del hilo actual, si la hay.
+     */
+    static void recordRoundTrip() {
+        int[] roundTrips = ROUND_TRIPS.get();
+        if (roundTrips != null) {
+            roundTrips[0]++;
+        }
+    }
+};
@@ -0,0 +1,39 @@
+package com.notasapp.controller;
+
+import com.notasapp.config.ConnectionPoolMonitor;
+import com.notasapp.model.ConnectionPoolStats;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Expone las estadísticas del pool de conexiones a MongoDB en la API HTTP,
+ * para dimensionar el pool observando la aplicación bajo carga real.
+ *
+ * Solo se carga con el perfil "http" y sin almacenamiento embebido.
+ */
+@RestController
+@Profile("http & !embedded")
+@RequestMapping("/api/stats")
+public class MongoStatsController {
+
+    private final ConnectionPoolMonitor poolMonitor;
+
+    /**
+     * Constructor que inyecta el monitor del pool.
+     * @param poolMonitor El monitor del pool de conexiones
+     */
+    public MongoStatsController(ConnectionPoolMonitor poolMonitor) {
+        this.poolMonitor = poolMonitor;
+    }
+
+    /**
+     * Obtiene el estado actual del pool de conexiones.
+     * @return Las estadísticas del pool
+     */
+    @GetMapping("/mongo-pool")
+    public ConnectionPoolStats getPoolStats() {
+        return poolMonitor.snapshot();
+    }
+};
@@ -1,13 +1,23 @@
 package com.notasapp.controller;
 
+import com.notasapp.config.StartupWarmUp;
+import com.notasapp.config.UserActionMetrics;
+import com.notasapp.model.ExportFormat;
 import com.notasapp.model.Note;
+import com.notasapp.model.NotePage;
+import com.notasapp.model.NoteSearchHit;
+import com.notasapp.model.NoteSummary;
+import com.notasapp.model.NoteUpdateResult;
 import com.notasapp.model.User;
+import com.notasapp.service.NoteSnapshot;
 import com.notasapp.service.NotesService;
 import com.notasapp.service.UserService;
 import org.springframework.stereotype.Controller;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Scanner;
-import java.util.Date;
+import java.util.function.Function;
 
 /**
  * Controlador que maneja la interfaz de usuario por consola.
@@ -16,27 +26,48 @@ import java.util.Date;
 @Controller
 public class NotesController {
 
+    // Número de notas que se muestran por página en los listados
+    private static final int PAGE_SIZE = 20;
+
+    // Opciones de navegación entre páginas, fuera del rango de notas de una página
+    private static final int NEXT_PAGE_OPTION = PAGE_SIZE + 1;
+    private static final int PREVIOUS_PAGE_OPTION = PAGE_SIZE + 2;
+
     // Servicio para gestionar la lógica de las notas
     private final NotesService notesService;
 
     // Servicio para gestionar la lógica de usuarios
     private final UserService userService;
 
+    // Métricas de viajes a la base de datos por acción de usuario
+    private final UserActionMetrics actionMetrics;
+
+    // Preparación en segundo plano que se solapa con la petición del usuario
+    private final StartupWarmUp warmUp;
+
     // Scanner para leer la entrada del usuario
     private final Scanner scanner;
 
     // Usuario actualmente logueado en la aplicación
     private User currentUser;
 
+    // Copia de los resúmenes de las notas del usuario durante la sesión, de la que salen los listados
+    private NoteSnapshot snapshot;
+
     /**
      * Constructor que inyecta los servicios necesarios y crea un scanner.
      *
      * @param notesService El servicio de notas a utilizar
      * @param userService  El servicio de usuarios a utilizar
+     * @param actionMetrics Las métricas por acción de usuario
+     * @param warmUp        La preparación al arrancar
      */
-    public NotesController(NotesService notesService, UserService userService) {
+    public NotesController(NotesService notesService, UserService userService, UserActionMetrics actionMetrics,
+                           StartupWarmUp warmUp) {
         this.notesService = notesService;
         this.userService = userService;
+        this.actionMetrics = actionMetrics;
+        this.warmUp = warmUp;
         this.scanner = new Scanner(System.in);
     }
 
@@ -44,12 +75,14 @@ public class NotesController {
      * Inicia la aplicación solicitando el login y mostrando el menú principal.
      */
     public void start() {
-        loginUser();
+        actionMetrics.run("inicio-sesion", this::loginUser);
         showMainMenu();
     };
 
     /**
      * Solicita al usuario que ingrese su nombre de usuario para iniciar sesión.
+     * Mientras escribe, StartupWarmUp prepara la conexión y el último usuario,
+     * que se recuerda para el siguiente arranque.
      */
     private void loginUser() {
         System.out.println("=== INICIO DE SESIÓN ===");
@@ -57,9 +90,16 @@ public class NotesController {
         String username = scanner.nextLine();
 
         // Obtener o crear usuario
+        long start = System.nanoTime();
         this.currentUser = userService.getOrCreateUser(username);
+        this.snapshot = new NoteSnapshot(notesService, username);
+        double loginMillis = (System.nanoTime() - start) / 1_000_000.0;
+        if (!username.isBlank()) {
+            warmUp.rememberUser(username);
+        };
 
         System.out.println("\n¡Bienvenido, " + username + "!");
+        warmUp.printReport(loginMillis);
     };
 
     /**
@@ -80,6 +120,8 @@ public class NotesController {
             System.out.println("4. Editar mis notas");
             System.out.println("5. Eliminar mis notas");
             System.out.println("6. Administrar estados");
+            System.out.println("7. Exportar mis notas");
+            System.out.println("8. Buscar notas");
             System.out.print("\nSeleccione una opción: ");
 
             int option = getIntInput();
@@ -87,25 +129,32 @@ public class NotesController {
             switch (option) {
                 case 0:
                     exit = true;
+                    actionMetrics.run("salir", this::saveEditsBeforeExit);
                     System.out.println("\n¡Hasta pronto, " + currentUser.getUsername() + "!");
                     break;
                 case 1:
-                    viewAllNotes();
+                    actionMetrics.run("ver-notas", this::viewAllNotes);
                     break;
                 case 2:
-                    viewNotesByStatus();
+                    actionMetrics.run("ver-por-estado", this::viewNotesByStatus);
                     break;
                 case 3:
-                    createNewNote();
+                    actionMetrics.run("crear-nota", this::createNewNote);
                     break;
                 case 4:
-                    editNote();
+                    actionMetrics.run("editar-nota", this::editNote);
                     break;
                 case 5:
-                    deleteNote();
+                    actionMetrics.run("eliminar-notas", this::deleteNote);
                     break;
                 case 6:
-                    manageStatuses();
+                    actionMetrics.run("administrar-estados", this::manageStatuses);
+                    break;
+                case 7:
+                    actionMetrics.run("exportar-notas", this::exportNotes);
+                    break;
+                case 8:
+                    actionMetrics.run("buscar-notas", this::searchNotes);
                     break;
                 default:
                     System.out.println("\nOpción no válida. Intente nuevamente.");
@@ -116,6 +165,18 @@ public class NotesController {
         scanner.close();
     }
 
+    /**
+     * Escribe las ediciones que aún estén pendientes antes de salir y avisa
+     * si alguna no se pudo guardar.
+     */
+    private void saveEditsBeforeExit() {
+        int lost = notesService.flushPendingWrites();
+        if (lost > 0) {
+            System.out.println("\nNo se pudieron guardar los cambios de " + lost
+                    + " nota(s): se modificaron o eliminaron desde otra sesión.");
+        }
+    };
+
     /**
      * Muestra todas las notas del usuario actual.
      */
@@ -124,36 +185,93 @@ public class NotesController {
         System.out.println("             TODAS MIS NOTAS");
         System.out.println("===========================================");
         
-        List<Note> notes = notesService.getAllNotesByUser(currentUser.getUsername());
+        snapshot.refresh();
+        NotePage page = snapshot.getPage(null, null, true, PAGE_SIZE);
 
-        if (notes.isEmpty()) {
+        if (page.getNotes().isEmpty()) {
             System.out.println("No tienes ninguna nota creada.");
             System.out.println("\nPresiona Enter para continuar...");
             scanner.nextLine();
             return;
         }
 
-        displayNotesList(notes);
-        
-        System.out.println("\n0. Volver al menú principal");
-        System.out.println("Seleccione el número de nota para ver su detalle: ");
-        int option = getIntInput();
+        NoteSummary selected = selectNoteFromPages(page, null, "Volver al menú principal",
+                "Seleccione el número de nota para ver su detalle: ");
 
-        if (option == 0) {
+        if (selected == null) {
             System.out.println("\nVolviendo al menú principal...");
             return;
         }
 
-        if (option >= 1 && option <= notes.size()) {
-            Note selectedNote = notes.get(option - 1);
+        Note selectedNote = loadNote(selected.getId());
+        if (selectedNote != null) {
             displayNoteDetail(selectedNote);
-        } else {
-            System.out.println("\nOpción no válida.");
         }
         System.out.println("\nPresiona Enter para continuar...");
         scanner.nextLine();
     }
 
+    /**
+     * Muestra un listado paginado de notas y permite navegar entre páginas
+     * hasta que el usuario selecciona una nota o vuelve atrás.
+     *
+     * @param page      La primera página a mostrar
+     * @param status    El estado por el que se filtra el listado, o null para todas las notas
+     * @param backLabel El texto de la opción 0
+     * @param prompt    El texto con el que se pide la opción
+     * @return El resumen de la nota seleccionada, o null si el usuario vuelve atrás
+     */
+    private NoteSummary selectNoteFromPages(NotePage page, String status, String backLabel, String prompt) {
+        while (true) {
+            List<NoteSummary> notes = page.getNotes();
+            displayNotesList(notes);
+
+            if (page.hasNext() || page.hasPrevious()) {
+                System.out.println();
+            }
+            if (page.hasNext()) {
+                System.out.println(NEXT_PAGE_OPTION + ". Página siguiente");
+            }
+            if (page.hasPrevious()) {
+                System.out.println(PREVIOUS_PAGE_OPTION + ". Página anterior");
+            }
+            System.out.println("\n0. " + backLabel);
+            System.out.print(prompt);
+            int option = getIntInput();
+
+            if (option == 0) {
+                return null;
+            }
+            if (option == NEXT_PAGE_OPTION && page.hasNext()) {
+                page = snapshot.getPage(status, page.getNextCursor(), true, PAGE_SIZE);
+                continue;
+            }
+            if (option == PREVIOUS_PAGE_OPTION && page.hasPrevious()) {
+                page = snapshot.getPage(status, page.getPreviousCursor(), false, PAGE_SIZE);
+                continue;
+            }
+            if (option >= 1 && option <= notes.size()) {
+                return notes.get(option - 1);
+            }
+            System.out.println("\nOpción no válida.\n");
+        }
+    }
+
+    /**
+     * Carga la nota completa (con contenido) seleccionada en un listado.
+     *
+     * @param noteId El ID de la nota seleccionada
+     * @return La nota completa, o null si ya no existe
+     */
+    private Note loadNote(String noteId) {
+        Note note = notesService.getNote(noteId, currentUser.getUsername());
+        if (note == null) {
+            snapshot.remove(noteId);
+            System.out.println("\nLa nota ya no existe.");
+        }
+        return note;
+    }
+
     /**
      * Muestra el detalle completo de una nota.
      *
@@ -200,40 +318,34 @@ public class NotesController {
 
             if (option >= 1 && option <= availableStatuses.size()) {
                 String status = availableStatuses.get(option - 1);
-                List<Note> notes = notesService.getNotesByStatus(currentUser.getUsername(), status);
+                snapshot.refresh();
+                NotePage page = snapshot.getPage(status, null, true, PAGE_SIZE);
 
                 System.out.println("\n===========================================");
                 System.out.println("           NOTAS - " + status.toUpperCase());
                 System.out.println("===========================================");
                 
-                if (notes.isEmpty()) {
+                if (page.getNotes().isEmpty()) {
                     System.out.println("No tienes notas con el estado '" + status + "'.");
                     System.out.println("\nPresiona Enter para continuar...");
                     scanner.nextLine();
                     continue;
                 }
 
-                displayNotesList(notes);
-                
-                System.out.println("\n0. Volver a la lista de estados");
-                System.out.println("Seleccione el número de nota para ver su detalle: ");
-                int noteOption = getIntInput();
+                NoteSummary selected = selectNoteFromPages(page, status, "Volver a la lista de estados",
+                        "Seleccione el número de nota para ver su detalle: ");
 
-                if (noteOption == 0) {
+                if (selected == null) {
                     System.out.println("\nVolviendo a la lista de estados...");
                     continue;
                 }
 
-                if (noteOption >= 1 && noteOption <= notes.size()) {
-                    Note selectedNote = notes.get(noteOption - 1);
+                Note selectedNote = loadNote(selected.getId());
+                if (selectedNote != null) {
                     displayNoteDetail(selectedNote);
-                    System.out.println("\nPresiona Enter para continuar...");
-                    scanner.nextLine();
-                } else {
-                    System.out.println("\nOpción no válida.");
-                    System.out.println("\nPresiona Enter para continuar...");
-                    scanner.nextLine();
                 }
+                System.out.println("\nPresiona Enter para continuar...");
+                scanner.nextLine();
             } else {
                 System.out.println("\nOpción no válida. Por favor, intente nuevamente.");
                 System.out.println("\nPresiona Enter para continuar...");
@@ -303,6 +415,7 @@ public class NotesController {
             Note newNote = notesService.createNote(currentUser.getUsername(), title, content, status);
 
             if (newNote != null) {
+                snapshot.put(newNote);
                 System.out.println("\nNota creada con éxito:");
                 System.out.println(newNote);
             } else {
@@ -315,6 +428,135 @@ public class NotesController {
         scanner.nextLine();
     }
 
+    /**
+     * Permite al usuario buscar notas por palabras de su título o contenido.
+     * Los resultados se muestran por páginas, del más al menos relevante.
+     */
+    private void searchNotes() {
+        System.out.println("\n===========================================");
+        System.out.println("             BUSCAR NOTAS");
+        System.out.println("===========================================");
+
+        System.out.println("0. Cancelar búsqueda");
+        System.out.print("\nTexto a buscar: ");
+        String text = scanner.nextLine().trim();
+        if (text.equals("0")) {
+            System.out.println("\nBúsqueda cancelada.");
+            System.out.println("\nPresiona Enter para continuar...");
+            scanner.nextLine();
+            return;
+        }
+        if (text.isEmpty()) {
+            System.out.println("\nEl texto a buscar no puede estar vacío.");
+            System.out.println("\nPresiona Enter para continuar...");
+            scanner.nextLine();
+            return;
+        }
+
+        int page = 0;
+        while (true) {
+            // Se pide un resultado de más para saber si existe otra página
+            List<NoteSearchHit> hits = notesService.searchNotes(currentUser.getUsername(), text, page, PAGE_SIZE + 1);
+            boolean hasNext = hits.size() > PAGE_SIZE;
+            if (hasNext) {
+                hits = hits.subList(0, PAGE_SIZE);
+            }
+
+            if (hits.isEmpty() && page == 0) {
+                System.out.println("\nNo se encontraron notas para '" + text + "'.");
+                System.out.println("\nPresiona Enter para continuar...");
+                scanner.nextLine();
+                return;
+            }
+
+            System.out.println("\nResultados para '" + text + "':");
+            for (int i = 0; i < hits.size(); i++) {
+                NoteSearchHit hit = hits.get(i);
+                System.out.println((i + 1) + ". " + hit.getTitle() + " [" + hit.getStatus() + "]"
+                        + " (relevancia: %.2f)".formatted(hit.getScore()));
+            }
+
+            if (hasNext || page > 0) {
+                System.out.println();
+            }
+            if (hasNext) {
+                System.out.println(NEXT_PAGE_OPTION + ". Página siguiente");
+            }
+            if (page > 0) {
+                System.out.println(PREVIOUS_PAGE_OPTION + ". Página anterior");
+            }
+            System.out.println("\n0. Volver al menú principal");
+            System.out.print("Seleccione el número de nota para ver su detalle: ");
+            int option = getIntInput();
+
+            if (option == 0) {
+                System.out.println("\nVolviendo al menú principal...");
+                return;
+            }
+            if (option == NEXT_PAGE_OPTION && hasNext) {
+                page++;
+                continue;
+            }
+            if (option == PREVIOUS_PAGE_OPTION && page > 0) {
+                page--;
+                continue;
+            }
+            if (option >= 1 && option <= hits.size()) {
+                Note selectedNote = loadNote(hits.get(option - 1).getId());
+                if (selectedNote != null) {
+                    displayNoteDetail(selectedNote);
+                }
+                System.out.println("\nPresiona Enter para continuar...");
+                scanner.nextLine();
+                continue;
+            }
+            System.out.println("\nOpción no válida.");
+        }
+    }
+
+    /**
+     * Permite al usuario exportar todas sus notas a un fichero JSON Lines o CSV.
+     */
+    private void exportNotes() {
+        System.out.println("\n===========================================");
+        System.out.println("           EXPORTAR MIS NOTAS");
+        System.out.println("===========================================");
+
+        System.out.println("0. Cancelar exportación");
+        System.out.println("1. JSON Lines (.jsonl)");
+        System.out.println("2. CSV (.csv)");
+        System.out.print("\nFormato: ");
+        int option = getIntInput();
+
+        if (option == 0) {
+            System.out.println("\nExportación cancelada.");
+            System.out.println("\nPresiona Enter para continuar...");
+            scanner.nextLine();
+            return;
+        }
+        if (option != 1 && option != 2) {
+            System.out.println("\nOpción no válida.");
+            System.out.println("\nPresiona Enter para continuar...");
+            scanner.nextLine();
+            return;
+        }
+
+        ExportFormat format = option == 1 ? ExportFormat.JSONL : ExportFormat.CSV;
+        String defaultFile = "notas-" + currentUser.getUsername() + "." + format.getExtension();
+        System.out.print("Fichero de destino [" + defaultFile + "]: ");
+        String file = scanner.nextLine().trim();
+        Path target = Path.of(file.isEmpty() ? defaultFile : file);
+
+        try {
+            long exported = notesService.exportNotes(currentUser.getUsername(), target, format);
+            System.out.println("\nSe exportaron " + exported + " nota(s) a " + target.toAbsolutePath());
+        } catch (IOException e) {
+            System.out.println("\nError al exportar las notas: " + e.getMessage());
+        }
+        System.out.println("\nPresiona Enter para continuar...");
+        scanner.nextLine();
+    }
+
     /**
      * Muestra el menú para administrar los estados de las notas.
      */
@@ -422,10 +664,10 @@ public class NotesController {
         String statusToRemove = statuses.get(choice - 1);
         
         // Verificar si hay notas usando este estado
-        List<Note> notesWithStatus = notesService.getNotesByStatus(currentUser.getUsername(), statusToRemove);
-        if (!notesWithStatus.isEmpty()) {
+        long notesWithStatus = notesService.countNotesByStatus(currentUser.getUsername(), statusToRemove);
+        if (notesWithStatus > 0) {
             System.out.println("\nNo se puede eliminar el estado '" + statusToRemove + "' porque hay " + 
-                             notesWithStatus.size() + " nota(s) que lo están usando.");
+                             notesWithStatus + " nota(s) que lo están usando.");
             System.out.println("Por favor, cambie el estado de estas notas antes de eliminarlo.");
             System.out.println("\nPresiona Enter para continuar...");
             scanner.nextLine();
@@ -448,7 +690,7 @@ public class NotesController {
      *
      * @param notes Lista de notas a mostrar
      */
-    private void displayNotesList(List<Note> notes) {
+    private void displayNotesList(List<NoteSummary> notes) {
         for (int i = 0; i < notes.size(); i++) {
             System.out.println((i + 1) + ". " + notes.get(i).getTitle() +
                     " [" + notes.get(i).getStatus() + "]");
@@ -479,64 +721,107 @@ public class NotesController {
         System.out.println("             EDITAR NOTA");
         System.out.println("===========================================");
         
-        List<Note> notes = notesService.getAllNotesByUser(currentUser.getUsername());
+        snapshot.refresh();
+        NotePage page = snapshot.getPage(null, null, true, PAGE_SIZE);
 
-        if (notes.isEmpty()) {
+        if (page.getNotes().isEmpty()) {
             System.out.println("No tienes ninguna nota para editar.");
             System.out.println("\nPresiona Enter para continuar...");
             scanner.nextLine();
             return;
         }
 
-        System.out.println("0. Volver al menú principal");
-        System.out.println("\nSeleccione la nota a editar:");
-        displayNotesList(notes);
-        
-        System.out.print("\nOpción: ");
-        int option = getIntInput();
+        System.out.println("Seleccione la nota a editar:");
+        NoteSummary selected = selectNoteFromPages(page, null, "Volver al menú principal", "\nOpción: ");
 
-        if (option == 0) {
+        if (selected == null) {
             System.out.println("\nVolviendo al menú principal...");
             return;
         }
 
-        if (option >= 1 && option <= notes.size()) {
-            Note selectedNote = notes.get(option - 1);
-            displayNoteDetail(selectedNote);
+        Note selectedNote = loadNote(selected.getId());
+        if (selectedNote == null) {
+            System.out.println("\nPresiona Enter para continuar...");
+            scanner.nextLine();
+            return;
+        }
+        displayNoteDetail(selectedNote);
 
-            System.out.println("\n¿Qué desea editar?");
-            System.out.println("1. Título");
-            System.out.println("2. Contenido");
-            System.out.println("3. Estado");
-            System.out.println("0. Volver al menú principal");
-            System.out.print("\nOpción: ");
+        System.out.println("\n¿Qué desea editar?");
+        System.out.println("1. Título");
+        System.out.println("2. Contenido");
+        System.out.println("3. Estado");
+        System.out.println("0. Volver al menú principal");
+        System.out.print("\nOpción: ");
 
-            int editOption = getIntInput();
+        int editOption = getIntInput();
 
-            if (editOption == 0) {
-                System.out.println("\nVolviendo al menú principal...");
-                return;
-            }
+        if (editOption == 0) {
+            System.out.println("\nVolviendo al menú principal...");
+            return;
+        }
 
-            switch (editOption) {
-                case 1:
-                    editNoteTitle(selectedNote);
-                    break;
-                case 2:
-                    editNoteContent(selectedNote);
-                    break;
-                case 3:
-                    editNoteStatus(selectedNote);
+        switch (editOption) {
+            case 1:
+                editNoteTitle(selectedNote);
+                break;
+            case 2:
+                editNoteContent(selectedNote);
+                break;
+            case 3:
+                editNoteStatus(selectedNote);
+                break;
+            default:
+                System.out.println("\nOpción no válida.");
+                System.out.println("\nPresiona Enter para continuar...");
+                scanner.nextLine();
+        }
+    }
+
+    /**
+     * Aplica una edición sobre la versión de la nota que se mostró al usuario.
+     * Si la nota se modificó entretanto desde otra sesión, muestra la versión
+     * actual y permite reintentar el cambio sobre ella o descartarlo.
+     *
+     * @param note           La nota tal como se leyó antes de editarla
+     * @param update         La edición a aplicar, en función de la versión esperada
+     * @param successMessage El mensaje a mostrar si la edición se aplica
+     * @param errorMessage   El mensaje a mostrar si la edición no se puede aplicar
+     */
+    private void applyVersionedUpdate(Note note, Function<Long, NoteUpdateResult> update,
+                                      String successMessage, String errorMessage) {
+        Long expectedVersion = note.getVersion();
+
+        while (true) {
+            NoteUpdateResult result = update.apply(expectedVersion);
+
+            switch (result.getOutcome()) {
+                case UPDATED:
+                    snapshot.put(result.getNote());
+                    System.out.println("\n" + successMessage);
+                    System.out.println(result.getNote());
+                    return;
+                case CONFLICT:
+                    snapshot.put(result.getNote());
+                    System.out.println("\nLa nota se ha modificado desde otra sesión mientras la editabas.");
+                    displayNoteDetail(result.getNote());
+                    System.out.println("\n1. Aplicar mi cambio sobre esta versión");
+                    System.out.println("0. Descartar mi cambio");
+                    System.out.print("\nOpción: ");
+                    if (getIntInput() != 1) {
+                        System.out.println("\nCambio descartado.");
+                        return;
+                    }
+                    expectedVersion = result.getNote().getVersion();
                     break;
+                case NOT_FOUND:
+                    snapshot.remove(note.getId());
+                    System.out.println("\nLa nota ya no existe.");
+                    return;
                 default:
-                    System.out.println("\nOpción no válida.");
-                    System.out.println("\nPresiona Enter para continuar...");
-                    scanner.nextLine();
+                    System.out.println("\n" + errorMessage);
+                    return;
             }
-        } else {
-            System.out.println("\nOpción no válida.");
-            System.out.println("\nPresiona Enter para continuar...");
-            scanner.nextLine();
         }
     }
 
@@ -564,16 +849,9 @@ public class NotesController {
             return;
         }
 
-        note.setTitle(title);
-        note.setUpdatedAt(new Date());
-
-        Note updatedNote = notesService.updateNote(note);
-        if (updatedNote != null) {
-            System.out.println("\nTítulo actualizado con éxito:");
-            System.out.println(updatedNote);
-        } else {
-            System.out.println("\nError al actualizar el título.");
-        }
+        applyVersionedUpdate(note,
+                version -> notesService.updateNote(note.getId(), currentUser.getUsername(), title, null, version),
+                "Título actualizado con éxito:", "Error al actualizar el título.");
         System.out.println("\nPresiona Enter para continuar...");
         scanner.nextLine();
     }
@@ -602,16 +880,9 @@ public class NotesController {
             return;
         }
 
-        note.setContent(content);
-        note.setUpdatedAt(new Date());
-
-        Note updatedNote = notesService.updateNote(note);
-        if (updatedNote != null) {
-            System.out.println("\nContenido actualizado con éxito:");
-            System.out.println(updatedNote);
-        } else {
-            System.out.println("\nError al actualizar el contenido.");
-        }
+        applyVersionedUpdate(note,
+                version -> notesService.updateNote(note.getId(), currentUser.getUsername(), null, content, version),
+                "Contenido actualizado con éxito:", "Error al actualizar el contenido.");
         System.out.println("\nPresiona Enter para continuar...");
         scanner.nextLine();
     }
@@ -643,14 +914,9 @@ public class NotesController {
 
         if (option >= 1 && option <= availableStatuses.size()) {
             String newStatus = availableStatuses.get(option - 1);
-            Note updatedNote = notesService.updateNoteStatus(note.getId(), currentUser.getUsername(), newStatus);
-
-            if (updatedNote != null) {
-                System.out.println("\nEstado actualizado con éxito:");
-                System.out.println(updatedNote);
-            } else {
-                System.out.println("\nError al actualizar el estado.");
-            }
+            applyVersionedUpdate(note,
+                    version -> notesService.updateNoteStatus(note.getId(), currentUser.getUsername(), newStatus, version),
+                    "Estado actualizado con éxito:", "Error al actualizar el estado.");
         } else {
             System.out.println("\nOpción no válida.");
         }
@@ -666,53 +932,52 @@ public class NotesController {
         System.out.println("             ELIMINAR NOTA");
         System.out.println("===========================================");
         
-        List<Note> notes = notesService.getAllNotesByUser(currentUser.getUsername());
+        snapshot.refresh();
+        NotePage page = snapshot.getPage(null, null, true, PAGE_SIZE);
 
-        if (notes.isEmpty()) {
+        if (page.getNotes().isEmpty()) {
             System.out.println("No tienes ninguna nota para eliminar.");
             System.out.println("\nPresiona Enter para continuar...");
             scanner.nextLine();
             return;
         }
 
-        System.out.println("0. Volver al menú principal");
-        System.out.println("\nSeleccione la nota a eliminar:");
-        displayNotesList(notes);
-        
-        System.out.print("\nOpción: ");
-        int option = getIntInput();
+        System.out.println("Seleccione la nota a eliminar:");
+        NoteSummary selected = selectNoteFromPages(page, null, "Volver al menú principal", "\nOpción: ");
 
-        if (option == 0) {
+        if (selected == null) {
             System.out.println("\nVolviendo al menú principal...");
             return;
         }
 
-        if (option >= 1 && option <= notes.size()) {
-            Note selectedNote = notes.get(option - 1);
-            displayNoteDetail(selectedNote);
+        Note selectedNote = loadNote(selected.getId());
+        if (selectedNote == null) {
+            System.out.println("\nPresiona Enter para continuar...");
+            scanner.nextLine();
+            return;
+        }
+        displayNoteDetail(selectedNote);
 
-            System.out.println("\n¿Está seguro de que desea eliminar esta nota?");
-            System.out.println("1. Sí, eliminar");
-            System.out.println("0. No, cancelar");
-            System.out.print("\nOpción: ");
+        System.out.println("\n¿Está seguro de que desea eliminar esta nota?");
+        System.out.println("1. Sí, eliminar");
+        System.out.println("0. No, cancelar");
+        System.out.print("\nOpción: ");
 
-            int confirmOption = getIntInput();
+        int confirmOption = getIntInput();
 
-            if (confirmOption == 0) {
-                System.out.println("\nEliminación cancelada.");
-                System.out.println("\nPresiona Enter para continuar...");
-                scanner.nextLine();
-                return;
-            }
+        if (confirmOption == 0) {
+            System.out.println("\nEliminación cancelada.");
+            System.out.println("\nPresiona Enter para continuar...");
+            scanner.nextLine();
+            return;
+        }
 
-            if (confirmOption == 1) {
-                if (notesService.deleteNote(selectedNote.getId(), currentUser.getUsername())) {
-                    System.out.println("\nNota eliminada con éxito.");
-                } else {
-                    System.out.println("\nError al eliminar la nota.");
-                }
+        if (confirmOption == 1) {
+            if (notesService.deleteNote(selectedNote.getId(), currentUser.getUsername())) {
+                snapshot.remove(selectedNote.getId());
+                System.out.println("\nNota eliminada con éxito.");
             } else {
-                System.out.println("\nOpción no válida.");
+                System.out.println("\nError al eliminar la nota.");
             }
         } else {
             System.out.println("\nOpción no válida.");
@@ -720,4 +985,4 @@ public class NotesController {
         System.out.println("\nPresiona Enter para continuar...");
         scanner.nextLine();
     }
-};
\ No newline at end of file
+};
@@ -0,0 +1,251 @@
+package com.notasapp.controller;
+
+import com.notasapp.model.Note;
+import com.notasapp.model.NoteCursor;
+import com.notasapp.model.NoteFeedPage;
+import com.notasapp.model.NotePage;
+import com.notasapp.model.NoteRequest;
+import com.notasapp.model.NoteSearchHit;
+import com.notasapp.model.NoteUpdateResult;
+import com.notasapp.service.NotesService;
+import com.notasapp.service.UserService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import java.util.List;
+
+/**
+ * API HTTP JSON sobre los mismos servicios que la interfaz de consola.
+ * El usuario se identifica con la cabecera X-User, igual que el nombre de
+ * usuario con el que se inicia sesión en la consola.
+ *
+ * Las ediciones usan el mismo control de versión que la consola: el cliente
+ * envía la versión que leyó y, si la nota cambió entretanto, recibe un 409
+ * con la versión actual.
+ *
+ * Solo se carga con el perfil "http" (opción --http de Main).
+ */
+@RestController
+@Profile("http")
+@RequestMapping("/api")
+public class NotesRestController {
+
+    // Cabecera con el nombre del usuario que hace la petición
+    private static final String USER_HEADER = "X-User";
+
+    // Tamaño de página por defecto y máximo de los listados
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final NotesService notesService;
+    private final UserService userService;
+
+    /**
+     * Constructor que inyecta los servicios necesarios.
+     * @param notesService El servicio de notas
+     * @param userService El servicio de usuarios
+     */
+    public NotesRestController(NotesService notesService, UserService userService) {
+        this.notesService = notesService;
+        this.userService = userService;
+    }
+
+    /**
+     * Lista una página de resúmenes de notas, de la más reciente a la más antigua.
+     * @param username El usuario de la petición
+     * @param status El estado por el que filtrar, o null para todas
+     * @param cursor El nextCursor o previousCursor de otra página, o null para la primera
+     * @param direction "next" (por defecto) o "previous", según el cursor recibido
+     * @param size Número de notas por página
+     * @return La página con sus cursores de navegación
+     */
+    @GetMapping("/notes")
+    public ResponseEntity<NotePage> listNotes(@RequestHeader(USER_HEADER) String username,
+                                              @RequestParam(required = false) String status,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "next") String direction,
+                                              @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        NoteCursor position;
+        try {
+            position = NoteCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        boolean forward = !"previous".equals(direction);
+        return ResponseEntity.ok(notesService.getNotesPage(username, status, position, forward, pageSize));
+    }
+
+    /**
+     * Busca notas por palabras de su título o contenido.
+     * @param username El usuario de la petición
+     * @param text Las palabras a buscar
+     * @param page El número de página, empezando en 0
+     * @param size Número de resultados por página
+     * @return Los resultados, del más al menos relevante
+     */
+    @GetMapping("/notes/search")
+    public List<NoteSearchHit> searchNotes(@RequestHeader(USER_HEADER) String username,
+                                           @RequestParam("q") String text,
+                                           @RequestParam(defaultValue = "0") int page,
+                                           @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        return notesService.searchNotes(username, text, Math.max(0, page), Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+
+    /**
+     * Obtiene los cambios de las notas posteriores a un cursor, para
+     * sincronizar una copia local: las notas creadas o modificadas y las
+     * eliminadas (deleted: true), del cambio más antiguo al más reciente.
+     * @param username El usuario de la petición
+     * @param cursor El nextCursor de la última página recibida, o null para empezar desde el principio
+     * @param size Número de cambios por página
+     * @return La página de cambios, o 400 si el cursor no es válido
+     */
+    @GetMapping("/notes/changes")
+    public ResponseEntity<NoteFeedPage> getChanges(@RequestHeader(USER_HEADER) String username,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        NoteCursor position;
+        try {
+            position = NoteCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(notesService.changesSince(username, position, Math.max(1, Math.min(size, MAX_PAGE_SIZE))));
+    }
+
+    /**
+     * Obtiene una nota completa.
+     * @param username El usuario de la petición
+     * @param noteId El ID de la nota
+     * @return La nota, o 404 si no existe o pertenece a otro usuario
+     */
+    @GetMapping("/notes/{noteId}")
+    public ResponseEntity<Note> getNote(@RequestHeader(USER_HEADER) String username, @PathVariable String noteId) {
+        Note note = notesService.getNote(noteId, username);
+        return note != null ? ResponseEntity.ok(note) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Crea una nota.
+     * @param username El usuario de la petición
+     * @param request El título, el contenido y el estado de la nota
+     * @return 201 con la nota creada, 400 si falta el título o 422 si el estado no es válido
+     */
+    @PostMapping("/notes")
+    public ResponseEntity<Note> createNote(@RequestHeader(USER_HEADER) String username,
+                                           @RequestBody NoteRequest request) {
+        if (isBlank(request.getTitle()) || isBlank(request.getContent()) || isBlank(request.getStatus())) {
+            return ResponseEntity.badRequest().build();
+        }
+        Note note = notesService.createNote(username, request.getTitle().trim(), request.getContent().trim(),
+                request.getStatus());
+        return note != null
+                ? ResponseEntity.status(HttpStatus.CREATED).body(note)
+                : ResponseEntity.unprocessableEntity().build();
+    }
+
+    /**
+     * Modifica el título, el contenido y/o el estado de una nota en una sola
+     * escritura versionada. Si el estado no es válido no se aplica ningún cambio.
+     * @param username El usuario de la petición
+     * @param noteId El ID de la nota
+     * @param request Los campos a cambiar y la versión leída
+     * @return 200 con la nota actualizada, 409 con la nota actual, 404 o 422 si el estado no es válido
+     */
+    @PatchMapping("/notes/{noteId}")
+    public ResponseEntity<Note> updateNote(@RequestHeader(USER_HEADER) String username, @PathVariable String noteId,
+                                           @RequestBody NoteRequest request) {
+        if (request.getVersion() == null
+                || (request.getTitle() == null && request.getContent() == null && request.getStatus() == null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return toResponse(notesService.updateNote(noteId, username, request.getTitle(), request.getContent(),
+                request.getStatus(), request.getVersion()));
+    }
+
+    /**
+     * Elimina una nota.
+     * @param username El usuario de la petición
+     * @param noteId El ID de la nota
+     * @return 204 si se eliminó, 404 si no existe o pertenece a otro usuario
+     */
+    @DeleteMapping("/notes/{noteId}")
+    public ResponseEntity<Void> deleteNote(@RequestHeader(USER_HEADER) String username, @PathVariable String noteId) {
+        return notesService.deleteNote(noteId, username)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Obtiene los estados disponibles del usuario.
+     * @param username El usuario de la petición
+     * @return Lista de estados
+     */
+    @GetMapping("/statuses")
+    public List<String> getStatuses(@RequestHeader(USER_HEADER) String username) {
+        return userService.getAvailableStatuses(username);
+    }
+
+    /**
+     * Añade un estado a los del usuario.
+     * @param username El usuario de la petición
+     * @param status El nuevo estado
+     * @return 201 si se añadió, 409 si ya existía
+     */
+    @PostMapping("/statuses/{status}")
+    public ResponseEntity<Void> addStatus(@RequestHeader(USER_HEADER) String username, @PathVariable String status) {
+        if (isBlank(status)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return userService.addStatusToUser(username, status.trim())
+                ? ResponseEntity.status(HttpStatus.CREATED).build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    /**
+     * Elimina un estado de los del usuario.
+     * @param username El usuario de la petición
+     * @param status El estado a eliminar
+     * @return 204 si se eliminó, 409 si no existe o es el último estado
+     */
+    @DeleteMapping("/statuses/{status}")
+    public ResponseEntity<Void> removeStatus(@RequestHeader(USER_HEADER) String username, @PathVariable String status) {
+        return userService.removeStatusFromUser(username, status)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    /**
+     * Traduce el resultado de una actualización versionada a una respuesta HTTP.
+     * @param result El resultado de la actualización
+     * @return La respuesta correspondiente
+     */
+    private ResponseEntity<Note> toResponse(NoteUpdateResult result) {
+        return switch (result.getOutcome()) {
+            case UPDATED -> ResponseEntity.ok(result.getNote());
+            case CONFLICT -> ResponseEntity.status(HttpStatus.CONFLICT).body(result.getNote());
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+            case REJECTED -> ResponseEntity.unprocessableEntity().build();
+        };
+    }
+
+    /**
+     * Comprueba si un texto es null o está vacío.
+     * @param value El texto
+     * @return true si no tiene contenido
+     */
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+};
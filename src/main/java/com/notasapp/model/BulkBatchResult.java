@@ -0,0 +1,35 @@
+package com.notasapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Resultado de un lote dentro de una operación masiva sobre notas.
+ */
+@Data
+@AllArgsConstructor
+public class BulkBatchResult {
+    // Número de lote, empezando en 1
+    private int batch;
+
+    // Notas insertadas en el lote
+    private int inserted;
+
+    // Notas que coincidieron con el filtro de una actualización
+    private long matched;
+
+    // Notas modificadas por una actualización
+    private long modified;
+
+    // Notas eliminadas
+    private long deleted;
+
+    // Notas descartadas antes de enviarse (por ejemplo, por un estado no válido)
+    private int rejected;
+
+    // Escrituras que el servidor rechazó (por ejemplo, por una clave duplicada)
+    private int failed;
+
+    // Notas que no se intentaron escribir porque una escritura ordenada se detuvo en un error
+    private int skipped;
+};
@@ -0,0 +1,28 @@
+package com.notasapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Opciones de las operaciones masivas sobre notas.
+ */
+@Data
+@AllArgsConstructor
+public class BulkOptions {
+    // Tamaño de lote por defecto
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    // Número máximo de notas que se envían al servidor en cada escritura masiva
+    private int batchSize;
+
+    // true para detener cada lote en el primer error, false para aplicar el resto igualmente
+    private boolean ordered;
+
+    /**
+     * Crea las opciones por defecto: lotes de 1000 notas sin orden garantizado.
+     * @return Las opciones por defecto
+     */
+    public static BulkOptions defaults() {
+        return new BulkOptions(DEFAULT_BATCH_SIZE, false);
+    };
+};
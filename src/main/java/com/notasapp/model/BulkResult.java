@@ -0,0 +1,54 @@
+package com.notasapp.model;
+
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de una operación masiva sobre notas, con el detalle de cada lote.
+ */
+@Data
+public class BulkResult {
+    // Resultados de cada lote en el orden en que se ejecutaron
+    private final List<BulkBatchResult> batches = new ArrayList<>();
+
+    /**
+     * Añade el resultado de un lote.
+     * @param batch El resultado del lote
+     */
+    public void add(BulkBatchResult batch) {
+        batches.add(batch);
+    };
+
+    /**
+     * Total de notas insertadas en todos los lotes.
+     * @return Número de notas insertadas
+     */
+    public long getTotalInserted() {
+        return batches.stream().mapToLong(BulkBatchResult::getInserted).sum();
+    };
+
+    /**
+     * Total de notas modificadas en todos los lotes.
+     * @return Número de notas modificadas
+     */
+    public long getTotalModified() {
+        return batches.stream().mapToLong(BulkBatchResult::getModified).sum();
+    };
+
+    /**
+     * Total de notas eliminadas en todos los lotes.
+     * @return Número de notas eliminadas
+     */
+    public long getTotalDeleted() {
+        return batches.stream().mapToLong(BulkBatchResult::getDeleted).sum();
+    };
+
+    /**
+     * Total de notas descartadas, rechazadas por el servidor o no intentadas en todos los lotes.
+     * @return Número de notas no escritas
+     */
+    public long getTotalNotWritten() {
+        return batches.stream().mapToLong(batch -> batch.getRejected() + batch.getFailed() + batch.getSkipped()).sum();
+    };
+};
@@ -0,0 +1,45 @@
+package com.notasapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Instantánea de las estadísticas del pool de conexiones a MongoDB.
+ * Sirve para dimensionar el pool con datos: si el pico de conexiones en uso
+ * alcanza el máximo y hay esperas o tiempos agotados, el pool se queda corto;
+ * si el pico queda muy por debajo del máximo, sobra.
+ */
+@Data
+@AllArgsConstructor
+public class ConnectionPoolStats {
+    // Conexiones máximas por servidor configuradas
+    private int maxSize;
+
+    // Conexiones abiertas ahora mismo
+    private int open;
+
+    // Conexiones prestadas a operaciones ahora mismo, y su máximo desde el arranque
+    private int inUse;
+    private int peakInUse;
+
+    // Operaciones esperando una conexión ahora mismo, y su máximo desde el arranque
+    private int waiting;
+    private int peakWaiting;
+
+    // Préstamos de conexión completados y fallidos, y fallidos por tiempo agotado
+    private long checkOuts;
+    private long failedCheckOuts;
+    private long timedOutCheckOuts;
+
+    // Espera media y máxima para obtener una conexión, en microsegundos
+    private long averageWaitMicros;
+    private long maxWaitMicros;
+
+    @Override
+    public String toString() {
+        return ("Pool MongoDB: %d/%d en uso (pico %d), %d abiertas, %d esperando (pico %d), "
+                + "%d préstamos, %d fallidos (%d por tiempo), espera media %d µs, máxima %d µs").formatted(
+                inUse, maxSize, peakInUse, open, waiting, peakWaiting,
+                checkOuts, failedCheckOuts, timedOutCheckOuts, averageWaitMicros, maxWaitMicros);
+    };
+};
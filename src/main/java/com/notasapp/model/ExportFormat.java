@@ -0,0 +1,26 @@
+package com.notasapp.model;
+
+/**
+ * Formatos de fichero en los que se pueden exportar las notas.
+ */
+public enum ExportFormat {
+    // Un documento JSON por línea
+    JSONL("jsonl"),
+    // Valores separados por comas, con cabecera
+    CSV("csv");
+
+    // Extensión de fichero habitual para el formato
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    };
+
+    /**
+     * Obtiene la extensión de fichero habitual para el formato.
+     * @return La extensión, sin el punto
+     */
+    public String getExtension() {
+        return extension;
+    };
+};
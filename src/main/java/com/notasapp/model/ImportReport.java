@@ -0,0 +1,52 @@
+package com.notasapp.model;
+
+import lombok.Data;
+import java.time.Duration;
+
+/**
+ * Informe de una importación masiva de notas.
+ */
+@Data
+public class ImportReport {
+    // Líneas leídas del fichero en esta ejecución
+    private long linesRead;
+
+    // Líneas saltadas por haberse confirmado en una ejecución anterior
+    private long linesSkipped;
+
+    // Notas insertadas
+    private long inserted;
+
+    // Líneas descartadas por no ser JSON válido o tener un estado no disponible
+    private long rejected;
+
+    // Notas que no se insertaron: rechazadas por el servidor o no intentadas tras un error en modo ordenado
+    private long failed;
+
+    // Lotes confirmados
+    private int batches;
+
+    // Última línea confirmada; una importación interrumpida se reanuda después de ella
+    private long committedOffset;
+
+    // Tiempo total de la importación
+    private Duration elapsed = Duration.ZERO;
+
+    /**
+     * Calcula el rendimiento medio de la importación.
+     * @return Notas insertadas por segundo
+     */
+    public double getNotesPerSecond() {
+        double seconds = elapsed.toNanos() / 1_000_000_000.0;
+        return seconds == 0 ? 0 : inserted / seconds;
+    };
+
+    @Override
+    public String toString() {
+        return ("Líneas leídas: %d (saltadas: %d) | Insertadas: %d | Descartadas: %d | Fallidas: %d | "
+                + "Lotes: %d | Tiempo: %.1f s | %.0f notas/s").formatted(
+                linesRead, linesSkipped, inserted, rejected, failed,
+                batches, elapsed.toMillis() / 1000.0, getNotesPerSecond()
+        );
+    };
+};
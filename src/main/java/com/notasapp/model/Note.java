@@ -2,6 +2,9 @@ package com.notasapp.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.util.Date;
 
@@ -10,9 +13,18 @@ import java.util.Date;
  * Se almacena en la colección "notes" de MongoDB.
  * Utiliza la anotación @Data de Lombok para generar automáticamente
  * getters, setters, equals, hashCode y toString.
+ * Declara los índices compuestos que sirven las consultas por usuario
+ * (listado, filtro por estado y búsqueda por título) sin recorrer la colección,
+ * y el del registro de cambios, ordenado por la fecha del último cambio.
  */
 @Data
 @Document(collection = "notes")
+@CompoundIndexes({
+        @CompoundIndex(name = "user_updated_id", def = "{'userId': 1, 'updatedAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "user_status_updated_id", def = "{'userId': 1, 'status': 1, 'updatedAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "user_title", def = "{'userId': 1, 'title': 1}"),
+        @CompoundIndex(name = "user_changed_id", def = "{'userId': 1, 'changedAt': 1, '_id': 1}")
+})
 public class Note {
     // Identificador único de la nota
     @Id
@@ -36,6 +48,15 @@ public class Note {
     // Fecha y hora de la última actualización de la nota
     private Date updatedAt = new Date();
 
+    // Fecha y hora en que el almacenamiento escribió la nota por última vez. La pone el
+    // almacenamiento en cada escritura, a diferencia de updatedAt, que puede venir de un
+    // fichero importado o de una edición diferida; el registro de cambios se ordena por ella
+    private Date changedAt;
+
+    // Versión de la nota, incrementada en cada escritura para detectar ediciones concurrentes
+    @Version
+    private Long version;
+
     /**
      * Sobrescribe el método toString para mostrar la nota en un formato legible.
      * @return Representación en texto de la nota con formato
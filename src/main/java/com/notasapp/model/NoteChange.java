@@ -0,0 +1,59 @@
+package com.notasapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.Date;
+
+/**
+ * Cambios pendientes de una nota que se escriben de una vez: el resultado
+ * de combinar varias ediciones seguidas de título, contenido y estado.
+ * Los campos null se conservan.
+ */
+@Data
+@AllArgsConstructor
+public class NoteChange {
+    // ID de la nota y de su propietario
+    private String noteId;
+    private String userId;
+
+    // Versión que debe tener la nota almacenada para aplicar el cambio
+    private Long expectedVersion;
+
+    // Nuevos valores, o null para conservar los actuales
+    private String title;
+    private String content;
+    private String status;
+
+    // Fecha de la última edición combinada
+    private Date updatedAt;
+
+    // Ediciones combinadas: la versión avanza tantas como ediciones, igual que si se hubieran escrito una a una
+    private int edits;
+
+    /**
+     * Aplica los cambios sobre una nota en memoria, incluida la versión resultante.
+     * @param note La nota en la versión esperada
+     */
+    public void applyTo(Note note) {
+        if (title != null) {
+            note.setTitle(title);
+        };
+        if (content != null) {
+            note.setContent(content);
+        };
+        if (status != null) {
+            note.setStatus(status);
+        };
+        note.setUpdatedAt(updatedAt);
+        note.setVersion(getResultingVersion());
+    };
+
+    /**
+     * Calcula la versión que tendrá la nota tras aplicar el cambio.
+     * Las notas sin versión cuentan como versión 0, igual que al incrementarla en MongoDB.
+     * @return La versión resultante
+     */
+    public long getResultingVersion() {
+        return (expectedVersion == null ? 0 : expectedVersion) + edits;
+    };
+};
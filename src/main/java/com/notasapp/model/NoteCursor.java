@@ -0,0 +1,77 @@
+package com.notasapp.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.Date;
+
+/**
+ * Posición dentro de un listado de notas paginado por clave (keyset).
+ * Identifica una nota por su fecha de actualización y su ID, que juntos
+ * definen un orden estable aunque varias notas compartan la misma fecha.
+ */
+@Data
+@AllArgsConstructor
+public class NoteCursor {
+    // ID menor que el de cualquier nota: tanto como texto como convertido a ObjectId en MongoDB
+    public static final String MIN_ID = "000000000000000000000000";
+
+    // Fecha de última actualización de la nota que marca la posición
+    private Date updatedAt;
+
+    // ID de la nota, usado para desempatar notas con la misma fecha
+    private String id;
+
+    /**
+     * Crea el cursor que apunta a una nota de un listado.
+     * @param summary El resumen de la nota
+     * @return El cursor posicionado en esa nota
+     */
+    public static NoteCursor of(NoteSummary summary) {
+        return new NoteCursor(summary.getUpdatedAt(), summary.getId());
+    };
+
+    /**
+     * Crea el cursor que se sitúa justo antes de todos los cambios de un
+     * instante, incluidos los de su mismo milisegundo.
+     * @param date El instante
+     * @return El cursor posicionado antes de ese instante
+     */
+    public static NoteCursor startingAt(Date date) {
+        return new NoteCursor(date, MIN_ID);
+    };
+
+    /**
+     * Codifica el cursor como texto opaco para poder transportarlo.
+     * Es también su representación en JSON.
+     * @return El cursor en formato "milisegundos:id"
+     */
+    @JsonValue
+    public String encode() {
+        return updatedAt.getTime() + ":" + id;
+    };
+
+    /**
+     * Reconstruye un cursor a partir de su forma codificada.
+     * @param value El cursor codificado con encode()
+     * @return El cursor, o null si el valor está vacío
+     * @throws IllegalArgumentException si el formato no es válido
+     */
+    @JsonCreator
+    public static NoteCursor decode(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        };
+        int separator = value.indexOf(':');
+        if (separator <= 0 || separator == value.length() - 1) {
+            throw new IllegalArgumentException("Cursor no válido: " + value);
+        };
+        try {
+            long millis = Long.parseLong(value.substring(0, separator));
+            return new NoteCursor(new Date(millis), value.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor no válido: " + value, e);
+        }
+    };
+};
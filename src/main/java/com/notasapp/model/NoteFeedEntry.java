@@ -0,0 +1,63 @@
+package com.notasapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.Comparator;
+import java.util.Date;
+
+/**
+ * Cambio de una nota en el registro de cambios de un usuario: la nota creada
+ * o modificada, o la marca de que se eliminó.
+ */
+@Data
+@AllArgsConstructor
+public class NoteFeedEntry {
+
+    // Orden del registro de cambios: del más antiguo al más reciente y, a igual fecha, por ID
+    public static final Comparator<NoteFeedEntry> CHANGE_ORDER = Comparator
+            .comparing(NoteFeedEntry::getChangedAt)
+            .thenComparing(NoteFeedEntry::getNoteId);
+
+    // ID de la nota
+    private String noteId;
+
+    // Fecha del cambio: la de la última escritura de la nota (changedAt) o la de su eliminación
+    private Date changedAt;
+
+    // La nota tal como quedó, o null si se eliminó
+    private Note note;
+
+    /**
+     * Crea el cambio de una nota creada o modificada.
+     * @param note La nota
+     * @return El cambio
+     */
+    public static NoteFeedEntry changed(Note note) {
+        return new NoteFeedEntry(note.getId(), note.getChangedAt(), note);
+    };
+
+    /**
+     * Crea el cambio de una nota eliminada.
+     * @param tombstone La marca de la eliminación
+     * @return El cambio
+     */
+    public static NoteFeedEntry deleted(NoteTombstone tombstone) {
+        return new NoteFeedEntry(tombstone.getId(), tombstone.getDeletedAt(), null);
+    };
+
+    /**
+     * Indica si el cambio es una eliminación.
+     * @return true si la nota se eliminó
+     */
+    public boolean isDeleted() {
+        return note == null;
+    };
+
+    /**
+     * Crea el cursor que apunta a este cambio, para pedir los siguientes.
+     * @return El cursor posicionado en este cambio
+     */
+    public NoteCursor toCursor() {
+        return new NoteCursor(changedAt, noteId);
+    };
+};
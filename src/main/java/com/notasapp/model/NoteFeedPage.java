@@ -0,0 +1,26 @@
+package com.notasapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+/**
+ * Página del registro de cambios de las notas de un usuario (ver
+ * NotesService#changesSince), del cambio más antiguo al más reciente.
+ */
+@Data
+@AllArgsConstructor
+public class NoteFeedPage {
+    // Cambios de esta página
+    private List<NoteFeedEntry> changes;
+
+    // Cursor desde el que pedir los cambios siguientes (el recibido si no hubo cambios)
+    private NoteCursor nextCursor;
+
+    // Si hay más cambios después de esta página
+    private boolean hasMore;
+
+    // Si el cursor es anterior al plazo de retención de las eliminaciones: algunas
+    // pueden haberse perdido y el cliente debe volver a cargar todas las notas
+    private boolean resyncRequired;
+};
@@ -0,0 +1,39 @@
+package com.notasapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+/**
+ * Página de resúmenes de notas obtenida con paginación por clave (keyset).
+ * Las notas se ordenan de la más reciente a la más antigua por fecha de
+ * actualización y, en caso de empate, por ID.
+ */
+@Data
+@AllArgsConstructor
+public class NotePage {
+    // Resúmenes de las notas de esta página
+    private List<NoteSummary> notes;
+
+    // Cursor para pedir la página anterior (más recientes), o null si es la primera
+    private NoteCursor previousCursor;
+
+    // Cursor para pedir la página siguiente (más antiguas), o null si es la última
+    private NoteCursor nextCursor;
+
+    /**
+     * Indica si existe una página anterior.
+     * @return true si hay notas más recientes que las de esta página
+     */
+    public boolean hasPrevious() {
+        return previousCursor != null;
+    };
+
+    /**
+     * Indica si existe una página siguiente.
+     * @return true si hay notas más antiguas que las de esta página
+     */
+    public boolean hasNext() {
+        return nextCursor != null;
+    };
+};
@@ -0,0 +1,22 @@
+package com.notasapp.model;
+
+import lombok.Data;
+
+/**
+ * Cuerpo de las peticiones de la API HTTP que crean o modifican una nota.
+ * Al modificar, los campos null se conservan y version es obligatoria.
+ */
+@Data
+public class NoteRequest {
+    // Título de la nota
+    private String title;
+
+    // Contenido de la nota
+    private String content;
+
+    // Estado de la nota; debe estar entre los estados del usuario
+    private String status;
+
+    // Versión de la nota leída por el cliente, para detectar ediciones concurrentes
+    private Long version;
+};
@@ -0,0 +1,29 @@
+package com.notasapp.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import java.util.Date;
+
+/**
+ * Resultado de una búsqueda de texto sobre las notas.
+ * Igual que NoteSummary, no incluye el contenido de la nota, pero añade
+ * la puntuación de relevancia calculada por el índice de texto.
+ */
+@Data
+public class NoteSearchHit {
+    // Identificador único de la nota
+    @Id
+    private String id;
+
+    // Título de la nota
+    private String title;
+
+    // Estado actual de la nota
+    private String status;
+
+    // Fecha y hora de la última actualización de la nota
+    private Date updatedAt;
+
+    // Relevancia de la nota para el texto buscado; mayor es más relevante
+    private Float score;
+};
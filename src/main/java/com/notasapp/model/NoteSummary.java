@@ -0,0 +1,41 @@
+package com.notasapp.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import java.util.Date;
+
+/**
+ * Proyección ligera de una nota para las pantallas de listado.
+ * Contiene solo los campos que se muestran en las listas, de modo que el
+ * contenido completo de la nota no se transfiere desde la base de datos
+ * hasta que se abre su detalle.
+ */
+@Data
+public class NoteSummary {
+    // Identificador único de la nota
+    @Id
+    private String id;
+
+    // Título de la nota
+    private String title;
+
+    // Estado actual de la nota
+    private String status;
+
+    // Fecha y hora de la última actualización de la nota
+    private Date updatedAt;
+
+    /**
+     * Crea el resumen de una nota completa.
+     * @param note La nota
+     * @return Su resumen
+     */
+    public static NoteSummary of(Note note) {
+        NoteSummary summary = new NoteSummary();
+        summary.setId(note.getId());
+        summary.setTitle(note.getTitle());
+        summary.setStatus(note.getStatus());
+        summary.setUpdatedAt(note.getUpdatedAt());
+        return summary;
+    };
+};
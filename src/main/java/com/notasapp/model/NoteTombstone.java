@@ -0,0 +1,31 @@
+package com.notasapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.util.Date;
+
+/**
+ * Marca de una nota eliminada, para que los clientes que se sincronizan con
+ * NotesService#changesSince sepan que deben quitarla.
+ * Se almacena en la colección "note_tombstones" de MongoDB con el mismo ID
+ * que tenía la nota, y se borra sola al pasar el plazo de retención
+ * (notas.tombstones.retention) gracias a un índice TTL sobre deletedAt.
+ */
+@Data
+@AllArgsConstructor
+@Document(collection = "note_tombstones")
+@CompoundIndex(name = "user_deleted_id", def = "{'userId': 1, 'deletedAt': 1, '_id': 1}")
+public class NoteTombstone {
+    // ID de la nota eliminada
+    @Id
+    private String id;
+
+    // ID del usuario propietario de la nota
+    private String userId;
+
+    // Fecha y hora de la eliminación
+    private Date deletedAt;
+};
@@ -0,0 +1,76 @@
+package com.notasapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Resultado de una actualización de nota con control de concurrencia optimista.
+ * Distingue una escritura aplicada de un conflicto de versión, de una nota
+ * inexistente y de un cambio rechazado por validación.
+ */
+@Data
+@AllArgsConstructor
+public class NoteUpdateResult {
+
+    /**
+     * Posibles desenlaces de una actualización.
+     */
+    public enum Outcome {
+        // La nota se actualizó
+        UPDATED,
+        // La nota cambió desde que se leyó; no se aplicó la escritura
+        CONFLICT,
+        // La nota no existe o pertenece a otro usuario
+        NOT_FOUND,
+        // El cambio no es válido (por ejemplo, un estado no disponible)
+        REJECTED
+    };
+
+    // Desenlace de la actualización
+    private Outcome outcome;
+
+    // Nota actualizada si UPDATED, versión actual almacenada si CONFLICT, null en otro caso
+    private Note note;
+
+    /**
+     * Crea el resultado de una actualización aplicada.
+     * @param note La nota ya actualizada
+     * @return El resultado UPDATED
+     */
+    public static NoteUpdateResult updated(Note note) {
+        return new NoteUpdateResult(Outcome.UPDATED, note);
+    };
+
+    /**
+     * Crea el resultado de un conflicto de versión.
+     * @param current La versión de la nota que hay ahora en la base de datos
+     * @return El resultado CONFLICT
+     */
+    public static NoteUpdateResult conflict(Note current) {
+        return new NoteUpdateResult(Outcome.CONFLICT, current);
+    };
+
+    /**
+     * Crea el resultado de una actualización sobre una nota que no existe.
+     * @return El resultado NOT_FOUND
+     */
+    public static NoteUpdateResult notFound() {
+        return new NoteUpdateResult(Outcome.NOT_FOUND, null);
+    };
+
+    /**
+     * Crea el resultado de un cambio rechazado por validación.
+     * @return El resultado REJECTED
+     */
+    public static NoteUpdateResult rejected() {
+        return new NoteUpdateResult(Outcome.REJECTED, null);
+    };
+
+    /**
+     * Indica si la actualización se aplicó.
+     * @return true si el desenlace es UPDATED
+     */
+    public boolean isUpdated() {
+        return outcome == Outcome.UPDATED;
+    };
+};
@@ -2,6 +2,7 @@ package com.notasapp.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.util.ArrayList;
 import java.util.List;
@@ -14,10 +15,14 @@ import java.util.List;
 @Data
 @Document(collection = "users")
 public class User {
+    // Estados con los que se crea cada usuario nuevo
+    public static final List<String> DEFAULT_STATUSES = List.of("Hecho", "No hecho", "En proceso", "En revisión");
+
     @Id
     private String id;
 
     // El nombre de usuario único para cada usuario
+    @Indexed(unique = true)
     private String username;
 
     // Lista de estados disponibles para las notas del usuario
@@ -29,12 +34,8 @@ public class User {
      */
     public User(String username) {
         this.username = username;
-        this.availableStatuses = new ArrayList<>();
         // Añadir estados predeterminados
-        this.availableStatuses.add("Hecho");
-        this.availableStatuses.add("No hecho");
-        this.availableStatuses.add("En proceso");
-        this.availableStatuses.add("En revisión");
+        this.availableStatuses = new ArrayList<>(DEFAULT_STATUSES);
     };
 
     /**
@@ -0,0 +1,136 @@
+package com.notasapp.repository;
+
+import com.notasapp.model.BulkBatchResult;
+import com.notasapp.model.Note;
+import com.notasapp.model.NoteChange;
+import com.notasapp.model.NoteCursor;
+import com.notasapp.model.NoteFeedEntry;
+import com.notasapp.model.NoteSearchHit;
+import com.notasapp.model.NoteSummary;
+import com.notasapp.model.NoteUpdateResult;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Almacenamiento de notas sobre MongoDB, mediante NoteRepository.
+ * Es el almacenamiento por defecto; se desactiva con el perfil "embedded".
+ */
+@Component
+@Timed("notas.store")
+@Profile("!embedded")
+public class MongoNoteStore implements NoteStore {
+
+    private final NoteRepository noteRepository;
+
+    /**
+     * Constructor que inyecta el repositorio de notas.
+     * @param noteRepository El repositorio de notas
+     */
+    public MongoNoteStore(NoteRepository noteRepository) {
+        this.noteRepository = noteRepository;
+    }
+
+    @Override
+    public Note insert(Note note) {
+        note.setChangedAt(new Date());
+        return noteRepository.save(note);
+    }
+
+    @Override
+    public Optional<Note> findByIdAndUserId(String id, String userId) {
+        return noteRepository.findByIdAndUserId(id, userId);
+    }
+
+    @Override
+    public List<Note> findByUser(String userId, String status) {
+        return status == null
+                ? noteRepository.findByUserId(userId)
+                : noteRepository.findByUserIdAndStatus(userId, status);
+    }
+
+    @Override
+    public List<NoteSummary> findSummaries(String userId, String status) {
+        return status == null
+                ? noteRepository.findSummariesByUserId(userId)
+                : noteRepository.findSummariesByUserIdAndStatus(userId, status);
+    }
+
+    @Override
+    public List<NoteFeedEntry> findChangesSince(String userId, NoteCursor cursor, int limit) {
+        return noteRepository.findChangesSince(userId, cursor, limit);
+    }
+
+    @Override
+    public List<NoteSummary> findSummarySlice(String userId, String status, NoteCursor cursor, boolean forward, int limit) {
+        return noteRepository.findSummarySlice(userId, status, cursor, forward, limit);
+    }
+
+    @Override
+    public long count(String userId, String status) {
+        return status == null
+                ? noteRepository.countByUserId(userId)
+                : noteRepository.countByUserIdAndStatus(userId, status);
+    }
+
+    @Override
+    public NoteUpdateResult updateStatus(String noteId, String userId, Long expectedVersion, String status, Date updatedAt) {
+        return noteRepository.updateStatus(noteId, userId, expectedVersion, status, updatedAt);
+    }
+
+    @Override
+    public NoteUpdateResult updateFields(String noteId, String userId, Long expectedVersion, String title, String content,
+                                           String status, Date updatedAt) {
+        return noteRepository.updateFields(noteId, userId, expectedVersion, title, content, status, updatedAt);
+    }
+
+    @Override
+    public List<String> applyChanges(List<NoteChange> changes) {
+        return noteRepository.applyChanges(changes);
+    }
+
+    @Override
+    public boolean delete(String id, String userId) {
+        return noteRepository.deleteWithTombstone(id, userId, new Date());
+    }
+
+    @Override
+    public long deleteByTitle(String userId, String title, boolean prefix) {
+        return noteRepository.deleteByTitle(userId, title, prefix);
+    }
+
+    @Override
+    public BulkBatchResult insertBatch(int batch, List<Note> notes, boolean ordered) {
+        return noteRepository.insertBatch(batch, notes, ordered);
+    }
+
+    @Override
+    public List<String> findIds(String userId, String status, int limit) {
+        return noteRepository.findIds(userId, status, limit);
+    }
+
+    @Override
+    public BulkBatchResult updateStatusBatch(int batch, String userId, List<String> ids, String fromStatus,
+                                             String newStatus, Date updatedAt, boolean ordered) {
+        return noteRepository.updateStatusBatch(batch, userId, ids, fromStatus, newStatus, updatedAt, ordered);
+    }
+
+    @Override
+    public BulkBatchResult deleteBatch(int batch, String userId, List<String> ids, boolean ordered) {
+        return noteRepository.deleteBatch(batch, userId, ids, ordered);
+    }
+
+    @Override
+    public Stream<Note> streamByUser(String userId) {
+        return noteRepository.streamByUserId(userId);
+    }
+
+    @Override
+    public List<NoteSearchHit> search(String userId, String text, int page, int size) {
+        return noteRepository.search(userId, text, page, size);
+    }
+};
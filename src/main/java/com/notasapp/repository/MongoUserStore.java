@@ -0,0 +1,41 @@
+package com.notasapp.repository;
+
+import com.notasapp.model.User;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Almacenamiento de usuarios sobre MongoDB, mediante UserRepository.
+ * Es el almacenamiento por defecto; se desactiva con el perfil "embedded".
+ */
+@Component
+@Timed("notas.store")
+@Profile("!embedded")
+public class MongoUserStore implements UserStore {
+
+    private final UserRepository userRepository;
+
+    /**
+     * Constructor que inyecta el repositorio de usuarios.
+     * @param userRepository El repositorio de usuarios
+     */
+    public MongoUserStore(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public User upsertByUsername(String username) {
+        return userRepository.upsertByUsername(username);
+    }
+
+    @Override
+    public User addStatus(String username, String status) {
+        return userRepository.addStatus(username, status);
+    }
+
+    @Override
+    public User removeStatus(String username, String status) {
+        return userRepository.removeStatus(username, status);
+    }
+};
@@ -1,14 +1,19 @@
 package com.notasapp.repository;
 
 import com.notasapp.model.Note;
+import com.notasapp.model.NoteSummary;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio que maneja las operaciones de persistencia para las notas.
- * Extiende MongoRepository para heredar operaciones CRUD básicas.
+ * Extiende MongoRepository para heredar operaciones CRUD básicas y
+ * NoteRepositoryCustom para las consultas paginadas por clave.
  */
-public interface NoteRepository extends MongoRepository<Note, String> {
+public interface NoteRepository extends MongoRepository<Note, String>, NoteRepositoryCustom {
 
     /**
      * Busca todas las notas que pertenecen a un usuario específico.
@@ -24,4 +29,53 @@ public interface NoteRepository extends MongoRepository<Note, String> {
      * @return Lista de notas filtradas por usuario y estado
      */
     List<Note> findByUserIdAndStatus(String userId, String status);
-};
\ No newline at end of file
+
+    /**
+     * Busca los resúmenes de todas las notas de un usuario.
+     * Solo se leen los campos de NoteSummary; el contenido no se transfiere.
+     * @param userId El ID del usuario
+     * @return Lista de resúmenes de las notas del usuario
+     */
+    List<NoteSummary> findSummariesByUserId(String userId);
+
+    /**
+     * Busca los resúmenes de las notas de un usuario con un estado específico.
+     * @param userId El ID del usuario
+     * @param status El estado de las notas a buscar
+     * @return Lista de resúmenes filtrados por usuario y estado
+     */
+    List<NoteSummary> findSummariesByUserIdAndStatus(String userId, String status);
+
+    /**
+     * Busca una nota completa por su ID, solo si pertenece al usuario indicado.
+     * @param id El ID de la nota
+     * @param userId El ID del usuario propietario
+     * @return La nota, o vacío si no existe o pertenece a otro usuario
+     */
+    Optional<Note> findByIdAndUserId(String id, String userId);
+
+    /**
+     * Cuenta todas las notas de un usuario.
+     * @param userId El ID del usuario
+     * @return Número de notas del usuario
+     */
+    long countByUserId(String userId);
+
+    /**
+     * Cuenta las notas de un usuario que tienen un estado específico.
+     * @param userId El ID del usuario
+     * @param status El estado a contar
+     * @return Número de notas del usuario con ese estado
+     */
+    long countByUserIdAndStatus(String userId, String status);
+
+    /**
+     * Recorre todas las notas de un usuario con un cursor del servidor.
+     * Las notas se leen por lotes a medida que se consume el stream, sin
+     * cargarlas todas en memoria. El stream debe cerrarse tras usarlo.
+     * @param userId El ID del usuario
+     * @return Stream de las notas del usuario
+     */
+    @Meta(cursorBatchSize = 500)
+    Stream<Note> streamByUserId(String userId);
+};
@@ -0,0 +1,173 @@
+package com.notasapp.repository;
+
+import com.notasapp.model.BulkBatchResult;
+import com.notasapp.model.Note;
+import com.notasapp.model.NoteChange;
+import com.notasapp.model.NoteCursor;
+import com.notasapp.model.NoteFeedEntry;
+import com.notasapp.model.NoteSearchHit;
+import com.notasapp.model.NoteSummary;
+import com.notasapp.model.NoteUpdateResult;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Operaciones de notas que no se pueden expresar como consultas derivadas
+ * y se implementan directamente sobre MongoTemplate en NoteRepositoryImpl.
+ */
+public interface NoteRepositoryCustom {
+
+    /**
+     * Obtiene un tramo de resúmenes de notas ordenado por (updatedAt, _id) descendente,
+     * empezando justo después (o justo antes) de un cursor.
+     * @param userId El ID del usuario
+     * @param status El estado por el que filtrar, o null para todas las notas
+     * @param cursor La posición de partida, o null para empezar por la nota más reciente
+     * @param forward true para avanzar hacia notas más antiguas, false para retroceder
+     *                hacia notas más recientes
+     * @param limit Número máximo de resúmenes a devolver
+     * @return Los resúmenes en orden descendente de actualización
+     */
+    List<NoteSummary> findSummarySlice(String userId, String status, NoteCursor cursor, boolean forward, int limit);
+
+    /**
+     * Cambia el estado de una nota en una sola operación condicional en el servidor,
+     * que solo se aplica si la nota pertenece al usuario indicado y sigue en la
+     * versión esperada. La versión se incrementa al escribir.
+     * @param noteId El ID de la nota
+     * @param userId El ID del usuario propietario
+     * @param expectedVersion La versión leída por el cliente (null para notas sin versión)
+     * @param status El nuevo estado
+     * @param updatedAt La nueva fecha de actualización
+     * @return UPDATED con la nota actualizada, CONFLICT con la nota actual o NOT_FOUND
+     */
+    NoteUpdateResult updateStatus(String noteId, String userId, Long expectedVersion, String status, Date updatedAt);
+
+    /**
+     * Actualiza el título, el contenido y/o el estado de una nota en una sola
+     * operación condicional en el servidor, con la misma comprobación de versión
+     * que updateStatus. Solo se modifican los campos no nulos.
+     * @param noteId El ID de la nota
+     * @param userId El ID del usuario propietario
+     * @param expectedVersion La versión leída por el cliente (null para notas sin versión)
+     * @param title El nuevo título, o null para conservarlo
+     * @param content El nuevo contenido, o null para conservarlo
+     * @param status El nuevo estado, o null para conservarlo
+     * @param updatedAt La nueva fecha de actualización
+     * @return UPDATED con la nota actualizada, CONFLICT con la nota actual o NOT_FOUND
+     */
+    NoteUpdateResult updateFields(String noteId, String userId, Long expectedVersion, String title, String content,
+                                    String status, Date updatedAt);
+
+    /**
+     * Aplica un lote de cambios combinados con una sola escritura masiva no
+     * ordenada: una actualización condicional sobre {_id, userId, version} por nota.
+     * @param changes Los cambios, como mucho uno por nota
+     * @return Los IDs de las notas cuyo cambio no se aplicó
+     */
+    List<String> applyChanges(List<NoteChange> changes);
+
+    /**
+     * Obtiene los cambios de las notas de un usuario posteriores a un cursor,
+     * en orden ascendente de (fecha, _id): las notas con changedAt posterior,
+     * por el índice (userId, changedAt, _id), y las marcas de eliminación con
+     * deletedAt posterior, por el índice (userId, deletedAt, _id). Las marcas
+     * se escriben antes de eliminar las notas; si la nota de una marca aún
+     * existe, el cambio lleva la nota viva.
+     * @param userId El ID del usuario
+     * @param cursor La posición del último cambio recibido, o null para empezar por el más antiguo
+     * @param limit Número máximo de cambios
+     * @return Los cambios en orden ascendente
+     */
+    List<NoteFeedEntry> findChangesSince(String userId, NoteCursor cursor, int limit);
+
+    /**
+     * Guarda las marcas de eliminación de varias notas de un usuario. Cada
+     * marca usa el ID de su nota, por lo que repetir una eliminación solo
+     * actualiza su fecha.
+     * @param userId El ID del usuario propietario
+     * @param ids Los IDs de las notas eliminadas
+     * @param deletedAt La fecha de la eliminación
+     */
+    void recordTombstones(String userId, List<String> ids, Date deletedAt);
+
+    /**
+     * Elimina una nota si pertenece al usuario, dejando antes su marca de
+     * eliminación. En el caso habitual son dos operaciones: la marca se crea
+     * con un upsert sobre {_id, userId} y la nota se elimina con un borrado
+     * condicional sobre los mismos campos. Si la nota no existía o no era del
+     * usuario, se quita la marca que se acababa de crear.
+     * @param id El ID de la nota
+     * @param userId El ID del usuario propietario
+     * @param deletedAt La fecha de la eliminación
+     * @return true si se eliminó
+     */
+    boolean deleteWithTombstone(String id, String userId, Date deletedAt);
+
+    /**
+     * Elimina las notas de un usuario cuyo título coincide, usando el índice
+     * (userId, title) y leyendo solo sus IDs para dejar sus marcas de eliminación.
+     * @param userId El ID del usuario propietario
+     * @param title El título exacto, o el prefijo del título si prefix es true
+     * @param prefix true para eliminar las notas cuyo título empieza por el texto dado
+     * @return Número de notas eliminadas
+     */
+    long deleteByTitle(String userId, String title, boolean prefix);
+
+    /**
+     * Inserta un lote de notas con una única escritura masiva.
+     * @param batch El número de lote, para el informe
+     * @param notes Las notas a insertar
+     * @param ordered true para detener el lote en el primer error
+     * @return El resultado del lote
+     */
+    BulkBatchResult insertBatch(int batch, List<Note> notes, boolean ordered);
+
+    /**
+     * Obtiene los IDs de hasta limit notas de un usuario que cumplen el filtro,
+     * sin transferir ningún otro campo.
+     * @param userId El ID del usuario
+     * @param status El estado por el que filtrar, o null para todas las notas
+     * @param limit Número máximo de IDs
+     * @return Los IDs de las notas
+     */
+    List<String> findIds(String userId, String status, int limit);
+
+    /**
+     * Cambia el estado de un lote de notas con una única escritura masiva.
+     * Se vuelve a comprobar el estado de origen para no pisar notas que
+     * cambiaron después de leer sus IDs, y se incrementa su versión.
+     * @param batch El número de lote, para el informe
+     * @param userId El ID del usuario propietario
+     * @param ids Los IDs de las notas del lote
+     * @param fromStatus El estado actual que deben tener las notas
+     * @param newStatus El nuevo estado
+     * @param updatedAt La nueva fecha de actualización
+     * @param ordered true para detener el lote en el primer error
+     * @return El resultado del lote
+     */
+    BulkBatchResult updateStatusBatch(int batch, String userId, List<String> ids, String fromStatus,
+                                      String newStatus, Date updatedAt, boolean ordered);
+
+    /**
+     * Deja las marcas de eliminación de un lote de notas y después las elimina
+     * con una única escritura masiva.
+     * @param batch El número de lote, para el informe
+     * @param userId El ID del usuario propietario
+     * @param ids Los IDs de las notas del lote
+     * @param ordered true para detener el lote en el primer error
+     * @return El resultado del lote
+     */
+    BulkBatchResult deleteBatch(int batch, String userId, List<String> ids, boolean ordered);
+
+    /**
+     * Busca texto en el título y el contenido de las notas de un usuario
+     * usando el índice de texto, con los resultados ordenados por relevancia.
+     * @param userId El ID del usuario
+     * @param text Las palabras a buscar
+     * @param page El número de página, empezando en 0
+     * @param size Número de resultados por página
+     * @return Los resultados de la página, del más al menos relevante
+     */
+    List<NoteSearchHit> search(String userId, String text, int page, int size);
+};
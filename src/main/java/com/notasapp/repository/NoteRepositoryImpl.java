@@ -0,0 +1,466 @@
+package com.notasapp.repository;
+
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadPreference;
+import com.mongodb.bulk.BulkWriteResult;
+import com.notasapp.config.MongoClientProperties;
+import com.notasapp.config.NoteContentConverter;
+import com.notasapp.model.BulkBatchResult;
+import com.notasapp.model.Note;
+import com.notasapp.model.NoteChange;
+import com.notasapp.model.NoteCursor;
+import com.notasapp.model.NoteFeedEntry;
+import com.notasapp.model.NoteSearchHit;
+import com.notasapp.model.NoteSummary;
+import com.notasapp.model.NoteTombstone;
+import com.notasapp.model.NoteUpdateResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementación de las operaciones personalizadas del repositorio de notas.
+ * Spring Data la combina con NoteRepository por convención de nombre.
+ */
+class NoteRepositoryImpl implements NoteRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    // Decide qué contenidos se guardan comprimidos y con qué palabras se buscan
+    private final NoteContentConverter contentConverter;
+
+    // Preferencia y nivel de lectura de los listados y búsquedas (null = los del cliente)
+    private final ReadPreference listReadPreference;
+    private final ReadConcern listReadConcern;
+
+    /**
+     * Constructor que inyecta la plantilla de MongoDB.
+     * @param mongoTemplate La plantilla usada para las consultas
+     * @param properties La configuración del cliente, de la que se toman los ajustes de los listados
+     * @param contentConverter El conversor del contenido de las notas
+     */
+    NoteRepositoryImpl(MongoTemplate mongoTemplate, MongoClientProperties properties,
+                       NoteContentConverter contentConverter) {
+        this.mongoTemplate = mongoTemplate;
+        this.contentConverter = contentConverter;
+        this.listReadPreference = properties.getListReads().toReadPreference();
+        this.listReadConcern = properties.getListReads().toReadConcern();
+    }
+
+    @Override
+    public List<NoteSummary> findSummarySlice(String userId, String status, NoteCursor cursor, boolean forward, int limit) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (status != null) {
+            criteria = criteria.and("status").is(status);
+        }
+        if (cursor != null) {
+            criteria = criteria.orOperator(afterCursor(cursor, forward));
+        }
+
+        // Hacia atrás se recorre en orden ascendente y luego se invierte el resultado
+        Sort.Direction direction = forward ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Query query = new Query(criteria)
+                .with(Sort.by(direction, "updatedAt", "id"))
+                .limit(limit);
+        query.fields().include("title", "status", "updatedAt");
+        forListing(query);
+
+        List<NoteSummary> summaries = mongoTemplate.find(query, NoteSummary.class, mongoTemplate.getCollectionName(Note.class));
+        if (!forward) {
+            Collections.reverse(summaries);
+        }
+        return summaries;
+    }
+
+    @Override
+    public NoteUpdateResult updateStatus(String noteId, String userId, Long expectedVersion, String status, Date updatedAt) {
+        Update update = new Update().set("status", status);
+        return updateVersioned(noteId, userId, expectedVersion, update, updatedAt);
+    }
+
+    @Override
+    public NoteUpdateResult updateFields(String noteId, String userId, Long expectedVersion, String title, String content,
+                                           String status, Date updatedAt) {
+        Update update = new Update();
+        if (title != null) {
+            update.set("title", title);
+        }
+        if (content != null) {
+            setContent(update, content);
+        }
+        if (status != null) {
+            update.set("status", status);
+        }
+        return updateVersioned(noteId, userId, expectedVersion, update, updatedAt);
+    }
+
+    @Override
+    public List<NoteSearchHit> search(String userId, String text, int page, int size) {
+        // La igualdad sobre userId es obligatoria: es el prefijo del índice de texto
+        Query query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(text))
+                .sortByScore()
+                .addCriteria(Criteria.where("userId").is(userId))
+                .skip((long) page * size)
+                .limit(size);
+        query.fields().include("title", "status", "updatedAt");
+        forListing(query);
+
+        return mongoTemplate.find(query, NoteSearchHit.class, mongoTemplate.getCollectionName(Note.class));
+    }
+
+    @Override
+    public List<String> applyChanges(List<NoteChange> changes) {
+        Date flushedAt = new Date();
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Note.class);
+        for (NoteChange change : changes) {
+            Query query = ownedBy(change.getNoteId(), change.getUserId())
+                    .addCriteria(Criteria.where("version").is(change.getExpectedVersion()));
+            // changedAt es el momento del vaciado, aunque la edición tenga un updatedAt anterior
+            Update update = new Update().set("updatedAt", change.getUpdatedAt()).set("changedAt", flushedAt)
+                    .inc("version", change.getEdits());
+            if (change.getTitle() != null) {
+                update.set("title", change.getTitle());
+            }
+            if (change.getContent() != null) {
+                setContent(update, change.getContent());
+            }
+            if (change.getStatus() != null) {
+                update.set("status", change.getStatus());
+            }
+            operations.updateOne(query, update);
+        }
+
+        BulkWriteResult result;
+        try {
+            result = operations.execute();
+        } catch (BulkOperationException e) {
+            result = e.getResult();
+        }
+        if (result.getModifiedCount() == changes.size()) {
+            return List.of();
+        }
+
+        // El resultado masivo solo da totales: se comprueba qué notas no llegaron a la versión esperada
+        Map<String, Long> versions = new HashMap<>();
+        Query query = Query.query(Criteria.where("id").in(changes.stream().map(NoteChange::getNoteId).toList()));
+        query.fields().include("version");
+        mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Note.class))
+                .forEach(document -> versions.put(document.get("_id").toString(), document.get("version", Number.class).longValue()));
+
+        return changes.stream()
+                .filter(change -> !Long.valueOf(change.getResultingVersion()).equals(versions.get(change.getNoteId())))
+                .map(NoteChange::getNoteId)
+                .toList();
+    }
+
+    @Override
+    public List<NoteFeedEntry> findChangesSince(String userId, NoteCursor cursor, int limit) {
+        List<NoteFeedEntry> changes = new ArrayList<>();
+        mongoTemplate.find(changesQuery(userId, "changedAt", cursor, limit), Note.class)
+                .forEach(note -> changes.add(NoteFeedEntry.changed(note)));
+        mongoTemplate.find(changesQuery(userId, "deletedAt", cursor, limit), NoteTombstone.class)
+                .forEach(tombstone -> changes.add(NoteFeedEntry.deleted(tombstone)));
+
+        // Cada consulta trae hasta limit cambios; al mezclarlas se quedan los limit más antiguos
+        changes.sort(NoteFeedEntry.CHANGE_ORDER);
+        List<NoteFeedEntry> oldest = changes.size() > limit ? new ArrayList<>(changes.subList(0, limit)) : changes;
+        return withLiveNotes(userId, oldest);
+    }
+
+    /**
+     * Sustituye las marcas de eliminación cuya nota aún existe por la nota tal
+     * como está. La marca se escribe antes de eliminar la nota, así que existe
+     * mientras la eliminación está en curso y también si falló después de
+     * escribirla; en ambos casos el cliente no debe quitar la nota. El cambio
+     * conserva su posición, de modo que los cursores no se alteran.
+     * @param userId El ID del usuario
+     * @param changes Los cambios en orden ascendente
+     * @return Los mismos cambios, con las notas vivas en lugar de sus marcas
+     */
+    private List<NoteFeedEntry> withLiveNotes(String userId, List<NoteFeedEntry> changes) {
+        List<String> deletedIds = changes.stream().filter(NoteFeedEntry::isDeleted).map(NoteFeedEntry::getNoteId).toList();
+        if (deletedIds.isEmpty()) {
+            return changes;
+        }
+        Map<String, Note> live = new HashMap<>();
+        mongoTemplate.find(Query.query(Criteria.where("id").in(deletedIds).and("userId").is(userId)), Note.class)
+                .forEach(note -> live.put(note.getId(), note));
+        if (live.isEmpty()) {
+            return changes;
+        }
+        return changes.stream()
+                .map(change -> change.isDeleted() && live.containsKey(change.getNoteId())
+                        ? new NoteFeedEntry(change.getNoteId(), change.getChangedAt(), live.get(change.getNoteId()))
+                        : change)
+                .toList();
+    }
+
+    @Override
+    public void recordTombstones(String userId, List<String> ids, Date deletedAt) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NoteTombstone.class);
+        for (String id : ids) {
+            operations.upsert(Query.query(Criteria.where("id").is(id)),
+                    new Update().set("userId", userId).set("deletedAt", deletedAt));
+        }
+        operations.execute();
+    }
+
+    @Override
+    public boolean deleteWithTombstone(String id, String userId, Date deletedAt) {
+        Query owned = ownedBy(id, userId);
+        UpdateResult marked;
+        try {
+            marked = mongoTemplate.upsert(owned, new Update().set("deletedAt", deletedAt), NoteTombstone.class);
+        } catch (DuplicateKeyException e) {
+            // Hay una marca con ese ID de otro usuario: la nota no es de este usuario, o la
+            // marca quedó de un intento ajeno interrumpido y se sustituye
+            if (!mongoTemplate.exists(owned, Note.class)) {
+                return false;
+            }
+            recordTombstones(userId, List.of(id), deletedAt);
+            return mongoTemplate.remove(owned, Note.class).getDeletedCount() > 0;
+        }
+
+        boolean deleted = mongoTemplate.remove(owned, Note.class).getDeletedCount() > 0;
+        if (!deleted && marked.getUpsertedId() != null) {
+            // La nota no existía o no era del usuario: se quita la marca recién creada
+            mongoTemplate.remove(owned, NoteTombstone.class);
+        }
+        return deleted;
+    }
+
+    @Override
+    public long deleteByTitle(String userId, String title, boolean prefix) {
+        Criteria titleCriteria = prefix
+                ? Criteria.where("title").regex("^" + escapeRegex(title))
+                : Criteria.where("title").is(title);
+        Query query = Query.query(Criteria.where("userId").is(userId)).addCriteria(titleCriteria);
+        query.fields().include("id");
+        List<String> ids = mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Note.class)).stream()
+                .map(document -> document.get("_id").toString())
+                .toList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        // Las marcas van primero: si la eliminación falla, el registro de cambios sirve la nota viva
+        recordTombstones(userId, ids, new Date());
+        return mongoTemplate.remove(Query.query(Criteria.where("id").in(ids).and("userId").is(userId)), Note.class)
+                .getDeletedCount();
+    }
+
+    @Override
+    public BulkBatchResult insertBatch(int batch, List<Note> notes, boolean ordered) {
+        // Las notas importadas conservan su updatedAt, pero su cambio es de ahora
+        Date insertedAt = new Date();
+        notes.forEach(note -> note.setChangedAt(insertedAt));
+        BulkOperations operations = mongoTemplate.bulkOps(bulkMode(ordered), Note.class).insert(notes);
+        try {
+            BulkWriteResult result = operations.execute();
+            return new BulkBatchResult(batch, result.getInsertedCount(), 0, 0, 0, 0, 0, 0);
+        } catch (BulkOperationException e) {
+            // En modo ordenado el servidor no intenta las notas posteriores al primer error
+            int inserted = e.getResult().getInsertedCount();
+            int failed = e.getErrors().size();
+            return new BulkBatchResult(batch, inserted, 0, 0, 0, 0, failed, notes.size() - inserted - failed);
+        }
+    }
+
+    @Override
+    public List<String> findIds(String userId, String status, int limit) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (status != null) {
+            criteria = criteria.and("status").is(status);
+        }
+        Query query = new Query(criteria).limit(limit);
+        query.fields().include("id");
+
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Note.class)).stream()
+                .map(document -> document.get("_id").toString())
+                .toList();
+    }
+
+    @Override
+    public BulkBatchResult updateStatusBatch(int batch, String userId, List<String> ids, String fromStatus,
+                                             String newStatus, Date updatedAt, boolean ordered) {
+        Query query = Query.query(Criteria.where("id").in(ids).and("userId").is(userId).and("status").is(fromStatus));
+        Update update = new Update().set("status", newStatus).set("updatedAt", updatedAt).set("changedAt", new Date())
+                .inc("version", 1);
+        BulkOperations operations = mongoTemplate.bulkOps(bulkMode(ordered), Note.class).updateMulti(query, update);
+        try {
+            BulkWriteResult result = operations.execute();
+            return new BulkBatchResult(batch, 0, result.getMatchedCount(), result.getModifiedCount(), 0, 0, 0, 0);
+        } catch (BulkOperationException e) {
+            return new BulkBatchResult(batch, 0, e.getResult().getMatchedCount(), e.getResult().getModifiedCount(),
+                    0, 0, e.getErrors().size(), 0);
+        }
+    }
+
+    @Override
+    public BulkBatchResult deleteBatch(int batch, String userId, List<String> ids, boolean ordered) {
+        // Los IDs son de notas del usuario (findIds); las marcas de las que no se eliminen
+        // quedan ocultas tras la nota viva en el registro de cambios
+        recordTombstones(userId, ids, new Date());
+
+        Query query = Query.query(Criteria.where("id").in(ids).and("userId").is(userId));
+        BulkOperations operations = mongoTemplate.bulkOps(bulkMode(ordered), Note.class).remove(query);
+        try {
+            BulkWriteResult written = operations.execute();
+            return new BulkBatchResult(batch, 0, 0, 0, written.getDeletedCount(), 0, 0, 0);
+        } catch (BulkOperationException e) {
+            return new BulkBatchResult(batch, 0, 0, 0, e.getResult().getDeletedCount(), 0, e.getErrors().size(), 0);
+        }
+    }
+
+    /**
+     * Construye la consulta de los cambios posteriores a un cursor sobre una
+     * fecha, en orden ascendente de (fecha, _id).
+     * @param userId El ID del usuario
+     * @param dateField El campo de la fecha del cambio (changedAt o deletedAt)
+     * @param cursor La posición del último cambio recibido, o null
+     * @param limit Número máximo de documentos
+     * @return La consulta
+     */
+    private static Query changesQuery(String userId, String dateField, NoteCursor cursor, int limit) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (cursor != null) {
+            criteria = criteria.orOperator(
+                    Criteria.where(dateField).gt(cursor.getUpdatedAt()),
+                    Criteria.where(dateField).is(cursor.getUpdatedAt()).and("id").gt(cursor.getId()));
+        }
+        return new Query(criteria).with(Sort.by(Sort.Direction.ASC, dateField, "id")).limit(limit);
+    }
+
+    /**
+     * Traduce la opción de orden al modo de escritura masiva de MongoDB.
+     * @param ordered true para escrituras ordenadas
+     * @return El modo ORDERED o UNORDERED
+     */
+    private static BulkOperations.BulkMode bulkMode(boolean ordered) {
+        return ordered ? BulkOperations.BulkMode.ORDERED : BulkOperations.BulkMode.UNORDERED;
+    }
+
+    /**
+     * Escapa los metacaracteres de una expresión regular para que el texto se
+     * busque literalmente. Se escapa carácter a carácter (en lugar de usar \Q...\E)
+     * para que MongoDB reconozca la expresión anclada como un prefijo y acote el
+     * recorrido del índice.
+     * @param text El texto literal
+     * @return El texto con los metacaracteres escapados
+     */
+    private static String escapeRegex(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            if ("\\.^$|?*+()[]{}".indexOf(c) >= 0) {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Aplica una actualización condicionada a la versión esperada e incrementa la versión.
+     * Sin contención basta una única operación; solo cuando no coincide ningún
+     * documento se lee la nota para distinguir un conflicto de una nota inexistente.
+     * @param noteId El ID de la nota
+     * @param userId El ID del usuario propietario
+     * @param expectedVersion La versión leída por el cliente
+     * @param update Los campos a modificar
+     * @param updatedAt La nueva fecha de actualización
+     * @return El resultado de la actualización
+     */
+    private NoteUpdateResult updateVersioned(String noteId, String userId, Long expectedVersion, Update update, Date updatedAt) {
+        Query query = ownedBy(noteId, userId).addCriteria(Criteria.where("version").is(expectedVersion));
+        update.set("updatedAt", updatedAt).set("changedAt", new Date()).inc("version", 1);
+
+        Note updated = mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Note.class);
+        if (updated != null) {
+            return NoteUpdateResult.updated(updated);
+        }
+
+        Note current = mongoTemplate.findOne(ownedBy(noteId, userId), Note.class);
+        return current == null ? NoteUpdateResult.notFound() : NoteUpdateResult.conflict(current);
+    }
+
+    /**
+     * Añade a una actualización el nuevo contenido y, si se guardará
+     * comprimido, sus palabras para el índice de texto; si no, quita las
+     * palabras que hubiera de un contenido anterior.
+     * @param update La actualización
+     * @param content El nuevo contenido
+     */
+    private void setContent(Update update, String content) {
+        update.set("content", content);
+        String terms = contentConverter.searchTerms(content);
+        if (terms != null) {
+            update.set(NoteContentConverter.SEARCH_TERMS_FIELD, terms);
+        } else {
+            update.unset(NoteContentConverter.SEARCH_TERMS_FIELD);
+        }
+    }
+
+    /**
+     * Aplica a una consulta de listado la preferencia y el nivel de lectura
+     * configurados para los listados (notas.mongo.list-reads.*). Las lecturas
+     * previas a una edición no pasan por aquí: deben ver la última versión.
+     * @param query La consulta
+     */
+    private void forListing(Query query) {
+        if (listReadPreference != null) {
+            query.withReadPreference(listReadPreference);
+        }
+        if (listReadConcern != null) {
+            query.withReadConcern(listReadConcern);
+        }
+    }
+
+    /**
+     * Construye la consulta que selecciona una nota solo si pertenece al usuario.
+     * @param noteId El ID de la nota
+     * @param userId El ID del usuario propietario
+     * @return La consulta sobre {_id, userId}
+     */
+    private Query ownedBy(String noteId, String userId) {
+        return Query.query(Criteria.where("id").is(noteId).and("userId").is(userId));
+    }
+
+    /**
+     * Construye las condiciones que seleccionan las notas situadas después del cursor
+     * en el sentido de recorrido indicado.
+     * @param cursor La posición de partida
+     * @param forward true para notas más antiguas, false para más recientes
+     * @return Las dos ramas del $or: fecha estrictamente posterior/anterior, o misma fecha y ID mayor/menor
+     */
+    private Criteria[] afterCursor(NoteCursor cursor, boolean forward) {
+        if (forward) {
+            return new Criteria[] {
+                    Criteria.where("updatedAt").lt(cursor.getUpdatedAt()),
+                    Criteria.where("updatedAt").is(cursor.getUpdatedAt()).and("id").lt(cursor.getId())
+            };
+        }
+        return new Criteria[] {
+                Criteria.where("updatedAt").gt(cursor.getUpdatedAt()),
+                Criteria.where("updatedAt").is(cursor.getUpdatedAt()).and("id").gt(cursor.getId())
+        };
+    }
+};
@@ -0,0 +1,204 @@
+package com.notasapp.repository;
+
+import com.notasapp.model.BulkBatchResult;
+import com.notasapp.model.Note;
+import com.notasapp.model.NoteChange;
+import com.notasapp.model.NoteCursor;
+import com.notasapp.model.NoteFeedEntry;
+import com.notasapp.model.NoteSearchHit;
+import com.notasapp.model.NoteSummary;
+import com.notasapp.model.NoteUpdateResult;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Almacenamiento de notas independiente del motor de persistencia.
+ * Los servicios trabajan solo contra esta interfaz; la implementación se
+ * elige por perfil: MongoNoteStore sobre MongoDB (por defecto) o
+ * EmbeddedNoteStore sobre ficheros locales (perfil "embedded").
+ *
+ * En todas las operaciones, un estado null significa "cualquier estado".
+ * Cada escritura de una nota pone su changedAt al momento de la escritura,
+ * sea cual sea su updatedAt, y el registro de cambios se ordena por él.
+ */
+public interface NoteStore {
+
+    /**
+     * Guarda una nota nueva, asignándole ID y versión inicial.
+     * @param note La nota a guardar
+     * @return La nota guardada
+     */
+    Note insert(Note note);
+
+    /**
+     * Busca una nota completa por su ID, solo si pertenece al usuario.
+     * @param id El ID de la nota
+     * @param userId El ID del usuario propietario
+     * @return La nota, o vacío si no existe o pertenece a otro usuario
+     */
+    Optional<Note> findByIdAndUserId(String id, String userId);
+
+    /**
+     * Busca las notas completas de un usuario.
+     * @param userId El ID del usuario
+     * @param status El estado por el que filtrar, o null
+     * @return Lista de notas del usuario
+     */
+    List<Note> findByUser(String userId, String status);
+
+    /**
+     * Busca los resúmenes de las notas de un usuario, sin su contenido.
+     * @param userId El ID del usuario
+     * @param status El estado por el que filtrar, o null
+     * @return Lista de resúmenes
+     */
+    List<NoteSummary> findSummaries(String userId, String status);
+
+    /**
+     * Obtiene un tramo de resúmenes ordenado por (updatedAt, id) descendente
+     * a partir de un cursor. Ver NoteRepositoryCustom#findSummarySlice.
+     * @param userId El ID del usuario
+     * @param status El estado por el que filtrar, o null
+     * @param cursor La posición de partida, o null para empezar por la más reciente
+     * @param forward true hacia notas más antiguas, false hacia más recientes
+     * @param limit Número máximo de resúmenes
+     * @return Los resúmenes en orden descendente de actualización
+     */
+    List<NoteSummary> findSummarySlice(String userId, String status, NoteCursor cursor, boolean forward, int limit);
+
+    /**
+     * Cuenta las notas de un usuario.
+     * @param userId El ID del usuario
+     * @param status El estado por el que filtrar, o null
+     * @return Número de notas
+     */
+    long count(String userId, String status);
+
+    /**
+     * Cambia el estado de una nota si pertenece al usuario y sigue en la versión esperada.
+     * @param noteId El ID de la nota
+     * @param userId El ID del usuario propietario
+     * @param expectedVersion La versión leída por el cliente
+     * @param status El nuevo estado
+     * @param updatedAt La nueva fecha de actualización
+     * @return UPDATED, CONFLICT con la nota actual o NOT_FOUND
+     */
+    NoteUpdateResult updateStatus(String noteId, String userId, Long expectedVersion, String status, Date updatedAt);
+
+    /**
+     * Cambia el título, el contenido y/o el estado de una nota en una sola
+     * escritura, con la misma comprobación de versión que updateStatus.
+     * Los campos null se conservan.
+     * @param noteId El ID de la nota
+     * @param userId El ID del usuario propietario
+     * @param expectedVersion La versión leída por el cliente
+     * @param title El nuevo título, o null
+     * @param content El nuevo contenido, o null
+     * @param status El nuevo estado, o null
+     * @param updatedAt La nueva fecha de actualización
+     * @return UPDATED, CONFLICT con la nota actual o NOT_FOUND
+     */
+    NoteUpdateResult updateFields(String noteId, String userId, Long expectedVersion, String title, String content,
+                                    String status, Date updatedAt);
+
+    /**
+     * Aplica un lote de cambios combinados, cada uno condicionado a que su
+     * nota pertenezca al usuario y siga en la versión esperada. Cada cambio
+     * avanza la versión tantas veces como ediciones combina.
+     * @param changes Los cambios, como mucho uno por nota
+     * @return Los IDs de las notas cuyo cambio no se aplicó porque cambiaron o ya no existen
+     */
+    List<String> applyChanges(List<NoteChange> changes);
+
+    /**
+     * Obtiene los cambios de las notas de un usuario posteriores a un cursor:
+     * las notas creadas o modificadas y las marcas de las eliminadas que aún
+     * no han caducado, ordenados por (changedAt o deletedAt, id) ascendente.
+     * @param userId El ID del usuario
+     * @param cursor La posición del último cambio recibido, o null para empezar por el más antiguo
+     * @param limit Número máximo de cambios
+     * @return Los cambios en orden ascendente
+     */
+    List<NoteFeedEntry> findChangesSince(String userId, NoteCursor cursor, int limit);
+
+    /**
+     * Elimina una nota si pertenece al usuario y deja una marca de su eliminación.
+     * @param id El ID de la nota
+     * @param userId El ID del usuario propietario
+     * @return true si se eliminó
+     */
+    boolean delete(String id, String userId);
+
+    /**
+     * Elimina las notas de un usuario por título exacto o por prefijo y deja
+     * una marca de la eliminación de cada una.
+     * @param userId El ID del usuario propietario
+     * @param title El título, o su prefijo si prefix es true
+     * @param prefix true para comparar solo el principio del título
+     * @return Número de notas eliminadas
+     */
+    long deleteByTitle(String userId, String title, boolean prefix);
+
+    /**
+     * Inserta un lote de notas.
+     * @param batch El número de lote, para el informe
+     * @param notes Las notas a insertar
+     * @param ordered true para detener el lote en el primer error
+     * @return El resultado del lote
+     */
+    BulkBatchResult insertBatch(int batch, List<Note> notes, boolean ordered);
+
+    /**
+     * Obtiene los IDs de hasta limit notas de un usuario.
+     * @param userId El ID del usuario
+     * @param status El estado por el que filtrar, o null
+     * @param limit Número máximo de IDs
+     * @return Los IDs de las notas
+     */
+    List<String> findIds(String userId, String status, int limit);
+
+    /**
+     * Cambia el estado de un lote de notas que siguen en el estado de origen.
+     * @param batch El número de lote, para el informe
+     * @param userId El ID del usuario propietario
+     * @param ids Los IDs de las notas del lote
+     * @param fromStatus El estado que deben tener las notas
+     * @param newStatus El nuevo estado
+     * @param updatedAt La nueva fecha de actualización
+     * @param ordered true para detener el lote en el primer error
+     * @return El resultado del lote
+     */
+    BulkBatchResult updateStatusBatch(int batch, String userId, List<String> ids, String fromStatus,
+                                      String newStatus, Date updatedAt, boolean ordered);
+
+    /**
+     * Elimina un lote de notas y deja una marca de la eliminación de cada una.
+     * @param batch El número de lote, para el informe
+     * @param userId El ID del usuario propietario
+     * @param ids Los IDs de las notas del lote
+     * @param ordered true para detener el lote en el primer error
+     * @return El resultado del lote
+     */
+    BulkBatchResult deleteBatch(int batch, String userId, List<String> ids, boolean ordered);
+
+    /**
+     * Recorre todas las notas de un usuario sin cargarlas todas en memoria.
+     * El stream debe cerrarse tras usarlo.
+     * @param userId El ID del usuario
+     * @return Stream de las notas del usuario
+     */
+    Stream<Note> streamByUser(String userId);
+
+    /**
+     * Busca texto en el título y el contenido de las notas de un usuario,
+     * con los resultados ordenados por relevancia.
+     * @param userId El ID del usuario
+     * @param text Las palabras a buscar
+     * @param page El número de página, empezando en 0
+     * @param size Número de resultados por página
+     * @return Los resultados de la página
+     */
+    List<NoteSearchHit> search(String userId, String text, int page, int size);
+};
@@ -5,9 +5,10 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 
 /**
  * Repositorio que maneja las operaciones de persistencia para los usuarios.
- * Extiende MongoRepository para heredar operaciones CRUD básicas.
+ * Extiende MongoRepository para heredar operaciones CRUD básicas y
+ * UserRepositoryCustom para el alta atómica de usuarios.
  */
-public interface UserRepository extends MongoRepository<User, String> {
+public interface UserRepository extends MongoRepository<User, String>, UserRepositoryCustom {
 
     /**
      * Busca un usuario por su nombre de usuario.
@@ -0,0 +1,37 @@
+package com.notasapp.repository;
+
+import com.notasapp.model.User;
+
+/**
+ * Operaciones de usuarios que no se pueden expresar como consultas derivadas
+ * y se implementan directamente sobre MongoTemplate en UserRepositoryImpl.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Obtiene el usuario con ese nombre o lo crea con los estados predeterminados,
+     * en una única operación atómica (findAndModify con upsert) respaldada por
+     * el índice único sobre username.
+     * @param username El nombre de usuario
+     * @return El usuario existente o el recién creado
+     */
+    User upsertByUsername(String username);
+
+    /**
+     * Añade un estado con findAndModify y $push, condicionado a que el usuario
+     * aún no lo tenga.
+     * @param username El nombre de usuario
+     * @param status El estado a añadir
+     * @return El usuario con el estado añadido, o null si ya lo tenía o no existe
+     */
+    User addStatus(String username, String status);
+
+    /**
+     * Elimina un estado con findAndModify y $pull, condicionado a que el
+     * usuario lo tenga y le quede al menos otro.
+     * @param username El nombre de usuario
+     * @param status El estado a eliminar
+     * @return El usuario sin el estado, o null si no lo tenía, era el último o no existe
+     */
+    User removeStatus(String username, String status);
+};
@@ -0,0 +1,58 @@
+package com.notasapp.repository;
+
+import com.notasapp.model.User;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Implementación de las operaciones personalizadas del repositorio de usuarios.
+ * Spring Data la combina con UserRepository por convención de nombre.
+ */
+class UserRepositoryImpl implements UserRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructor que inyecta la plantilla de MongoDB.
+     * @param mongoTemplate La plantilla usada para las operaciones
+     */
+    UserRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public User upsertByUsername(String username) {
+        // El username se copia al documento nuevo desde la condición de igualdad
+        Query query = Query.query(Criteria.where("username").is(username));
+        Update update = new Update().setOnInsert("availableStatuses", User.DEFAULT_STATUSES);
+        FindAndModifyOptions options = FindAndModifyOptions.options().upsert(true).returnNew(true);
+
+        try {
+            return mongoTemplate.findAndModify(query, update, options, User.class);
+        } catch (DuplicateKeyException e) {
+            // Otro upsert simultáneo insertó el usuario primero: basta con leerlo
+            return mongoTemplate.findOne(query, User.class);
+        }
+    }
+
+    @Override
+    public User addStatus(String username, String status) {
+        Query query = Query.query(Criteria.where("username").is(username).and("availableStatuses").ne(status));
+        Update update = new Update().push("availableStatuses", status);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), User.class);
+    }
+
+    @Override
+    public User removeStatus(String username, String status) {
+        // availableStatuses.1 solo existe si el usuario tiene al menos dos estados
+        Query query = Query.query(Criteria.where("username").is(username)
+                .and("availableStatuses").is(status)
+                .and("availableStatuses.1").exists(true));
+        Update update = new Update().pull("availableStatuses", status);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), User.class);
+    }
+};
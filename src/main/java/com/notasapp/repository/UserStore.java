@@ -0,0 +1,36 @@
+package com.notasapp.repository;
+
+import com.notasapp.model.User;
+
+/**
+ * Almacenamiento de usuarios independiente del motor de persistencia.
+ * Se elige por perfil igual que NoteStore.
+ */
+public interface UserStore {
+
+    /**
+     * Obtiene el usuario con ese nombre o lo crea con los estados predeterminados,
+     * de forma atómica.
+     * @param username El nombre de usuario
+     * @return El usuario existente o el recién creado
+     */
+    User upsertByUsername(String username);
+
+    /**
+     * Añade un estado a los disponibles del usuario en una sola operación
+     * atómica, sin perder los cambios de otras ediciones simultáneas.
+     * @param username El nombre de usuario
+     * @param status El estado a añadir
+     * @return El usuario con el estado añadido, o null si ya lo tenía o no existe
+     */
+    User addStatus(String username, String status);
+
+    /**
+     * Elimina un estado de los disponibles del usuario en una sola operación
+     * atómica. Nunca deja al usuario sin estados.
+     * @param username El nombre de usuario
+     * @param status El estado a eliminar
+     * @return El usuario sin el estado, o null si no lo tenía, era el último o no existe
+     */
+    User removeStatus(String username, String status);
+};
@@ -0,0 +1,228 @@
+package com.notasapp.repository.embedded;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Fichero de registros de solo escritura al final, proyectado en memoria.
+ *
+ * Cada registro ocupa [longitud:int][crc32:int][tipo:byte][datos], donde la
+ * longitud cuenta el tipo y los datos. El fichero se proyecta con un tamaño
+ * mayor que su contenido y la zona libre queda a ceros, de modo que al abrirlo
+ * el final del log es el primer registro con longitud 0 o con un CRC que no
+ * cuadra (una escritura a medias durante una caída). Cuando se llena, la
+ * proyección se amplía al doble.
+ *
+ * Las lecturas usan accesos absolutos sobre el buffer y no bloquean; las
+ * escrituras están sincronizadas. Al ser una única proyección, el log no
+ * puede superar 2 GB; la compactación del almacén lo mantiene por debajo.
+ */
+public class AppendOnlyLog implements AutoCloseable {
+
+    // Bytes de cabecera de cada registro: longitud y CRC
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    private final Path file;
+    private final FileChannel channel;
+
+    // Proyección actual del fichero; se sustituye al ampliarlo
+    private volatile MappedByteBuffer buffer;
+
+    // Posición donde se escribirá el siguiente registro
+    private volatile int writePosition;
+
+    /**
+     * Abre (o crea) un log y localiza su final recorriendo los registros.
+     * @param file El fichero del log
+     * @param initialSize Tamaño mínimo de la proyección en bytes
+     * @throws UncheckedIOException si no se puede abrir el fichero
+     */
+    public AppendOnlyLog(Path file, int initialSize) {
+        this.file = file;
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            this.channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long mappedSize = Math.max(channel.size(), initialSize);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el log " + file, e);
+        }
+        this.writePosition = findEnd();
+    }
+
+    /**
+     * Añade un registro al final del log.
+     * @param type El tipo de registro
+     * @param payload Los datos del registro
+     * @return La posición del registro, para leerlo después con read
+     */
+    public synchronized int append(byte type, byte[] payload) {
+        int length = payload.length + 1;
+        int position = writePosition;
+        ensureCapacity(position + HEADER_SIZE + length);
+
+        MappedByteBuffer target = buffer;
+        target.putInt(position + Integer.BYTES, checksum(type, payload, 0, payload.length));
+        target.put(position + HEADER_SIZE, type);
+        target.put(position + HEADER_SIZE + 1, payload);
+        // La longitud se escribe la última: hasta entonces el registro no existe para el recorrido
+        target.putInt(position, length);
+
+        writePosition = position + HEADER_SIZE + length;
+        return position;
+    }
+
+    /**
+     * Lee el tipo del registro que empieza en una posición.
+     * @param position La posición devuelta por append
+     * @return El tipo de registro
+     */
+    public byte readType(int position) {
+        return buffer.get(position + HEADER_SIZE);
+    }
+
+    /**
+     * Lee los datos del registro que empieza en una posición.
+     * @param position La posición devuelta por append
+     * @return Los datos del registro
+     */
+    public byte[] readPayload(int position) {
+        MappedByteBuffer source = buffer;
+        byte[] payload = new byte[source.getInt(position) - 1];
+        source.get(position + HEADER_SIZE + 1, payload);
+        return payload;
+    }
+
+    /**
+     * Tamaño que ocupa en el log el registro que empieza en una posición.
+     * @param position La posición del registro
+     * @return Bytes del registro, cabecera incluida
+     */
+    public int recordSize(int position) {
+        return HEADER_SIZE + buffer.getInt(position);
+    }
+
+    /**
+     * Recorre todos los registros del log en orden de escritura.
+     * @param visitor Recibe la posición, el tipo y los datos de cada registro
+     */
+    public void replay(RecordVisitor visitor) {
+        int position = 0;
+        int end = writePosition;
+        while (position < end) {
+            visitor.visit(position, readType(position), readPayload(position));
+            position += recordSize(position);
+        }
+    }
+
+    /**
+     * Bytes ocupados por los registros escritos.
+     * @return La posición de escritura actual
+     */
+    public int size() {
+        return writePosition;
+    }
+
+    /**
+     * Obtiene el fichero del log.
+     * @return La ruta del fichero
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Fuerza la escritura a disco de los registros añadidos.
+     */
+    public synchronized void force() {
+        buffer.force();
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo cerrar el log " + file, e);
+        }
+    }
+
+    /**
+     * Amplía la proyección si el siguiente registro no cabe.
+     * @param required Bytes necesarios desde el inicio del fichero
+     */
+    private void ensureCapacity(long required) {
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        long newSize = Math.max((long) buffer.capacity() * 2, required);
+        if (newSize > Integer.MAX_VALUE) {
+            throw new IllegalStateException("El log " + file + " supera el tamaño máximo de 2 GB");
+        }
+        try {
+            buffer.force();
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, newSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo ampliar el log " + file, e);
+        }
+    }
+
+    /**
+     * Localiza el final del log: el primer registro vacío, truncado o con CRC incorrecto.
+     * @return La posición donde continuar escribiendo
+     */
+    private int findEnd() {
+        MappedByteBuffer source = buffer;
+        int position = 0;
+        while (position + HEADER_SIZE < source.capacity()) {
+            int length = source.getInt(position);
+            if (length <= 0 || position + HEADER_SIZE + (long) length > source.capacity()) {
+                break;
+            }
+            byte[] record = new byte[length];
+            source.get(position + HEADER_SIZE, record);
+            if (checksum(record[0], record, 1, length - 1) != source.getInt(position + Integer.BYTES)) {
+                break;
+            }
+            position += HEADER_SIZE + length;
+        }
+        return position;
+    }
+
+    /**
+     * Calcula el CRC de un registro (tipo y datos).
+     * @param type El tipo de registro
+     * @param data El array con los datos
+     * @param offset Inicio de los datos en el array
+     * @param length Longitud de los datos
+     * @return El CRC32 truncado a int
+     */
+    private static int checksum(byte type, byte[] data, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(data, offset, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Receptor de los registros durante un recorrido del log.
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        /**
+         * Procesa un registro.
+         * @param position La posición del registro
+         * @param type El tipo de registro
+         * @param payload Los datos del registro
+         */
+        void visit(int position, byte type, byte[] payload);
+    }
+};
@@ -0,0 +1,82 @@
+package com.notasapp.repository.embedded;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Bloqueo exclusivo del directorio de datos del almacenamiento embebido.
+ *
+ * Los logs se escriben proyectados en memoria y cada proceso guarda su propia
+ * posición de escritura, así que dos procesos con el mismo directorio se
+ * sobrescribirían los registros. Al arrancar se bloquea un fichero del
+ * directorio con FileChannel.tryLock y, si otro proceso lo tiene, el arranque
+ * falla en lugar de esperar. El sistema operativo libera el bloqueo si el
+ * proceso termina sin cerrarlo.
+ *
+ * Los almacenamientos embebidos lo reciben en su constructor para abrir sus
+ * logs siempre después de tomarlo y cerrarlos antes de soltarlo.
+ */
+@Component
+@Profile("embedded")
+public class DataDirectoryLock implements AutoCloseable {
+
+    // Nombre del fichero de bloqueo dentro del directorio de datos
+    static final String LOCK_FILE = "tnote.lock";
+
+    private final Path file;
+    private final FileChannel channel;
+
+    /**
+     * Constructor que toma el bloqueo del directorio.
+     * @param directory El directorio de datos
+     * @throws IllegalStateException si otro proceso está usando el directorio
+     * @throws UncheckedIOException si no se puede crear el fichero de bloqueo
+     */
+    public DataDirectoryLock(@Value("${notas.embedded.directory:${user.home}/.tnote/data}") Path directory) {
+        this.file = directory.resolve(LOCK_FILE);
+        FileLock lock;
+        try {
+            Files.createDirectories(directory);
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            try {
+                lock = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                // Ya lo tiene otro almacenamiento abierto en esta misma JVM
+                lock = null;
+            }
+            if (lock == null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo bloquear el directorio de datos " + directory, e);
+        }
+        if (lock == null) {
+            throw new IllegalStateException("El directorio de datos " + directory
+                    + " está en uso por otra instancia de la aplicación");
+        }
+    }
+
+    /**
+     * Suelta el bloqueo al detener la aplicación.
+     */
+    @PreDestroy
+    @Override
+    public void close() {
+        try {
+            // Cerrar el canal libera el bloqueo
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo liberar el bloqueo " + file, e);
+        }
+    }
+};
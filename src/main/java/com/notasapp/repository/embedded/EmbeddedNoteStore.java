@@ -0,0 +1,893 @@
+package com.notasapp.repository.embedded;
+
+import com.notasapp.model.BulkBatchResult;
+import com.notasapp.model.Note;
+import com.notasapp.model.NoteChange;
+import com.notasapp.model.NoteCursor;
+import com.notasapp.model.NoteFeedEntry;
+import com.notasapp.model.NoteSearchHit;
+import com.notasapp.model.NoteSummary;
+import com.notasapp.model.NoteTombstone;
+import com.notasapp.model.NoteUpdateResult;
+import com.notasapp.repository.NoteStore;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Almacenamiento de notas embebido, sin servidor externo.
+ *
+ * Las notas se guardan en un AppendOnlyLog: cada alta o modificación añade la
+ * nota completa y cada borrado añade una marca de eliminación. En memoria se
+ * mantiene un índice primario (ID → metadatos y posición en el log) y, por
+ * usuario y por usuario y estado, conjuntos ordenados por (updatedAt, id)
+ * descendente que equivalen a los índices compuestos de MongoDB. Los listados
+ * y la paginación se sirven solo desde memoria; el contenido se lee del log al
+ * abrir una nota. Para el registro de cambios, las notas se indexan además por
+ * usuario en orden (changedAt, id) ascendente y las marcas de eliminación en
+ * orden (deletedAt, id); las marcas caducan pasado el plazo de
+ * retención (notas.tombstones.retention), como con el índice TTL de MongoDB.
+ *
+ * Cuando los registros obsoletos ocupan más que los vigentes (y superan un
+ * mínimo), el log se compacta reescribiendo solo las notas y marcas vigentes.
+ *
+ * Se activa con el perfil "embedded".
+ */
+@Component
+@Timed("notas.store")
+@Profile("embedded")
+public class EmbeddedNoteStore implements NoteStore {
+
+    // Nombre del fichero del log de notas dentro del directorio de datos
+    static final String LOG_FILE = "notes.log";
+
+    // Orden de los índices secundarios: más reciente primero y, a igual fecha, ID mayor primero
+    private static final Comparator<NoteEntry> RECENT_FIRST = Comparator
+            .comparingLong(NoteEntry::updatedAtMillis).reversed()
+            .thenComparing(NoteEntry::getId, Comparator.reverseOrder());
+
+    // Orden del registro de cambios: la nota escrita hace más tiempo primero y, a igual fecha, ID menor primero
+    private static final Comparator<NoteEntry> OLDEST_CHANGE_FIRST = Comparator
+            .comparingLong(NoteEntry::changedAtMillis)
+            .thenComparing(NoteEntry::getId);
+
+    // Orden de las marcas de eliminación: más antigua primero y, a igual fecha, ID menor primero
+    private static final Comparator<TombstoneEntry> OLDEST_FIRST = Comparator
+            .comparingLong(TombstoneEntry::deletedAtMillis)
+            .thenComparing(TombstoneEntry::getId);
+
+    // Peso del título frente al contenido en la búsqueda, igual que en el índice de texto
+    private static final int TITLE_WEIGHT = 3;
+
+    private final int initialSize;
+    private final long compactionMinBytes;
+    private final Duration tombstoneRetention;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Índice primario: ID de nota → entrada
+    private final Map<String, NoteEntry> byId = new HashMap<>();
+
+    // Índices secundarios: usuario → notas, y usuario + estado → notas
+    private final Map<String, NavigableSet<NoteEntry>> byUser = new HashMap<>();
+    private final Map<String, NavigableSet<NoteEntry>> byUserStatus = new HashMap<>();
+
+    // Índice del registro de cambios: usuario → notas por fecha de escritura
+    private final Map<String, NavigableSet<NoteEntry>> changesByUser = new HashMap<>();
+
+    // Marcas de eliminación vigentes: por ID de nota, por usuario y todas por antigüedad
+    private final Map<String, TombstoneEntry> tombstonesById = new HashMap<>();
+    private final Map<String, NavigableSet<TombstoneEntry>> tombstonesByUser = new HashMap<>();
+    private final NavigableSet<TombstoneEntry> tombstones = new TreeSet<>(OLDEST_FIRST);
+
+    private AppendOnlyLog log;
+
+    // Bytes del log ocupados por las versiones vigentes de las notas y por las marcas vigentes
+    private long liveBytes;
+
+    /**
+     * Constructor que abre el log y reconstruye los índices en memoria.
+     * @param directoryLock El bloqueo del directorio de datos, tomado antes de abrir el log
+     * @param directory El directorio de datos
+     * @param initialSize Tamaño inicial de la proyección del log
+     * @param compactionMinBytes Bytes obsoletos a partir de los que se permite compactar
+     * @param tombstoneRetention Tiempo que se conservan las marcas de eliminación
+     */
+    public EmbeddedNoteStore(DataDirectoryLock directoryLock,
+                             @Value("${notas.embedded.directory:${user.home}/.tnote/data}") Path directory,
+                             @Value("${notas.embedded.initial-size:16MB}") DataSize initialSize,
+                             @Value("${notas.embedded.compaction-min-size:8MB}") DataSize compactionMinBytes,
+                             @Value("${notas.tombstones.retention:7d}") Duration tombstoneRetention) {
+        this.initialSize = (int) initialSize.toBytes();
+        this.compactionMinBytes = compactionMinBytes.toBytes();
+        this.tombstoneRetention = tombstoneRetention;
+        this.log = new AppendOnlyLog(directory.resolve(LOG_FILE), this.initialSize);
+        load();
+        compactIfNeeded();
+    }
+
+    @Override
+    public Note insert(Note note) {
+        lock.writeLock().lock();
+        try {
+            return insertLocked(note);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Note> findByIdAndUserId(String id, String userId) {
+        lock.readLock().lock();
+        try {
+            NoteEntry entry = byId.get(id);
+            if (entry == null || !entry.getUserId().equals(userId)) {
+                return Optional.empty();
+            }
+            return Optional.of(read(entry));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Note> findByUser(String userId, String status) {
+        lock.readLock().lock();
+        try {
+            return index(userId, status).stream().map(this::read).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<NoteSummary> findSummaries(String userId, String status) {
+        lock.readLock().lock();
+        try {
+            return index(userId, status).stream().map(NoteEntry::toSummary).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<NoteFeedEntry> findChangesSince(String userId, NoteCursor cursor, int limit) {
+        lock.readLock().lock();
+        try {
+            // Las notas escritas después del cursor, de la más antigua a la más reciente
+            NavigableSet<NoteEntry> notes = changesByUser.getOrDefault(userId, Collections.emptyNavigableSet());
+            NavigableSet<TombstoneEntry> deleted = tombstonesByUser.getOrDefault(userId, Collections.emptyNavigableSet());
+            // Los conjuntos vacíos no tienen comparador: no se pueden recortar con una entrada de referencia
+            if (cursor != null && !notes.isEmpty()) {
+                notes = notes.tailSet(new NoteEntry(cursor.getId(), null, null, null, null, cursor.getUpdatedAt(), 0, 0), false);
+            }
+            if (cursor != null && !deleted.isEmpty()) {
+                deleted = deleted.tailSet(new TombstoneEntry(cursor.getId(), null, cursor.getUpdatedAt(), 0), false);
+            }
+
+            // Mezcla de los dos conjuntos ordenados; solo se leen del log las notas que entran
+            Iterator<NoteEntry> noteIterator = notes.iterator();
+            Iterator<TombstoneEntry> tombstoneIterator = deleted.iterator();
+            NoteEntry note = noteIterator.hasNext() ? noteIterator.next() : null;
+            TombstoneEntry tombstone = tombstoneIterator.hasNext() ? tombstoneIterator.next() : null;
+            List<NoteFeedEntry> changes = new ArrayList<>();
+            while (changes.size() < limit && (note != null || tombstone != null)) {
+                if (tombstone == null || (note != null && precedes(note, tombstone))) {
+                    changes.add(NoteFeedEntry.changed(read(note)));
+                    note = noteIterator.hasNext() ? noteIterator.next() : null;
+                } else {
+                    changes.add(NoteFeedEntry.deleted(tombstone.toTombstone()));
+                    tombstone = tombstoneIterator.hasNext() ? tombstoneIterator.next() : null;
+                }
+            }
+            return changes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<NoteSummary> findSummarySlice(String userId, String status, NoteCursor cursor, boolean forward, int limit) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<NoteEntry> notes = index(userId, status);
+            if (cursor != null) {
+                NoteEntry probe = new NoteEntry(cursor.getId(), null, null, null, cursor.getUpdatedAt(), null, 0, 0);
+                notes = forward ? notes.tailSet(probe, false) : notes.headSet(probe, false);
+            }
+            if (!forward) {
+                // Hacia atrás se toman las más cercanas al cursor y luego se devuelven en orden descendente
+                notes = notes.descendingSet();
+            }
+            List<NoteSummary> summaries = new ArrayList<>(Math.min(limit, notes.size()));
+            for (NoteEntry entry : notes) {
+                if (summaries.size() == limit) {
+                    break;
+                }
+                summaries.add(entry.toSummary());
+            }
+            if (!forward) {
+                Collections.reverse(summaries);
+            }
+            return summaries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long count(String userId, String status) {
+        lock.readLock().lock();
+        try {
+            return index(userId, status).size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public NoteUpdateResult updateStatus(String noteId, String userId, Long expectedVersion, String status, Date updatedAt) {
+        return updateVersioned(noteId, userId, expectedVersion, updatedAt, note -> note.setStatus(status));
+    }
+
+    @Override
+    public NoteUpdateResult updateFields(String noteId, String userId, Long expectedVersion, String title, String content,
+                                           String status, Date updatedAt) {
+        return updateVersioned(noteId, userId, expectedVersion, updatedAt, note -> {
+            if (title != null) {
+                note.setTitle(title);
+            }
+            if (content != null) {
+                note.setContent(content);
+            }
+            if (status != null) {
+                note.setStatus(status);
+            }
+        });
+    }
+
+    @Override
+    public List<String> applyChanges(List<NoteChange> changes) {
+        lock.writeLock().lock();
+        try {
+            List<String> rejected = new ArrayList<>();
+            for (NoteChange change : changes) {
+                NoteEntry entry = byId.get(change.getNoteId());
+                if (entry == null || !entry.getUserId().equals(change.getUserId())
+                        || !Objects.equals(change.getExpectedVersion(), entry.getVersion())) {
+                    rejected.add(change.getNoteId());
+                    continue;
+                }
+                Note note = read(entry);
+                change.applyTo(note);
+                write(note);
+            }
+            compactIfNeeded();
+            return rejected;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean delete(String id, String userId) {
+        lock.writeLock().lock();
+        try {
+            boolean deleted = deleteLocked(id, userId, new Date());
+            compactIfNeeded();
+            return deleted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public long deleteByTitle(String userId, String title, boolean prefix) {
+        lock.writeLock().lock();
+        try {
+            List<String> ids = index(userId, null).stream()
+                    .filter(entry -> entry.getTitle() != null
+                            && (prefix ? entry.getTitle().startsWith(title) : entry.getTitle().equals(title)))
+                    .map(NoteEntry::getId)
+                    .toList();
+            Date deletedAt = new Date();
+            ids.forEach(id -> deleteLocked(id, userId, deletedAt));
+            compactIfNeeded();
+            return ids.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public BulkBatchResult insertBatch(int batch, List<Note> notes, boolean ordered) {
+        lock.writeLock().lock();
+        try {
+            int inserted = 0;
+            int failed = 0;
+            for (Note note : notes) {
+                try {
+                    insertLocked(note);
+                    inserted++;
+                } catch (DuplicateKeyException e) {
+                    failed++;
+                    if (ordered) {
+                        break;
+                    }
+                }
+            }
+            return new BulkBatchResult(batch, inserted, 0, 0, 0, 0, failed, notes.size() - inserted - failed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<String> findIds(String userId, String status, int limit) {
+        lock.readLock().lock();
+        try {
+            return index(userId, status).stream().limit(limit).map(NoteEntry::getId).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public BulkBatchResult updateStatusBatch(int batch, String userId, List<String> ids, String fromStatus,
+                                             String newStatus, Date updatedAt, boolean ordered) {
+        lock.writeLock().lock();
+        try {
+            long matched = 0;
+            for (String id : ids) {
+                NoteEntry entry = byId.get(id);
+                if (entry == null || !entry.getUserId().equals(userId) || !fromStatus.equals(entry.getStatus())) {
+                    continue;
+                }
+                Note note = read(entry);
+                note.setStatus(newStatus);
+                note.setUpdatedAt(updatedAt);
+                note.setVersion(entry.getVersion() + 1);
+                write(note);
+                matched++;
+            }
+            compactIfNeeded();
+            return new BulkBatchResult(batch, 0, matched, matched, 0, 0, 0, 0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public BulkBatchResult deleteBatch(int batch, String userId, List<String> ids, boolean ordered) {
+        lock.writeLock().lock();
+        try {
+            Date deletedAt = new Date();
+            long deleted = ids.stream().filter(id -> deleteLocked(id, userId, deletedAt)).count();
+            compactIfNeeded();
+            return new BulkBatchResult(batch, 0, 0, 0, deleted, 0, 0, 0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Stream<Note> streamByUser(String userId) {
+        List<String> ids;
+        lock.readLock().lock();
+        try {
+            ids = index(userId, null).stream().map(NoteEntry::getId).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+        // Cada nota se lee al consumirla; las eliminadas entretanto se omiten
+        return ids.stream()
+                .map(id -> findByIdAndUserId(id, userId))
+                .flatMap(Optional::stream);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Sin índice de texto, se recorren las notas del usuario y se puntúa cada
+     * una por las apariciones de las palabras buscadas, pesando más el título.
+     * No se aplica lematización ni se admiten frases o exclusiones.
+     */
+    @Override
+    public List<NoteSearchHit> search(String userId, String text, int page, int size) {
+        Set<String> terms = Set.copyOf(tokenize(text));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        List<NoteSearchHit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (NoteEntry entry : index(userId, null)) {
+                Note note = read(entry);
+                int score = TITLE_WEIGHT * matches(note.getTitle(), terms) + matches(note.getContent(), terms);
+                if (score > 0) {
+                    hits.add(entry.toSearchHit(score));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(Comparator.comparing(NoteSearchHit::getScore).reversed());
+        return hits.stream().skip((long) page * size).limit(size).toList();
+    }
+
+    /**
+     * Cierra el log al detener la aplicación, forzando su escritura a disco.
+     */
+    @PreDestroy
+    void close() {
+        lock.writeLock().lock();
+        try {
+            log.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Inserta una nota nueva. Debe llamarse con el bloqueo de escritura.
+     * @param note La nota a insertar
+     * @return La nota insertada, con ID y versión
+     * @throws DuplicateKeyException si ya existe una nota con ese ID
+     */
+    private Note insertLocked(Note note) {
+        if (note.getId() == null) {
+            note.setId(new ObjectId().toHexString());
+        } else if (byId.containsKey(note.getId())) {
+            throw new DuplicateKeyException("Ya existe una nota con ID " + note.getId());
+        }
+        if (note.getVersion() == null) {
+            note.setVersion(0L);
+        }
+        write(note);
+        return note;
+    }
+
+    /**
+     * Aplica un cambio condicionado a la versión esperada e incrementa la versión.
+     * @param noteId El ID de la nota
+     * @param userId El ID del usuario propietario
+     * @param expectedVersion La versión leída por el cliente
+     * @param updatedAt La nueva fecha de actualización
+     * @param change El cambio a aplicar sobre la nota
+     * @return El resultado de la actualización
+     */
+    private NoteUpdateResult updateVersioned(String noteId, String userId, Long expectedVersion, Date updatedAt,
+                                             Consumer<Note> change) {
+        lock.writeLock().lock();
+        try {
+            NoteEntry entry = byId.get(noteId);
+            if (entry == null || !entry.getUserId().equals(userId)) {
+                return NoteUpdateResult.notFound();
+            }
+            Note note = read(entry);
+            if (!Objects.equals(expectedVersion, note.getVersion())) {
+                return NoteUpdateResult.conflict(note);
+            }
+            change.accept(note);
+            note.setUpdatedAt(updatedAt);
+            note.setVersion(entry.getVersion() + 1);
+            write(note);
+            compactIfNeeded();
+            return NoteUpdateResult.updated(note);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Elimina una nota si pertenece al usuario y deja su marca de eliminación.
+     * Debe llamarse con el bloqueo de escritura.
+     * @param id El ID de la nota
+     * @param userId El ID del usuario propietario
+     * @param deletedAt La fecha de la eliminación
+     * @return true si se eliminó
+     */
+    private boolean deleteLocked(String id, String userId, Date deletedAt) {
+        NoteEntry entry = byId.get(id);
+        if (entry == null || !entry.getUserId().equals(userId)) {
+            return false;
+        }
+        NoteTombstone tombstone = new NoteTombstone(id, userId, deletedAt);
+        int position = log.append(RecordCodec.NOTE_TOMBSTONE, RecordCodec.encodeTombstone(tombstone));
+        unindex(entry);
+        index(tombstone, position);
+        return true;
+    }
+
+    /**
+     * Añade la versión actual de una nota al log y la indexa, con la fecha de
+     * la escritura como changedAt. Debe llamarse con el bloqueo de escritura.
+     * @param note La nota a escribir
+     */
+    private void write(Note note) {
+        note.setChangedAt(new Date());
+        int position = log.append(RecordCodec.NOTE_PUT, RecordCodec.encodeNote(note));
+        index(note, position);
+    }
+
+    /**
+     * Lee la nota completa de una entrada desde el log.
+     * @param entry La entrada del índice
+     * @return La nota
+     */
+    private Note read(NoteEntry entry) {
+        return RecordCodec.decodeNote(log.readPayload(entry.getPosition()));
+    }
+
+    /**
+     * Indexa la versión de una nota escrita en una posición del log,
+     * sustituyendo la entrada anterior si existía.
+     * @param note La nota
+     * @param position La posición del registro en el log
+     */
+    private void index(Note note, int position) {
+        NoteEntry previous = byId.get(note.getId());
+        if (previous != null) {
+            unindex(previous);
+        }
+        NoteEntry entry = new NoteEntry(note.getId(), note.getUserId(), note.getTitle(), note.getStatus(),
+                note.getUpdatedAt(), note.getChangedAt(), note.getVersion(), position);
+        byId.put(entry.getId(), entry);
+        byUser.computeIfAbsent(entry.getUserId(), key -> new TreeSet<>(RECENT_FIRST)).add(entry);
+        changesByUser.computeIfAbsent(entry.getUserId(), key -> new TreeSet<>(OLDEST_CHANGE_FIRST)).add(entry);
+        byUserStatus.computeIfAbsent(statusKey(entry.getUserId(), entry.getStatus()), key -> new TreeSet<>(RECENT_FIRST))
+                .add(entry);
+        liveBytes += log.recordSize(position);
+    }
+
+    /**
+     * Quita una entrada de todos los índices.
+     * @param entry La entrada a quitar
+     */
+    private void unindex(NoteEntry entry) {
+        byId.remove(entry.getId());
+        removeFrom(byUser, entry.getUserId(), entry);
+        removeFrom(changesByUser, entry.getUserId(), entry);
+        removeFrom(byUserStatus, statusKey(entry.getUserId(), entry.getStatus()), entry);
+        liveBytes -= log.recordSize(entry.getPosition());
+    }
+
+    /**
+     * Indexa la marca de eliminación escrita en una posición del log,
+     * sustituyendo la anterior de la misma nota si existía.
+     * @param tombstone La marca de eliminación
+     * @param position La posición del registro en el log
+     */
+    private void index(NoteTombstone tombstone, int position) {
+        TombstoneEntry previous = tombstonesById.get(tombstone.getId());
+        if (previous != null) {
+            unindex(previous);
+        }
+        TombstoneEntry entry = new TombstoneEntry(tombstone.getId(), tombstone.getUserId(), tombstone.getDeletedAt(), position);
+        tombstonesById.put(entry.getId(), entry);
+        tombstonesByUser.computeIfAbsent(entry.getUserId(), key -> new TreeSet<>(OLDEST_FIRST)).add(entry);
+        tombstones.add(entry);
+        liveBytes += log.recordSize(position);
+    }
+
+    /**
+     * Quita una marca de eliminación de todos los índices.
+     * @param entry La marca a quitar
+     */
+    private void unindex(TombstoneEntry entry) {
+        tombstonesById.remove(entry.getId());
+        removeFrom(tombstonesByUser, entry.getUserId(), entry);
+        tombstones.remove(entry);
+        liveBytes -= log.recordSize(entry.getPosition());
+    }
+
+    /**
+     * Quita una entrada de un índice secundario, descartando el conjunto si queda vacío.
+     * @param index El índice secundario
+     * @param key La clave del conjunto
+     * @param entry La entrada a quitar
+     */
+    private static <T> void removeFrom(Map<String, NavigableSet<T>> index, String key, T entry) {
+        NavigableSet<T> entries = index.get(key);
+        if (entries != null) {
+            entries.remove(entry);
+            if (entries.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Indica si el cambio de una nota va antes que el de una marca de
+     * eliminación en el registro de cambios, ordenado por (fecha, id).
+     * @param note La entrada de la nota
+     * @param tombstone La marca de eliminación
+     * @return true si la nota va antes
+     */
+    private static boolean precedes(NoteEntry note, TombstoneEntry tombstone) {
+        int byDate = Long.compare(note.changedAtMillis(), tombstone.deletedAtMillis());
+        return byDate != 0 ? byDate < 0 : note.getId().compareTo(tombstone.getId()) < 0;
+    }
+
+    /**
+     * Obtiene el índice secundario que corresponde a un usuario y, opcionalmente, un estado.
+     * @param userId El ID del usuario
+     * @param status El estado, o null para todas las notas del usuario
+     * @return Las entradas en orden descendente de actualización
+     */
+    private NavigableSet<NoteEntry> index(String userId, String status) {
+        NavigableSet<NoteEntry> notes = status == null ? byUser.get(userId) : byUserStatus.get(statusKey(userId, status));
+        return notes == null ? Collections.emptyNavigableSet() : notes;
+    }
+
+    /**
+     * Construye la clave del índice por usuario y estado.
+     * @param userId El ID del usuario
+     * @param status El estado
+     * @return La clave compuesta
+     */
+    private static String statusKey(String userId, String status) {
+        return userId + '\u0000' + status;
+    }
+
+    /**
+     * Reconstruye los índices recorriendo el log desde el principio.
+     */
+    private void load() {
+        log.replay((position, type, payload) -> {
+            if (type == RecordCodec.NOTE_PUT) {
+                index(RecordCodec.decodeNote(payload), position);
+            } else if (type == RecordCodec.NOTE_TOMBSTONE) {
+                NoteTombstone tombstone = RecordCodec.decodeTombstone(payload);
+                NoteEntry entry = byId.get(tombstone.getId());
+                if (entry != null) {
+                    unindex(entry);
+                }
+                index(tombstone, position);
+            } else if (type == RecordCodec.NOTE_DELETE) {
+                NoteEntry entry = byId.get(RecordCodec.decodeDelete(payload));
+                if (entry != null) {
+                    unindex(entry);
+                }
+            }
+        });
+    }
+
+    /**
+     * Descarta las marcas de eliminación que han superado el plazo de retención
+     * y compacta el log si los registros obsoletos ocupan más que los vigentes
+     * y superan el mínimo configurado. Debe llamarse con el bloqueo de escritura
+     * (o durante la construcción).
+     */
+    private void compactIfNeeded() {
+        long expiredBefore = System.currentTimeMillis() - tombstoneRetention.toMillis();
+        while (!tombstones.isEmpty() && tombstones.first().deletedAtMillis() < expiredBefore) {
+            unindex(tombstones.first());
+        }
+
+        long deadBytes = log.size() - liveBytes;
+        if (deadBytes > liveBytes && deadBytes >= compactionMinBytes) {
+            compact();
+        }
+    }
+
+    /**
+     * Reescribe las notas y marcas vigentes en un log nuevo y lo sustituye por el actual
+     * con un movimiento atómico, de modo que una caída deja uno de los dos logs
+     * completo. Después se actualizan las posiciones de las entradas.
+     */
+    private void compact() {
+        Path file = log.getFile();
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        Map<String, Integer> positions = new HashMap<>(byId.size() * 2);
+        Map<String, Integer> tombstonePositions = new HashMap<>(tombstonesById.size() * 2);
+        try {
+            Files.deleteIfExists(compacted);
+            try (AppendOnlyLog target = new AppendOnlyLog(compacted, (int) Math.max(initialSize, liveBytes))) {
+                // Las marcas van antes que las notas: al cargar, una nota con el ID de una marca no se descarta
+                for (TombstoneEntry entry : tombstonesById.values()) {
+                    tombstonePositions.put(entry.getId(),
+                            target.append(RecordCodec.NOTE_TOMBSTONE, log.readPayload(entry.getPosition())));
+                }
+                for (NoteEntry entry : byId.values()) {
+                    positions.put(entry.getId(), target.append(RecordCodec.NOTE_PUT, log.readPayload(entry.getPosition())));
+                }
+            }
+            log.close();
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo compactar el log " + file, e);
+        }
+
+        log = new AppendOnlyLog(file, initialSize);
+        byId.values().forEach(entry -> entry.setPosition(positions.get(entry.getId())));
+        tombstonesById.values().forEach(entry -> entry.setPosition(tombstonePositions.get(entry.getId())));
+        liveBytes = log.size();
+    }
+
+    /**
+     * Cuenta cuántas palabras de un texto están entre las buscadas.
+     * @param text El texto donde buscar
+     * @param terms Las palabras buscadas, normalizadas
+     * @return Número de apariciones
+     */
+    private static int matches(String text, Set<String> terms) {
+        if (text == null) {
+            return 0;
+        }
+        return (int) tokenize(text).stream().filter(terms::contains).count();
+    }
+
+    /**
+     * Divide un texto en palabras en minúsculas y sin tildes.
+     * @param text El texto
+     * @return Las palabras del texto
+     */
+    private static List<String> tokenize(String text) {
+        String normalized = Normalizer.normalize(text.toLowerCase(), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "");
+        List<String> tokens = new ArrayList<>();
+        for (String token : normalized.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Entrada de los índices en memoria: los campos que se muestran en los
+     * listados y la posición de la versión vigente de la nota en el log.
+     */
+    private static final class NoteEntry {
+        private final String id;
+        private final String userId;
+        private final String title;
+        private final String status;
+        private final Date updatedAt;
+        private final Date changedAt;
+        private final long version;
+
+        // Cambia solo al compactar el log
+        private int position;
+
+        NoteEntry(String id, String userId, String title, String status, Date updatedAt, Date changedAt, long version,
+                  int position) {
+            this.id = id;
+            this.userId = userId;
+            this.title = title;
+            this.status = status;
+            this.updatedAt = updatedAt;
+            this.changedAt = changedAt;
+            this.version = version;
+            this.position = position;
+        }
+
+        String getId() {
+            return id;
+        }
+
+        String getUserId() {
+            return userId;
+        }
+
+        String getTitle() {
+            return title;
+        }
+
+        String getStatus() {
+            return status;
+        }
+
+        long getVersion() {
+            return version;
+        }
+
+        int getPosition() {
+            return position;
+        }
+
+        void setPosition(int position) {
+            this.position = position;
+        }
+
+        long updatedAtMillis() {
+            return updatedAt == null ? 0 : updatedAt.getTime();
+        }
+
+        long changedAtMillis() {
+            return changedAt == null ? 0 : changedAt.getTime();
+        }
+
+        NoteSummary toSummary() {
+            NoteSummary summary = new NoteSummary();
+            summary.setId(id);
+            summary.setTitle(title);
+            summary.setStatus(status);
+            summary.setUpdatedAt(updatedAt);
+            return summary;
+        }
+
+        NoteSearchHit toSearchHit(float score) {
+            NoteSearchHit hit = new NoteSearchHit();
+            hit.setId(id);
+            hit.setTitle(title);
+            hit.setStatus(status);
+            hit.setUpdatedAt(updatedAt);
+            hit.setScore(score);
+            return hit;
+        }
+    }
+
+    /**
+     * Entrada del índice de marcas de eliminación: la nota eliminada, su
+     * usuario, la fecha de eliminación y la posición de la marca en el log.
+     */
+    private static final class TombstoneEntry {
+        private final String id;
+        private final String userId;
+        private final Date deletedAt;
+
+        // Cambia solo al compactar el log
+        private int position;
+
+        TombstoneEntry(String id, String userId, Date deletedAt, int position) {
+            this.id = id;
+            this.userId = userId;
+            this.deletedAt = deletedAt;
+            this.position = position;
+        }
+
+        String getId() {
+            return id;
+        }
+
+        String getUserId() {
+            return userId;
+        }
+
+        int getPosition() {
+            return position;
+        }
+
+        void setPosition(int position) {
+            this.position = position;
+        }
+
+        long deletedAtMillis() {
+            return deletedAt.getTime();
+        }
+
+        NoteTombstone toTombstone() {
+            return new NoteTombstone(id, userId, deletedAt);
+        }
+    }
+};
@@ -0,0 +1,123 @@
+package com.notasapp.repository.embedded;
+
+import com.notasapp.model.User;
+import com.notasapp.repository.UserStore;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Almacenamiento de usuarios embebido, sin servidor externo.
+ * Los usuarios se mantienen en memoria y cada cambio se añade completo a su
+ * propio AppendOnlyLog, que se recorre al arrancar. Al ser pocos y de tamaño
+ * fijo, este log no se compacta.
+ *
+ * Se activa con el perfil "embedded".
+ */
+@Component
+@Timed("notas.store")
+@Profile("embedded")
+public class EmbeddedUserStore implements UserStore {
+
+    // Nombre del fichero del log de usuarios dentro del directorio de datos
+    static final String LOG_FILE = "users.log";
+
+    // Tamaño inicial de la proyección del log de usuarios
+    private static final int INITIAL_SIZE = 1024 * 1024;
+
+    private final AppendOnlyLog log;
+
+    // Usuarios por nombre de usuario
+    private final Map<String, User> byUsername = new HashMap<>();
+
+    /**
+     * Constructor que abre el log y carga los usuarios.
+     * @param directoryLock El bloqueo del directorio de datos, tomado antes de abrir el log
+     * @param directory El directorio de datos
+     */
+    public EmbeddedUserStore(DataDirectoryLock directoryLock,
+                             @Value("${notas.embedded.directory:${user.home}/.tnote/data}") Path directory) {
+        this.log = new AppendOnlyLog(directory.resolve(LOG_FILE), INITIAL_SIZE);
+        log.replay((position, type, payload) -> {
+            if (type == RecordCodec.USER_PUT) {
+                User user = RecordCodec.decodeUser(payload);
+                byUsername.put(user.getUsername(), user);
+            }
+        });
+    }
+
+    @Override
+    public synchronized User upsertByUsername(String username) {
+        User user = byUsername.get(username);
+        if (user == null) {
+            user = new User(username);
+            user.setId(new ObjectId().toHexString());
+            write(user);
+        }
+        return copyOf(user);
+    }
+
+    @Override
+    public synchronized User addStatus(String username, String status) {
+        User user = byUsername.get(username);
+        if (user == null) {
+            return null;
+        }
+        User updated = copyOf(user);
+        if (!updated.addStatus(status)) {
+            return null;
+        }
+        write(updated);
+        return copyOf(updated);
+    }
+
+    @Override
+    public synchronized User removeStatus(String username, String status) {
+        User user = byUsername.get(username);
+        if (user == null) {
+            return null;
+        }
+        User updated = copyOf(user);
+        if (!updated.removeStatus(status)) {
+            return null;
+        }
+        write(updated);
+        return copyOf(updated);
+    }
+
+    /**
+     * Cierra el log al detener la aplicación, forzando su escritura a disco.
+     */
+    @PreDestroy
+    synchronized void close() {
+        log.close();
+    }
+
+    /**
+     * Añade el usuario al log y lo guarda en memoria.
+     * @param user El usuario, que no debe compartirse fuera del almacenamiento
+     */
+    private void write(User user) {
+        log.append(RecordCodec.USER_PUT, RecordCodec.encodeUser(user));
+        byUsername.put(user.getUsername(), user);
+    }
+
+    /**
+     * Copia un usuario para que los cambios de quien lo recibe no alteren el almacenado.
+     * @param user El usuario a copiar
+     * @return La copia
+     */
+    private static User copyOf(User user) {
+        User copy = new User(user.getUsername());
+        copy.setId(user.getId());
+        copy.setAvailableStatuses(new ArrayList<>(user.getAvailableStatuses()));
+        return copy;
+    }
+};
@@ -0,0 +1,197 @@
+package com.notasapp.repository.embedded;
+
+import com.notasapp.model.Note;
+import com.notasapp.model.NoteTombstone;
+import com.notasapp.model.User;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Codificación binaria de las notas y usuarios que se guardan en los logs
+ * del almacenamiento embebido.
+ */
+final class RecordCodec {
+
+    // Tipos de registro
+    static final byte NOTE_PUT = 1;
+    static final byte NOTE_DELETE = 2;
+    static final byte USER_PUT = 3;
+    static final byte NOTE_TOMBSTONE = 4;
+
+    private RecordCodec() {
+    }
+
+    /**
+     * Codifica una nota completa.
+     * @param note La nota
+     * @return Los datos del registro
+     */
+    static byte[] encodeNote(Note note) {
+        return write(out -> {
+            writeString(out, note.getId());
+            writeString(out, note.getUserId());
+            writeString(out, note.getTitle());
+            writeString(out, note.getContent());
+            writeString(out, note.getStatus());
+            writeDate(out, note.getCreatedAt());
+            writeDate(out, note.getUpdatedAt());
+            out.writeLong(note.getVersion() == null ? -1 : note.getVersion());
+            writeDate(out, note.getChangedAt());
+        });
+    }
+
+    /**
+     * Decodifica una nota completa.
+     * @param payload Los datos del registro
+     * @return La nota
+     */
+    static Note decodeNote(byte[] payload) {
+        return read(payload, in -> {
+            Note note = new Note();
+            note.setId(readString(in));
+            note.setUserId(readString(in));
+            note.setTitle(readString(in));
+            note.setContent(readString(in));
+            note.setStatus(readString(in));
+            note.setCreatedAt(readDate(in));
+            note.setUpdatedAt(readDate(in));
+            long version = in.readLong();
+            note.setVersion(version < 0 ? null : version);
+            // Los registros anteriores a changedAt no lo guardan: su último cambio es su updatedAt
+            note.setChangedAt(in.available() > 0 ? readDate(in) : note.getUpdatedAt());
+            return note;
+        });
+    }
+
+    /**
+     * Decodifica la marca de borrado de una nota de los logs anteriores a
+     * NOTE_TOMBSTONE, que solo guardaba el ID.
+     * @param payload Los datos del registro
+     * @return El ID de la nota eliminada
+     */
+    static String decodeDelete(byte[] payload) {
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Codifica la marca de eliminación de una nota, que sustituye a NOTE_DELETE:
+     * además del ID guarda el usuario y la fecha para el registro de cambios.
+     * @param tombstone La marca de eliminación
+     * @return Los datos del registro
+     */
+    static byte[] encodeTombstone(NoteTombstone tombstone) {
+        return write(out -> {
+            writeString(out, tombstone.getId());
+            writeString(out, tombstone.getUserId());
+            writeDate(out, tombstone.getDeletedAt());
+        });
+    }
+
+    /**
+     * Decodifica la marca de eliminación de una nota.
+     * @param payload Los datos del registro
+     * @return La marca de eliminación
+     */
+    static NoteTombstone decodeTombstone(byte[] payload) {
+        return read(payload, in -> new NoteTombstone(readString(in), readString(in), readDate(in)));
+    }
+
+    /**
+     * Codifica un usuario.
+     * @param user El usuario
+     * @return Los datos del registro
+     */
+    static byte[] encodeUser(User user) {
+        return write(out -> {
+            writeString(out, user.getId());
+            writeString(out, user.getUsername());
+            out.writeInt(user.getAvailableStatuses().size());
+            for (String status : user.getAvailableStatuses()) {
+                writeString(out, status);
+            }
+        });
+    }
+
+    /**
+     * Decodifica un usuario.
+     * @param payload Los datos del registro
+     * @return El usuario
+     */
+    static User decodeUser(byte[] payload) {
+        return read(payload, in -> {
+            String id = readString(in);
+            User user = new User(readString(in));
+            user.setId(id);
+            int count = in.readInt();
+            List<String> statuses = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                statuses.add(readString(in));
+            }
+            user.setAvailableStatuses(statuses);
+            return user;
+        });
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static void writeDate(DataOutputStream out, Date value) throws IOException {
+        out.writeLong(value == null ? Long.MIN_VALUE : value.getTime());
+    }
+
+    private static Date readDate(DataInputStream in) throws IOException {
+        long millis = in.readLong();
+        return millis == Long.MIN_VALUE ? null : new Date(millis);
+    }
+
+    private static byte[] write(Encoder encoder) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            encoder.encode(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static <T> T read(byte[] payload, Decoder<T> decoder) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            return decoder.decode(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Registro corrupto en el almacenamiento embebido", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Encoder {
+        void encode(DataOutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Decoder<T> {
+        T decode(DataInputStream in) throws IOException;
+    }
+};
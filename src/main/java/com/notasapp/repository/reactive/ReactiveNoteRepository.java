@@ -0,0 +1,43 @@
+package com.notasapp.repository.reactive;
+
+import com.notasapp.model.Note;
+import com.notasapp.model.NoteSummary;
+import org.springframework.data.mongodb.repository.Meta;
+import org.springframework.data.repository.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Versión reactiva de las lecturas de NoteRepository sobre el driver Reactive
+ * Streams. Las consultas devuelven Flux y no bloquean ningún hilo mientras
+ * esperan la respuesta del servidor; los documentos se piden al cursor según
+ * la demanda del suscriptor.
+ * Solo tiene lecturas: las escrituras siguen pasando por NoteStore, que fija
+ * changedAt, deja las marcas de eliminación y guarda los términos de búsqueda.
+ */
+public interface ReactiveNoteRepository extends Repository<Note, String> {
+
+    /**
+     * Busca todas las notas que pertenecen a un usuario específico.
+     * Los documentos se leen del cursor por lotes según los pide el suscriptor.
+     * @param userId El ID del usuario
+     * @return Flux de notas del usuario
+     */
+    @Meta(cursorBatchSize = 500)
+    Flux<Note> findByUserId(String userId);
+
+    /**
+     * Busca los resúmenes de todas las notas de un usuario.
+     * Solo se leen los campos de NoteSummary; el contenido no se transfiere.
+     * @param userId El ID del usuario
+     * @return Flux de resúmenes de las notas del usuario
+     */
+    Flux<NoteSummary> findSummariesByUserId(String userId);
+
+    /**
+     * Busca los resúmenes de las notas de un usuario con un estado específico.
+     * @param userId El ID del usuario
+     * @param status El estado de las notas a buscar
+     * @return Flux de resúmenes filtrados por usuario y estado
+     */
+    Flux<NoteSummary> findSummariesByUserIdAndStatus(String userId, String status);
+};
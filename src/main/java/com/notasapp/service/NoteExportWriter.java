@@ -0,0 +1,93 @@
+package com.notasapp.service;
+
+import com.notasapp.model.ExportFormat;
+import com.notasapp.model.Note;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Date;
+
+/**
+ * Escribe notas una a una en formato JSON Lines o CSV.
+ * No guarda estado entre notas, de modo que la memoria usada no depende
+ * del número de notas exportadas.
+ */
+class NoteExportWriter {
+
+    // Formato JSON legible que se puede volver a leer con Document.parse
+    private static final JsonWriterSettings JSON_SETTINGS = JsonWriterSettings.builder()
+            .outputMode(JsonMode.RELAXED)
+            .build();
+
+    private static final String CSV_HEADER = "id,userId,title,content,status,createdAt,updatedAt";
+
+    private final Writer writer;
+    private final ExportFormat format;
+
+    /**
+     * Constructor que indica el destino y el formato.
+     * @param writer El destino de la exportación
+     * @param format El formato de salida
+     */
+    NoteExportWriter(Writer writer, ExportFormat format) {
+        this.writer = writer;
+        this.format = format;
+    }
+
+    /**
+     * Escribe la cabecera del fichero, si el formato la tiene.
+     * @throws IOException si falla la escritura
+     */
+    void writeHeader() throws IOException {
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * Escribe una nota como una línea del fichero.
+     * @param note La nota a escribir
+     * @throws IOException si falla la escritura
+     */
+    void write(Note note) throws IOException {
+        if (format == ExportFormat.JSONL) {
+            writer.write(toDocument(note).toJson(JSON_SETTINGS));
+        } else {
+            writer.write(String.join(",",
+                    csv(note.getId()), csv(note.getUserId()), csv(note.getTitle()), csv(note.getContent()),
+                    csv(note.getStatus()), csv(note.getCreatedAt()), csv(note.getUpdatedAt())));
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * Convierte una nota al documento JSON que se exporta.
+     * @param note La nota
+     * @return El documento con los campos exportados
+     */
+    private Document toDocument(Note note) {
+        return new Document("id", note.getId())
+                .append("userId", note.getUserId())
+                .append("title", note.getTitle())
+                .append("content", note.getContent())
+                .append("status", note.getStatus())
+                .append("createdAt", note.getCreatedAt())
+                .append("updatedAt", note.getUpdatedAt());
+    }
+
+    /**
+     * Formatea un valor como campo CSV entrecomillado.
+     * @param value El valor (texto o fecha)
+     * @return El campo con las comillas internas duplicadas
+     */
+    private String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof Date date ? date.toInstant().toString() : value.toString();
+        return "\"" + text.replace("\"", "\"\"") + "\"";
+    }
+};
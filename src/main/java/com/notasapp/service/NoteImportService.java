@@ -0,0 +1,342 @@
+package com.notasapp.service;
+
+import com.notasapp.model.BulkBatchResult;
+import com.notasapp.model.BulkOptions;
+import com.notasapp.model.ImportReport;
+import com.notasapp.model.Note;
+import com.notasapp.repository.NoteStore;
+import org.bson.Document;
+import org.springframework.stereotype.Service;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servicio que importa notas de forma masiva desde un fichero JSON Lines,
+ * con el mismo formato que genera la exportación de NotesService.
+ *
+ * El fichero se lee en streaming y las notas se insertan por lotes desde un
+ * hilo escritor. Entre ambos hay una cola acotada de lotes pendientes: cuando
+ * se llena, la lectura se detiene hasta que la base de datos se pone al día.
+ * Tras cada lote confirmado se guarda la última línea procesada en un fichero
+ * de control junto al de origen, de modo que una importación interrumpida se
+ * reanuda desde ese punto. Un lote insertado justo antes de una interrupción,
+ * sin llegar a confirmarse, se vuelve a insertar al reanudar.
+ */
+@Service
+public class NoteImportService {
+
+    // Sufijo del fichero de control con la última línea confirmada
+    private static final String CHECKPOINT_SUFFIX = ".offset";
+
+    // Tiempo máximo de espera a que el hilo escritor termine su último lote
+    private static final Duration WRITER_STOP_TIMEOUT = Duration.ofSeconds(30);
+
+    private final NoteStore noteStore;
+    private final UserService userService;
+
+    /**
+     * Constructor que inyecta el almacenamiento de notas y el servicio de usuarios.
+     * @param noteStore El almacenamiento de notas
+     * @param userService El servicio de usuarios
+     */
+    public NoteImportService(NoteStore noteStore, UserService userService) {
+        this.noteStore = noteStore;
+        this.userService = userService;
+    }
+
+    /**
+     * Importa las notas de un fichero JSON Lines.
+     * Cada línea debe contener al menos userId, title y status; content,
+     * createdAt y updatedAt son opcionales. Las líneas que no son JSON válido
+     * o cuyo estado no está disponible para su usuario se descartan. Los
+     * estados de cada usuario se leen una sola vez por importación.
+     * @param source El fichero a importar
+     * @param options El tamaño de lote y si las inserciones son ordenadas
+     * @param maxInFlightBatches Número máximo de lotes leídos pendientes de insertar
+     * @return El informe de la importación
+     * @throws IOException si no se puede leer el fichero o guardar el punto de control
+     * @throws InterruptedException si se interrumpe el hilo durante la importación
+     */
+    public ImportReport importNotes(Path source, BulkOptions options, int maxInFlightBatches)
+            throws IOException, InterruptedException {
+        Path checkpoint = source.resolveSibling(source.getFileName() + CHECKPOINT_SUFFIX);
+        long resumeOffset = readCheckpoint(checkpoint);
+
+        ImportReport report = new ImportReport();
+        report.setCommittedOffset(resumeOffset);
+        long start = System.nanoTime();
+
+        BlockingQueue<ImportBatch> queue = new ArrayBlockingQueue<>(maxInFlightBatches);
+        BatchWriter batchWriter = new BatchWriter(queue, checkpoint, options.isOrdered(), report);
+        Thread writerThread = Thread.ofPlatform().name("note-import-writer").daemon(true).start(batchWriter);
+
+        boolean completed = false;
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+            Map<String, Set<String>> statusSnapshot = new HashMap<>();
+            List<Note> notes = new ArrayList<>(options.getBatchSize());
+            long lineNumber = 0;
+            long rejected = 0;
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber <= resumeOffset) {
+                    report.setLinesSkipped(report.getLinesSkipped() + 1);
+                    continue;
+                }
+                report.setLinesRead(report.getLinesRead() + 1);
+
+                Note note = parse(line, statusSnapshot);
+                if (note == null) {
+                    rejected++;
+                } else {
+                    notes.add(note);
+                }
+
+                if (notes.size() == options.getBatchSize()) {
+                    batchWriter.submit(new ImportBatch(notes, lineNumber, rejected));
+                    notes = new ArrayList<>(options.getBatchSize());
+                    rejected = 0;
+                }
+            }
+
+            if (!notes.isEmpty() || rejected > 0) {
+                batchWriter.submit(new ImportBatch(notes, lineNumber, rejected));
+            }
+            completed = true;
+        } finally {
+            boolean stopped = batchWriter.finish(writerThread);
+            report.setElapsed(Duration.ofNanos(System.nanoTime() - start));
+            if (!stopped) {
+                throw new IOException("El hilo escritor de la importación no terminó en "
+                        + WRITER_STOP_TIMEOUT.toSeconds() + " s; la importación se reanudará desde la línea "
+                        + report.getCommittedOffset());
+            }
+        }
+
+        batchWriter.rethrowFailure();
+        if (completed) {
+            // La importación terminó entera: una nueva ejecución debe empezar desde el principio
+            Files.deleteIfExists(checkpoint);
+        }
+        return report;
+    }
+
+    /**
+     * Convierte una línea del fichero en una nota lista para insertar.
+     * @param line La línea JSON
+     * @param statusSnapshot Estados disponibles por usuario, leídos una vez por importación
+     * @return La nota, o null si la línea no es válida
+     */
+    private Note parse(String line, Map<String, Set<String>> statusSnapshot) {
+        if (line.isBlank()) {
+            return null;
+        }
+
+        Document document;
+        try {
+            document = Document.parse(line);
+        } catch (RuntimeException e) {
+            return null;
+        }
+
+        String userId = document.getString("userId");
+        String title = document.getString("title");
+        String status = document.getString("status");
+        if (userId == null || title == null || status == null) {
+            return null;
+        }
+
+        Set<String> statuses = statusSnapshot.computeIfAbsent(userId,
+                username -> new HashSet<>(userService.getAvailableStatuses(username)));
+        if (!statuses.contains(status)) {
+            return null;
+        }
+
+        Date now = new Date();
+        Note note = new Note();
+        note.setUserId(userId);
+        note.setTitle(title);
+        note.setContent(document.getString("content"));
+        note.setStatus(status);
+        note.setCreatedAt(toDate(document.get("createdAt"), now));
+        note.setUpdatedAt(toDate(document.get("updatedAt"), now));
+        note.setVersion(0L);
+        return note;
+    }
+
+    /**
+     * Interpreta una fecha exportada como {"$date": ...} o como texto ISO-8601.
+     * @param value El valor leído
+     * @param fallback La fecha a usar si el valor falta o no es válido
+     * @return La fecha
+     */
+    private Date toDate(Object value, Date fallback) {
+        if (value instanceof Date date) {
+            return date;
+        }
+        if (value instanceof String text) {
+            try {
+                return Date.from(Instant.parse(text));
+            } catch (RuntimeException e) {
+                return fallback;
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * Lee la última línea confirmada de una importación anterior.
+     * @param checkpoint El fichero de control
+     * @return La última línea confirmada, o 0 si no hay importación que reanudar
+     * @throws IOException si el fichero existe pero no se puede leer
+     */
+    private long readCheckpoint(Path checkpoint) throws IOException {
+        if (!Files.exists(checkpoint)) {
+            return 0;
+        }
+        return Long.parseLong(Files.readString(checkpoint, StandardCharsets.UTF_8).trim());
+    }
+
+    /**
+     * Lote de notas leídas, junto con la última línea del fichero que cubre.
+     * @param notes Las notas válidas del lote
+     * @param endLine La última línea del fichero incluida en el lote
+     * @param rejected Las líneas del tramo que se descartaron
+     */
+    private record ImportBatch(List<Note> notes, long endLine, long rejected) {
+    }
+
+    /**
+     * Hilo escritor que inserta los lotes en orden y confirma el punto de
+     * control tras cada uno. Al ser un único escritor, el punto de control
+     * nunca avanza por delante de un lote sin insertar.
+     */
+    private class BatchWriter implements Runnable {
+
+        // Marca de fin de la cola
+        private static final ImportBatch END = new ImportBatch(List.of(), -1, 0);
+
+        private final BlockingQueue<ImportBatch> queue;
+        private final Path checkpoint;
+        private final boolean ordered;
+        private final ImportReport report;
+        private volatile Exception failure;
+
+        BatchWriter(BlockingQueue<ImportBatch> queue, Path checkpoint, boolean ordered, ImportReport report) {
+            this.queue = queue;
+            this.checkpoint = checkpoint;
+            this.ordered = ordered;
+            this.report = report;
+        }
+
+        /**
+         * Encola un lote, esperando si la cola está llena.
+         * @param batch El lote a insertar
+         * @throws IOException si el escritor ya falló
+         * @throws InterruptedException si se interrumpe la espera
+         */
+        void submit(ImportBatch batch) throws IOException, InterruptedException {
+            // Se espera en intervalos cortos para no quedar bloqueado si el escritor ha fallado
+            while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                rethrowFailure();
+            }
+        }
+
+        /**
+         * Indica que no habrá más lotes y espera a que el escritor termine,
+         * como mucho WRITER_STOP_TIMEOUT. Si la importación se interrumpió, los
+         * lotes aún en cola se descartan para que el escritor se detenga tras el
+         * lote en curso; se volverán a leer al reanudar. La interrupción del hilo
+         * que importa se conserva.
+         * @param writerThread El hilo escritor
+         * @return true si el escritor terminó, false si sigue en marcha tras la espera
+         */
+        boolean finish(Thread writerThread) {
+            boolean interrupted = Thread.interrupted();
+            long deadline = System.nanoTime() + WRITER_STOP_TIMEOUT.toNanos();
+            try {
+                while (writerThread.isAlive() && System.nanoTime() < deadline) {
+                    try {
+                        if (interrupted) {
+                            queue.clear();
+                        }
+                        if (queue.offer(END, 100, TimeUnit.MILLISECONDS)) {
+                            // join(0) esperaría sin límite
+                            writerThread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+                        }
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                return !writerThread.isAlive();
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        /**
+         * Propaga el error del escritor, si lo hubo.
+         * @throws IOException si el escritor falló
+         */
+        void rethrowFailure() throws IOException {
+            if (failure instanceof IOException e) {
+                throw e;
+            }
+            if (failure != null) {
+                throw new IOException("Error al insertar un lote de notas", failure);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                ImportBatch batch;
+                while ((batch = queue.take()) != END) {
+                    int number = report.getBatches() + 1;
+                    if (!batch.notes().isEmpty()) {
+                        BulkBatchResult result = noteStore.insertBatch(number, batch.notes(), ordered);
+                        report.setInserted(report.getInserted() + result.getInserted());
+                        // Las notas que una inserción ordenada no llegó a intentar tampoco se escribieron
+                        report.setFailed(report.getFailed() + result.getFailed() + result.getSkipped());
+                    }
+                    report.setRejected(report.getRejected() + batch.rejected());
+                    writeCheckpoint(batch.endLine());
+                    report.setBatches(number);
+                    report.setCommittedOffset(batch.endLine());
+                }
+            } catch (Exception e) {
+                failure = e;
+            }
+        }
+
+        /**
+         * Guarda de forma atómica la última línea confirmada.
+         * @param offset La última línea confirmada
+         * @throws IOException si no se puede escribir el fichero de control
+         */
+        private void writeCheckpoint(long offset) throws IOException {
+            Path temporary = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+            Files.writeString(temporary, Long.toString(offset), StandardCharsets.UTF_8);
+            Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+};
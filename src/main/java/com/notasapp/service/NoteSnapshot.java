@@ -0,0 +1,202 @@
+package com.notasapp.service;
+
+import com.notasapp.model.Note;
+import com.notasapp.model.NoteCursor;
+import com.notasapp.model.NoteFeedEntry;
+import com.notasapp.model.NoteFeedPage;
+import com.notasapp.model.NotePage;
+import com.notasapp.model.NoteSummary;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copia en memoria de los resúmenes de las notas de un usuario durante una
+ * sesión de la consola, para que los listados no vuelvan a leer todas las
+ * notas cada vez que se muestran.
+ *
+ * La primera vez se cargan todos los resúmenes. Después, cada refresh() lee
+ * el registro de cambios (NotesService#changesSince) desde la última
+ * sincronización y aplica las notas creadas o modificadas y las eliminadas
+ * por otras sesiones. Si la última sincronización es anterior al plazo de
+ * retención de las eliminaciones, la copia se vuelve a cargar entera. Las
+ * escrituras de la propia sesión se aplican sobre la copia en el momento,
+ * sin esperar al siguiente refresco.
+ *
+ * No es segura para varios hilos: pertenece a una única sesión.
+ */
+public class NoteSnapshot {
+
+    // Orden de los listados: más reciente primero y, a igual fecha, ID mayor primero
+    private static final Comparator<NoteSummary> RECENT_FIRST = Comparator
+            .comparing(NoteSummary::getUpdatedAt).reversed()
+            .thenComparing(NoteSummary::getId, Comparator.reverseOrder());
+
+    // Cambios pedidos en cada página del registro de cambios
+    private static final int CHANGES_PAGE_SIZE = 100;
+
+    private final NotesService notesService;
+    private final String userId;
+
+    // Reloj con el que se fecha cada sincronización
+    private final Clock clock;
+
+    // Resúmenes por ID de nota
+    private final Map<String, NoteSummary> byId = new HashMap<>();
+
+    // Resúmenes en el orden de los listados, o null si hay que volver a ordenarlos
+    private List<NoteSummary> sorted;
+
+    // Momento de la última sincronización, o null si la copia aún no se ha cargado
+    private Date lastSync;
+
+    /**
+     * Constructor de la copia, que se carga en el primer refresh().
+     * @param notesService El servicio de notas
+     * @param userId El ID del usuario
+     */
+    public NoteSnapshot(NotesService notesService, String userId) {
+        this(notesService, userId, Clock.systemUTC());
+    }
+
+    /**
+     * Constructor con un reloj propio, para fijar en las pruebas el momento
+     * de cada sincronización.
+     * @param notesService El servicio de notas
+     * @param userId El ID del usuario
+     * @param clock El reloj con el que se fechan las sincronizaciones
+     */
+    NoteSnapshot(NotesService notesService, String userId, Clock clock) {
+        this.notesService = notesService;
+        this.userId = userId;
+        this.clock = clock;
+    }
+
+    /**
+     * Pone la copia al día: la carga entera la primera vez y, después, solo
+     * los cambios desde la última sincronización.
+     */
+    public void refresh() {
+        Date syncStart = Date.from(clock.instant());
+        if (lastSync == null) {
+            reload(syncStart);
+            return;
+        }
+
+        // Se vuelve a consultar el mismo margen que NotesService repite en el registro de cambios
+        NoteCursor cursor = NoteCursor.startingAt(
+                new Date(lastSync.getTime() - NotesService.CHANGES_SAFETY_LAG.toMillis()));
+        NoteFeedPage page;
+        do {
+            page = notesService.changesSince(userId, cursor, CHANGES_PAGE_SIZE);
+            if (page.isResyncRequired()) {
+                reload(syncStart);
+                return;
+            }
+            page.getChanges().forEach(this::apply);
+            cursor = page.getNextCursor();
+        } while (page.isHasMore());
+        lastSync = syncStart;
+    }
+
+    /**
+     * Obtiene una página de resúmenes de la copia, con los mismos cursores y
+     * el mismo orden que NotesService#getNotesPage.
+     * @param status El estado por el que filtrar, o null para todas las notas
+     * @param cursor El cursor de la página a la que se navega, o null para la primera página
+     * @param forward true si el cursor es el nextCursor de otra página, false si es su previousCursor
+     * @param size Número máximo de notas por página
+     * @return La página con sus cursores de navegación
+     */
+    public NotePage getPage(String status, NoteCursor cursor, boolean forward, int size) {
+        List<NoteSummary> notes = sorted();
+        if (status != null) {
+            notes = notes.stream().filter(summary -> status.equals(summary.getStatus())).toList();
+        }
+        if (cursor == null) {
+            List<NoteSummary> first = new ArrayList<>(notes.subList(0, Math.min(size, notes.size())));
+            return new NotePage(first, null, notes.size() > size ? NoteCursor.of(first.get(first.size() - 1)) : null);
+        }
+
+        // Posición del cursor en la lista; si su nota ya no está, la de la nota que la seguiría
+        NoteSummary probe = new NoteSummary();
+        probe.setId(cursor.getId());
+        probe.setUpdatedAt(cursor.getUpdatedAt());
+        int found = Collections.binarySearch(notes, probe, RECENT_FIRST);
+        int position = found >= 0 ? found : -(found + 1);
+
+        if (forward) {
+            int from = found >= 0 ? position + 1 : position;
+            List<NoteSummary> page = new ArrayList<>(notes.subList(from, Math.min(from + size, notes.size())));
+            NoteCursor previousCursor = page.isEmpty() ? cursor : NoteCursor.of(page.get(0));
+            NoteCursor nextCursor = from + size < notes.size() ? NoteCursor.of(page.get(page.size() - 1)) : null;
+            return new NotePage(page, previousCursor, nextCursor);
+        }
+
+        int from = Math.max(0, position - size);
+        if (from == position) {
+            return getPage(status, null, true, size);
+        }
+        List<NoteSummary> page = new ArrayList<>(notes.subList(from, position));
+        return new NotePage(page, from > 0 ? NoteCursor.of(page.get(0)) : null, NoteCursor.of(page.get(page.size() - 1)));
+    }
+
+    /**
+     * Añade o sustituye en la copia una nota creada o modificada en esta sesión.
+     * @param note La nota tal como quedó escrita
+     */
+    public void put(Note note) {
+        put(NoteSummary.of(note));
+    }
+
+    /**
+     * Quita de la copia una nota eliminada o que ya no existe.
+     * @param noteId El ID de la nota
+     */
+    public void remove(String noteId) {
+        if (byId.remove(noteId) != null) {
+            sorted = null;
+        }
+    }
+
+    /**
+     * Aplica a la copia un cambio del registro de cambios.
+     * @param change El cambio
+     */
+    private void apply(NoteFeedEntry change) {
+        if (change.isDeleted()) {
+            remove(change.getNoteId());
+        } else {
+            put(change.getNote());
+        }
+    }
+
+    private void put(NoteSummary summary) {
+        byId.put(summary.getId(), summary);
+        sorted = null;
+    }
+
+    /**
+     * Vuelve a cargar todos los resúmenes del usuario.
+     * @param syncStart El momento en que empezó la sincronización
+     */
+    private void reload(Date syncStart) {
+        byId.clear();
+        notesService.getNoteSummariesByUser(userId).forEach(summary -> byId.put(summary.getId(), summary));
+        sorted = null;
+        lastSync = syncStart;
+    }
+
+    private List<NoteSummary> sorted() {
+        if (sorted == null) {
+            sorted = new ArrayList<>(byId.values());
+            sorted.sort(RECENT_FIRST);
+        }
+        return sorted;
+    }
+};
@@ -0,0 +1,337 @@
+package com.notasapp.service;
+
+import com.notasapp.model.Note;
+import com.notasapp.model.NoteChange;
+import com.notasapp.model.NoteUpdateResult;
+import com.notasapp.repository.NoteStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Búfer de escritura diferida de las ediciones de notas.
+ *
+ * Las ediciones de título, contenido y estado no se escriben al momento: se
+ * combinan por nota y se escriben juntas en una sola operación masiva cuando
+ * hay max-pending notas pendientes o pasa flush-interval. Editar una nota
+ * varias veces seguidas se convierte así en una sola escritura.
+ *
+ * El control de versión se mantiene: cada edición se comprueba contra la
+ * versión que tendrá la nota con los cambios pendientes y la escritura final
+ * se condiciona a la versión almacenada cuando empezó a acumularse. Si otra
+ * sesión modifica o elimina la nota entretanto, los cambios pendientes se
+ * pierden y se cuentan para avisar al usuario.
+ *
+ * Se activa con notas.write-behind.enabled=true.
+ */
+@Component
+@ConditionalOnProperty(name = "notas.write-behind.enabled", havingValue = "true")
+public class NoteWriteBuffer {
+
+    private final NoteStore noteStore;
+
+    // Notas pendientes que provocan una escritura inmediata
+    private final int maxPending;
+
+    // Cambios pendientes por ID de nota, en orden de llegada (protegido por this)
+    private final Map<String, Pending> pending = new LinkedHashMap<>();
+
+    // Cambios que se están escribiendo; siguen visibles para las lecturas (protegido por this)
+    private final Map<String, Pending> inFlight = new HashMap<>();
+
+    // Escrituras terminadas, para saber si una nota leída fuera del monitor sigue vigente (protegido por this)
+    private long completedWrites;
+
+    // Solo una escritura a la vez, para que cada una parta de la anterior ya aplicada
+    private final Object flushLock = new Object();
+
+    // Notas cuyos cambios no se pudieron guardar y aún no se han avisado
+    private final AtomicInteger unreportedLost = new AtomicInteger();
+
+    private final Duration flushInterval;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Constructor que configura el búfer; la escritura periódica empieza en start.
+     * @param noteStore El almacenamiento de notas
+     * @param maxPending Número de notas pendientes que provoca una escritura inmediata
+     * @param flushInterval Tiempo máximo que un cambio espera a escribirse
+     */
+    public NoteWriteBuffer(NoteStore noteStore,
+                           @Value("${notas.write-behind.max-pending:64}") int maxPending,
+                           @Value("${notas.write-behind.flush-interval:500ms}") Duration flushInterval) {
+        this.noteStore = noteStore;
+        this.maxPending = maxPending;
+        this.flushInterval = flushInterval;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "note-write-buffer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Programa la escritura periódica, una vez construido el búfer.
+     */
+    @PostConstruct
+    public void start() {
+        long interval = flushInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::flushInBackground, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Añade una edición a los cambios pendientes de la nota.
+     * Si la nota no tiene cambios en el búfer se lee del almacenamiento fuera
+     * del monitor, para que esa espera no detenga las ediciones de otras notas
+     * ni las escrituras. Si entretanto terminó alguna escritura, la lectura
+     * puede haberse quedado atrás y se repite.
+     * @param noteId El ID de la nota
+     * @param userId El ID del usuario propietario
+     * @param expectedVersion La versión de la nota que se leyó antes de editarla
+     * @param title El nuevo título, o null
+     * @param content El nuevo contenido, o null
+     * @param status El nuevo estado, o null
+     * @param updatedAt La fecha de la edición
+     * @return UPDATED con la nota tal como quedará, CONFLICT con la versión actual o NOT_FOUND
+     */
+    public NoteUpdateResult update(String noteId, String userId, Long expectedVersion,
+                                   String title, String content, String status, Date updatedAt) {
+        NoteUpdateResult result;
+        boolean full;
+        Note stored = null;
+        long storedAt = -1;
+        while (true) {
+            long observedWrites;
+            synchronized (this) {
+                Pending entry = pending.get(noteId);
+                Note current = entry != null ? entry.note : projected(inFlight.get(noteId));
+                if (current == null && stored != null && storedAt == completedWrites) {
+                    current = stored;
+                }
+                if (current != null) {
+                    result = apply(entry, current, noteId, userId, expectedVersion, title, content, status, updatedAt);
+                    full = pending.size() >= maxPending;
+                    break;
+                }
+                observedWrites = completedWrites;
+            }
+
+            stored = noteStore.findByIdAndUserId(noteId, userId).orElse(null);
+            if (stored == null) {
+                return NoteUpdateResult.notFound();
+            }
+            storedAt = observedWrites;
+        }
+
+        if (full) {
+            writePending();
+        }
+        return result;
+    }
+
+    /**
+     * Comprueba la versión de una edición y la combina con los cambios pendientes de la nota.
+     * Debe llamarse con el monitor de this.
+     * @param entry Los cambios pendientes de la nota, o null si no tiene
+     * @param current La nota tal como quedará con los cambios pendientes
+     * @param noteId El ID de la nota
+     * @param userId El ID del usuario propietario
+     * @param expectedVersion La versión de la nota que se leyó antes de editarla
+     * @param title El nuevo título, o null
+     * @param content El nuevo contenido, o null
+     * @param status El nuevo estado, o null
+     * @param updatedAt La fecha de la edición
+     * @return UPDATED con la nota tal como quedará, CONFLICT con la versión actual o NOT_FOUND
+     */
+    private NoteUpdateResult apply(Pending entry, Note current, String noteId, String userId, Long expectedVersion,
+                                   String title, String content, String status, Date updatedAt) {
+        if (!current.getUserId().equals(userId)) {
+            return NoteUpdateResult.notFound();
+        }
+        if (!Objects.equals(expectedVersion, current.getVersion())) {
+            return NoteUpdateResult.conflict(copy(current));
+        }
+
+        if (entry == null) {
+            entry = new Pending(copy(current),
+                    new NoteChange(noteId, userId, current.getVersion(), null, null, null, updatedAt, 0));
+            pending.put(noteId, entry);
+        }
+        NoteChange change = entry.change;
+        if (title != null) {
+            change.setTitle(title);
+        }
+        if (content != null) {
+            change.setContent(content);
+        }
+        if (status != null) {
+            change.setStatus(status);
+        }
+        change.setUpdatedAt(updatedAt);
+        change.setEdits(change.getEdits() + 1);
+
+        // La versión se avanza en memoria para que la siguiente edición se compruebe contra ella
+        change.applyTo(entry.note);
+        return NoteUpdateResult.updated(copy(entry.note));
+    }
+
+    /**
+     * Obtiene una nota con sus cambios pendientes aplicados.
+     * @param noteId El ID de la nota
+     * @param userId El ID del usuario propietario
+     * @return La nota tal como quedará, o null si no tiene cambios pendientes
+     */
+    public synchronized Note find(String noteId, String userId) {
+        Pending entry = pending.containsKey(noteId) ? pending.get(noteId) : inFlight.get(noteId);
+        return entry != null && entry.note.getUserId().equals(userId) ? copy(entry.note) : null;
+    }
+
+    /**
+     * Descarta los cambios pendientes de una nota que se va a eliminar.
+     * Espera a que termine la escritura en curso, para que no se aplique
+     * después del borrado.
+     * @param noteId El ID de la nota
+     */
+    public void discard(String noteId) {
+        synchronized (flushLock) {
+            synchronized (this) {
+                pending.remove(noteId);
+            }
+        }
+    }
+
+    /**
+     * Escribe todos los cambios pendientes en una sola operación masiva.
+     * @return Número de notas cuyos cambios no se pudieron guardar desde el
+     *         último aviso, porque cambiaron o se eliminaron desde otra sesión
+     */
+    public int flush() {
+        writePending();
+        return unreportedLost.getAndSet(0);
+    }
+
+    /**
+     * Escribe los cambios pendientes y acumula las notas cuyos cambios no se
+     * aplicaron, sin consumir el aviso. Si la escritura falla, los cambios
+     * vuelven a quedar pendientes.
+     */
+    public void writePending() {
+        synchronized (flushLock) {
+            List<Pending> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = new ArrayList<>(pending.values());
+                inFlight.putAll(pending);
+                pending.clear();
+            }
+
+            boolean written = false;
+            try {
+                List<String> rejected = noteStore.applyChanges(batch.stream().map(entry -> entry.change).toList());
+                unreportedLost.addAndGet(rejected.size());
+                written = true;
+            } finally {
+                synchronized (this) {
+                    for (Pending entry : batch) {
+                        inFlight.remove(entry.change.getNoteId());
+                        if (!written) {
+                            restore(entry);
+                        }
+                    }
+                    completedWrites++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Escribe los cambios pendientes al cerrar la aplicación.
+     */
+    @PreDestroy
+    public void close() {
+        scheduler.shutdown();
+        flush();
+    }
+
+    /**
+     * Escritura periódica. Si falla (por ejemplo, sin conexión con la base de
+     * datos), los cambios siguen pendientes y se reintentan en la siguiente.
+     */
+    private void flushInBackground() {
+        try {
+            writePending();
+        } catch (RuntimeException e) {
+            // Se reintenta en la siguiente ejecución
+        }
+    }
+
+    /**
+     * Devuelve a pendientes unos cambios cuya escritura falló. Si entretanto
+     * llegaron nuevas ediciones de la nota, se combinan: las nuevas parten de
+     * la versión que habría dejado la escritura fallida.
+     * Debe llamarse con el monitor de this.
+     * @param failed Los cambios no escritos
+     */
+    private void restore(Pending failed) {
+        String noteId = failed.change.getNoteId();
+        Pending newer = pending.get(noteId);
+        if (newer == null) {
+            pending.put(noteId, failed);
+            return;
+        }
+        NoteChange change = failed.change;
+        NoteChange later = newer.change;
+        change.setTitle(later.getTitle() != null ? later.getTitle() : change.getTitle());
+        change.setContent(later.getContent() != null ? later.getContent() : change.getContent());
+        change.setStatus(later.getStatus() != null ? later.getStatus() : change.getStatus());
+        change.setUpdatedAt(later.getUpdatedAt());
+        change.setEdits(change.getEdits() + later.getEdits());
+        pending.put(noteId, new Pending(newer.note, change));
+    }
+
+    private static Note projected(Pending entry) {
+        return entry == null ? null : entry.note;
+    }
+
+    private static Note copy(Note source) {
+        Note note = new Note();
+        note.setId(source.getId());
+        note.setUserId(source.getUserId());
+        note.setTitle(source.getTitle());
+        note.setContent(source.getContent());
+        note.setStatus(source.getStatus());
+        note.setCreatedAt(source.getCreatedAt());
+        note.setUpdatedAt(source.getUpdatedAt());
+        note.setVersion(source.getVersion());
+        return note;
+    }
+
+    /**
+     * Cambios pendientes de una nota y la nota tal como quedará al aplicarlos.
+     */
+    private static class Pending {
+        private final Note note;
+        private final NoteChange change;
+
+        Pending(Note note, NoteChange change) {
+            this.note = note;
+            this.change = change;
+        }
+    }
+};
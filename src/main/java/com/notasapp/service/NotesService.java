@@ -1,30 +1,73 @@
 package com.notasapp.service;
 
+import com.notasapp.model.BulkBatchResult;
+import com.notasapp.model.BulkOptions;
+import com.notasapp.model.BulkResult;
+import com.notasapp.model.ExportFormat;
 import com.notasapp.model.Note;
-import com.notasapp.repository.NoteRepository;
+import com.notasapp.model.NoteCursor;
+import com.notasapp.model.NoteFeedEntry;
+import com.notasapp.model.NoteFeedPage;
+import com.notasapp.model.NotePage;
+import com.notasapp.model.NoteSearchHit;
+import com.notasapp.model.NoteSummary;
+import com.notasapp.model.NoteUpdateResult;
+import com.notasapp.repository.NoteStore;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Date;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Servicio que maneja la lógica de negocio relacionada con las notas.
  * Actúa como intermediario entre el controlador y el repositorio.
  */
 @Service
+@Timed("notas.service")
 public class NotesService {
 
-    // Repositorio para acceder a la base de datos de notas
-    private final NoteRepository noteRepository;
+    // Número de notas exportadas entre cada vaciado del búfer del fichero
+    private static final int EXPORT_FLUSH_INTERVAL = 1000;
+
+    // Margen que se vuelve a servir del registro de cambios: las fechas de los cambios las pone
+    // cada instancia con su reloj, y un cambio puede quedar escrito con una fecha algo anterior
+    static final Duration CHANGES_SAFETY_LAG = Duration.ofSeconds(5);
+
+    // Almacenamiento de notas (MongoDB o embebido, según el perfil)
+    private final NoteStore noteStore;
     private final UserService userService;
 
+    // Búfer de escritura diferida de las ediciones, o null si no está activado
+    private final NoteWriteBuffer writeBuffer;
+
+    // Tiempo que se conservan las marcas de las notas eliminadas
+    private final Duration tombstoneRetention;
+
     /**
-     * Constructor que inyecta el repositorio de notas.
-     * @param noteRepository El repositorio de notas a utilizar
+     * Constructor que inyecta el almacenamiento de notas.
+     * @param noteStore El almacenamiento de notas a utilizar
      * @param userService El servicio de usuarios
+     * @param writeBuffer El búfer de escritura diferida, si está activado (notas.write-behind.enabled)
+     * @param tombstoneRetention Tiempo que se conservan las marcas de eliminación (notas.tombstones.retention)
      */
-    public NotesService(NoteRepository noteRepository, UserService userService) {
-        this.noteRepository = noteRepository;
+    public NotesService(NoteStore noteStore, UserService userService, ObjectProvider<NoteWriteBuffer> writeBuffer,
+                        @Value("${notas.tombstones.retention:7d}") Duration tombstoneRetention) {
+        this.noteStore = noteStore;
         this.userService = userService;
+        this.writeBuffer = writeBuffer.getIfAvailable();
+        this.tombstoneRetention = tombstoneRetention;
     }
 
     /**
@@ -33,7 +76,8 @@ public class NotesService {
      * @return Lista de notas pertenecientes al usuario
      */
     public List<Note> getAllNotesByUser(String userId) {
-        return noteRepository.findByUserId(userId);
+        writePendingEdits();
+        return noteStore.findByUser(userId, null);
     }
 
     /**
@@ -43,7 +87,168 @@ public class NotesService {
      * @return Lista de notas del usuario que tienen el estado especificado
      */
     public List<Note> getNotesByStatus(String userId, String status) {
-        return noteRepository.findByUserIdAndStatus(userId, status);
+        writePendingEdits();
+        return noteStore.findByUser(userId, status);
+    }
+
+    /**
+     * Obtiene los resúmenes de todas las notas de un usuario para las pantallas de listado.
+     * @param userId El ID del usuario
+     * @return Lista de resúmenes (id, título, estado) de las notas del usuario
+     */
+    public List<NoteSummary> getNoteSummariesByUser(String userId) {
+        writePendingEdits();
+        return noteStore.findSummaries(userId, null);
+    }
+
+    /**
+     * Obtiene los resúmenes de las notas de un usuario filtradas por estado.
+     * @param userId El ID del usuario
+     * @param status El estado por el que filtrar las notas
+     * @return Lista de resúmenes de las notas con el estado especificado
+     */
+    public List<NoteSummary> getNoteSummariesByStatus(String userId, String status) {
+        writePendingEdits();
+        return noteStore.findSummaries(userId, status);
+    }
+
+    /**
+     * Obtiene los cambios de las notas de un usuario posteriores a un cursor,
+     * para sincronizar una copia local sin volver a leer todas las notas: las
+     * notas creadas o modificadas, completas, y las marcas de las eliminadas,
+     * del cambio más antiguo al más reciente.
+     *
+     * El cliente guarda el nextCursor de cada página y lo envía en la
+     * siguiente llamada. Si su cursor es anterior al plazo de retención de las
+     * marcas, pueden haberse perdido eliminaciones: la página lo indica con
+     * resyncRequired y el cliente debe volver a cargar todas las notas.
+     *
+     * El nextCursor de la última página no pasa de CHANGES_SAFETY_LAG antes
+     * del momento actual, así que los cambios de los últimos segundos se
+     * vuelven a servir en la siguiente llamada. Así no se pierde un cambio
+     * que otra instancia, con el reloj algo retrasado o a mitad de una
+     * eliminación, escriba con una fecha ya superada por el cursor. Aplicar
+     * de nuevo un cambio repetido no tiene efecto.
+     * @param userId El ID del usuario
+     * @param cursor El nextCursor de la última página recibida, o null para recibir todas las notas
+     * @param size Número máximo de cambios por página
+     * @return La página de cambios
+     */
+    public NoteFeedPage changesSince(String userId, NoteCursor cursor, int size) {
+        writePendingEdits();
+        boolean resyncRequired = cursor != null
+                && cursor.getUpdatedAt().getTime() < System.currentTimeMillis() - tombstoneRetention.toMillis();
+
+        // Se pide un cambio de más para saber si hay otra página
+        List<NoteFeedEntry> changes = new ArrayList<>(noteStore.findChangesSince(userId, cursor, size + 1));
+        boolean hasMore = changes.size() > size;
+        if (hasMore) {
+            changes.remove(size);
+        }
+        NoteCursor nextCursor = changes.isEmpty() ? cursor : changes.get(changes.size() - 1).toCursor();
+        if (!hasMore) {
+            nextCursor = heldBack(nextCursor);
+        }
+        return new NoteFeedPage(changes, nextCursor, hasMore, resyncRequired);
+    }
+
+    /**
+     * Retrasa un cursor que cae dentro del margen de seguridad del registro de
+     * cambios hasta el comienzo de ese margen.
+     * @param cursor El cursor, o null si el cliente aún no ha recibido cambios
+     * @return El cursor, o el que se sitúa CHANGES_SAFETY_LAG antes del momento actual si era posterior
+     */
+    private static NoteCursor heldBack(NoteCursor cursor) {
+        Date safeLimit = new Date(System.currentTimeMillis() - CHANGES_SAFETY_LAG.toMillis());
+        if (cursor == null || !cursor.getUpdatedAt().after(safeLimit)) {
+            return cursor;
+        }
+        return NoteCursor.startingAt(safeLimit);
+    }
+
+    /**
+     * Obtiene una página de resúmenes de notas de un usuario, de la más reciente
+     * a la más antigua, usando paginación por clave sobre (updatedAt, _id).
+     * El coste de cada página no depende del número total de notas del usuario.
+     * @param userId El ID del usuario
+     * @param status El estado por el que filtrar, o null para todas las notas
+     * @param cursor El cursor de la página a la que se navega, o null para la primera página
+     * @param forward true si el cursor es el nextCursor de otra página, false si es su previousCursor
+     * @param size Número máximo de notas por página
+     * @return La página con sus cursores de navegación
+     */
+    public NotePage getNotesPage(String userId, String status, NoteCursor cursor, boolean forward, int size) {
+        if (cursor == null) {
+            forward = true;
+        }
+        writePendingEdits();
+
+        // Se pide una nota de más para saber si existe otra página en el mismo sentido
+        List<NoteSummary> slice = noteStore.findSummarySlice(userId, status, cursor, forward, size + 1);
+        boolean hasMore = slice.size() > size;
+
+        if (!forward && slice.isEmpty()) {
+            return getNotesPage(userId, status, null, true, size);
+        }
+
+        List<NoteSummary> notes;
+        NoteCursor previousCursor;
+        NoteCursor nextCursor;
+        if (forward) {
+            notes = new ArrayList<>(slice.subList(0, Math.min(size, slice.size())));
+            previousCursor = cursor == null ? null : notes.isEmpty() ? cursor : NoteCursor.of(notes.get(0));
+            nextCursor = hasMore ? NoteCursor.of(notes.get(notes.size() - 1)) : null;
+        } else {
+            // Hacia atrás la nota sobrante es la más reciente, al principio de la lista
+            notes = new ArrayList<>(slice.subList(hasMore ? 1 : 0, slice.size()));
+            previousCursor = hasMore ? NoteCursor.of(notes.get(0)) : null;
+            nextCursor = NoteCursor.of(notes.get(notes.size() - 1));
+        }
+
+        return new NotePage(notes, previousCursor, nextCursor);
+    }
+
+    /**
+     * Busca notas de un usuario por palabras de su título o contenido.
+     * La búsqueda la resuelve el índice de texto en el servidor y los resultados
+     * llegan ordenados por relevancia, dando más peso al título.
+     * @param userId El ID del usuario
+     * @param text Las palabras a buscar
+     * @param page El número de página, empezando en 0
+     * @param size Número de resultados por página
+     * @return Los resultados de la página, del más al menos relevante
+     */
+    public List<NoteSearchHit> searchNotes(String userId, String text, int page, int size) {
+        writePendingEdits();
+        return noteStore.search(userId, text, page, size);
+    }
+
+    /**
+     * Obtiene una nota completa, incluido su contenido.
+     * Con la escritura diferida activada, incluye las ediciones aún no escritas.
+     * @param noteId El ID de la nota
+     * @param userId El ID del usuario propietario
+     * @return La nota, o null si no existe o pertenece a otro usuario
+     */
+    public Note getNote(String noteId, String userId) {
+        if (writeBuffer != null) {
+            Note buffered = writeBuffer.find(noteId, userId);
+            if (buffered != null) {
+                return buffered;
+            }
+        }
+        return noteStore.findByIdAndUserId(noteId, userId).orElse(null);
+    }
+
+    /**
+     * Cuenta las notas de un usuario que tienen un estado específico.
+     * @param userId El ID del usuario
+     * @param status El estado a contar
+     * @return Número de notas con ese estado
+     */
+    public long countNotesByStatus(String userId, String status) {
+        writePendingEdits();
+        return noteStore.count(userId, status);
     }
 
     /**
@@ -68,44 +273,70 @@ public class NotesService {
         note.setCreatedAt(new Date());
         note.setUpdatedAt(new Date());
 
-        return noteRepository.save(note);
+        return noteStore.insert(note);
     }
 
     /**
      * Actualiza el estado de una nota existente.
+     * La comprobación del propietario, de la versión y la escritura se hacen en
+     * una sola operación condicional en el servidor, sin bloqueos.
      * @param noteId El ID de la nota
      * @param userId El ID del usuario propietario
      * @param newStatus El nuevo estado
-     * @return La nota actualizada, o null si no se encuentra o el estado no es válido
+     * @param expectedVersion La versión de la nota que se leyó antes de editarla
+     * @return El resultado: UPDATED, CONFLICT con la nota actual, NOT_FOUND o REJECTED si el estado no es válido
      */
-    public Note updateNoteStatus(String noteId, String userId, String newStatus) {
+    public NoteUpdateResult updateNoteStatus(String noteId, String userId, String newStatus, Long expectedVersion) {
         // Verificar que el estado sea válido para este usuario
         if (!userService.isStatusAvailable(userId, newStatus)) {
-            return null;
+            return NoteUpdateResult.rejected();
         };
 
-        Note note = noteRepository.findById(noteId).orElse(null);
-
-        if (note != null && note.getUserId().equals(userId)) {
-            note.setStatus(newStatus);
-            note.setUpdatedAt(new Date());
-            return noteRepository.save(note);
+        if (writeBuffer != null) {
+            return writeBuffer.update(noteId, userId, expectedVersion, null, null, newStatus, new Date());
         };
-
-        return null;
+        return noteStore.updateStatus(noteId, userId, expectedVersion, newStatus, new Date());
     };
 
     /**
-     * Actualiza una nota existente.
-     * @param note La nota a actualizar
-     * @return La nota actualizada, o null si no se encuentra
+     * Actualiza el título y/o el contenido de una nota existente.
+     * Solo se envían al servidor los campos que cambian, en una sola operación
+     * condicional sobre {_id, userId, version}. Si la nota cambió desde que se
+     * leyó, la escritura no se aplica y se devuelve un conflicto.
+     * Con la escritura diferida activada, el cambio se combina con las demás
+     * ediciones pendientes de la nota y se escribe más tarde.
+     * @param noteId El ID de la nota
+     * @param userId El ID del usuario propietario
+     * @param title El nuevo título, o null para conservarlo
+     * @param content El nuevo contenido, o null para conservarlo
+     * @param expectedVersion La versión de la nota que se leyó antes de editarla
+     * @return El resultado: UPDATED, CONFLICT con la nota actual o NOT_FOUND
+     */
+    public NoteUpdateResult updateNote(String noteId, String userId, String title, String content, Long expectedVersion) {
+        return updateNote(noteId, userId, title, content, null, expectedVersion);
+    }
+
+    /**
+     * Actualiza el título, el contenido y/o el estado de una nota existente en
+     * una sola escritura versionada. El estado se valida antes de escribir, así
+     * que un estado no válido no deja aplicado ningún otro cambio.
+     * @param noteId El ID de la nota
+     * @param userId El ID del usuario propietario
+     * @param title El nuevo título, o null para conservarlo
+     * @param content El nuevo contenido, o null para conservarlo
+     * @param status El nuevo estado, o null para conservarlo
+     * @param expectedVersion La versión de la nota que se leyó antes de editarla
+     * @return El resultado: UPDATED, CONFLICT con la nota actual, NOT_FOUND o REJECTED si el estado no es válido
      */
-    public Note updateNote(Note note) {
-        Note existingNote = noteRepository.findById(note.getId()).orElse(null);
-        if (existingNote != null && existingNote.getUserId().equals(note.getUserId())) {
-            return noteRepository.save(note);
+    public NoteUpdateResult updateNote(String noteId, String userId, String title, String content, String status,
+                                       Long expectedVersion) {
+        if (status != null && !userService.isStatusAvailable(userId, status)) {
+            return NoteUpdateResult.rejected();
         }
-        return null;
+        if (writeBuffer != null) {
+            return writeBuffer.update(noteId, userId, expectedVersion, title, content, status, new Date());
+        }
+        return noteStore.updateFields(noteId, userId, expectedVersion, title, content, status, new Date());
     }
 
     /**
@@ -115,28 +346,215 @@ public class NotesService {
      * @return true si se eliminó correctamente, false en caso contrario
      */
     public boolean deleteNote(String noteId, String userId) {
-        Note note = noteRepository.findById(noteId).orElse(null);
-        if (note != null && note.getUserId().equals(userId)) {
-            noteRepository.delete(note);
-            return true;
+        if (writeBuffer != null) {
+            writeBuffer.discard(noteId);
         }
-        return false;
+        return noteStore.delete(noteId, userId);
     }
 
     /**
-     * Elimina una nota por su título y el ID del usuario propietario.
-     * @param title El título de la nota a eliminar
+     * Elimina las notas de un usuario con un título exacto.
+     * El borrado se resuelve en el servidor con una sola operación sobre el
+     * índice (userId, title), sin cargar las notas del usuario.
+     * @param title El título de las notas a eliminar
      * @param userId El ID del usuario propietario
-     * @return true si se eliminó correctamente, false en caso contrario
+     * @return Número de notas eliminadas
+     */
+    public long deleteNoteByTitle(String title, String userId) {
+        writePendingEdits();
+        return noteStore.deleteByTitle(userId, title, false);
+    }
+
+    /**
+     * Elimina las notas de un usuario cuyo título empieza por un prefijo.
+     * El prefijo se busca literalmente y no puede estar en blanco, porque
+     * coincidiría con todas las notas del usuario.
+     * @param titlePrefix El prefijo del título
+     * @param userId El ID del usuario propietario
+     * @return Número de notas eliminadas
+     * @throws IllegalArgumentException si el prefijo está vacío o en blanco
+     */
+    public long deleteNotesByTitlePrefix(String titlePrefix, String userId) {
+        if (titlePrefix == null || titlePrefix.isBlank()) {
+            throw new IllegalArgumentException("El prefijo del título no puede estar vacío");
+        }
+        writePendingEdits();
+        return noteStore.deleteByTitle(userId, titlePrefix, true);
+    }
+
+    /**
+     * Crea muchas notas de un usuario mediante escrituras masivas por lotes.
+     * Los estados se validan una vez por lote contra una instantánea de los
+     * estados del usuario; las notas con un estado no válido se descartan.
+     * En modo ordenado la creación se detiene en la primera escritura que
+     * falla: las notas restantes, de ese lote y de los siguientes, se cuentan
+     * como no intentadas en el lote del error. En modo no ordenado un error
+     * no impide escribir el resto.
+     * @param userId El ID del usuario propietario
+     * @param notes Las notas a crear (se ignoran su ID y su propietario)
+     * @param options El tamaño de lote y si las escrituras son ordenadas
+     * @return El resultado de cada lote ejecutado
      */
-    public boolean deleteNoteByTitle(String title, String userId) {
-        List<Note> notes = noteRepository.findByUserId(userId);
-        for (Note note : notes) {
-            if (note.getTitle().equals(title)) {
-                noteRepository.delete(note);
-                return true;
+    public BulkResult createNotes(String userId, List<Note> notes, BulkOptions options) {
+        BulkResult result = new BulkResult();
+        int batchNumber = 0;
+
+        for (int from = 0; from < notes.size(); from += options.getBatchSize()) {
+            int to = Math.min(from + options.getBatchSize(), notes.size());
+            List<Note> batch = notes.subList(from, to);
+            Set<String> statuses = new HashSet<>(userService.getAvailableStatuses(userId));
+            Date now = new Date();
+
+            List<Note> valid = new ArrayList<>(batch.size());
+            for (Note note : batch) {
+                if (statuses.contains(note.getStatus())) {
+                    valid.add(prepareForInsert(note, userId, now));
+                }
+            }
+
+            batchNumber++;
+            BulkBatchResult batchResult = valid.isEmpty()
+                    ? new BulkBatchResult(batchNumber, 0, 0, 0, 0, 0, 0, 0)
+                    : noteStore.insertBatch(batchNumber, valid, options.isOrdered());
+            batchResult.setRejected(batch.size() - valid.size());
+            result.add(batchResult);
+
+            if (options.isOrdered() && batchResult.getFailed() > 0) {
+                batchResult.setSkipped(batchResult.getSkipped() + notes.size() - to);
+                break;
             }
         }
-        return false;
+
+        return result;
+    }
+
+    /**
+     * Cambia a un nuevo estado todas las notas de un usuario que tienen un estado dado,
+     * mediante escrituras masivas por lotes. El nuevo estado se valida una sola vez.
+     * @param userId El ID del usuario propietario
+     * @param fromStatus El estado actual de las notas a cambiar
+     * @param newStatus El nuevo estado
+     * @param options El tamaño de lote y si las escrituras son ordenadas
+     * @return El resultado de cada lote, o null si el nuevo estado no es válido
+     */
+    public BulkResult changeNotesStatus(String userId, String fromStatus, String newStatus, BulkOptions options) {
+        if (!userService.isStatusAvailable(userId, newStatus)) {
+            return null;
+        };
+
+        writePendingEdits();
+        BulkResult result = new BulkResult();
+        if (fromStatus.equals(newStatus)) {
+            return result;
+        }
+
+        int batchNumber = 0;
+        List<String> ids;
+        // Las notas cambiadas dejan de cumplir el filtro, así que cada lote lee las siguientes
+        while (!(ids = noteStore.findIds(userId, fromStatus, options.getBatchSize())).isEmpty()) {
+            BulkBatchResult batchResult = noteStore.updateStatusBatch(++batchNumber, userId, ids,
+                    fromStatus, newStatus, new Date(), options.isOrdered());
+            result.add(batchResult);
+            if (batchResult.getModified() == 0 || ids.size() < options.getBatchSize()) {
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Elimina todas las notas de un usuario que cumplen un filtro, mediante
+     * escrituras masivas por lotes.
+     * @param userId El ID del usuario propietario
+     * @param status El estado de las notas a eliminar, o null para eliminar todas
+     * @param options El tamaño de lote y si las escrituras son ordenadas
+     * @return El resultado de cada lote
+     */
+    public BulkResult deleteNotesByFilter(String userId, String status, BulkOptions options) {
+        writePendingEdits();
+        BulkResult result = new BulkResult();
+        int batchNumber = 0;
+        List<String> ids;
+
+        while (!(ids = noteStore.findIds(userId, status, options.getBatchSize())).isEmpty()) {
+            BulkBatchResult batchResult = noteStore.deleteBatch(++batchNumber, userId, ids, options.isOrdered());
+            result.add(batchResult);
+            if (batchResult.getDeleted() == 0 || ids.size() < options.getBatchSize()) {
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Exporta todas las notas de un usuario a un fichero JSON Lines o CSV.
+     * Las notas se leen con un cursor del servidor y se escriben según llegan,
+     * vaciando el búfer del fichero cada EXPORT_FLUSH_INTERVAL (1000) notas,
+     * por lo que la memoria usada no depende del número de notas del usuario.
+     * @param userId El ID del usuario
+     * @param target El fichero de destino (se sobrescribe si existe)
+     * @param format El formato de salida
+     * @return Número de notas exportadas
+     * @throws IOException si no se puede escribir el fichero
+     */
+    public long exportNotes(String userId, Path target, ExportFormat format) throws IOException {
+        long exported = 0;
+        writePendingEdits();
+
+        try (BufferedWriter writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8);
+             Stream<Note> notes = noteStore.streamByUser(userId)) {
+            NoteExportWriter exportWriter = new NoteExportWriter(writer, format);
+            exportWriter.writeHeader();
+
+            for (Note note : (Iterable<Note>) notes::iterator) {
+                exportWriter.write(note);
+                if (++exported % EXPORT_FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+            }
+        }
+
+        return exported;
+    }
+
+    /**
+     * Escribe las ediciones pendientes del búfer de escritura diferida, por
+     * ejemplo al cerrar la sesión.
+     * @return Número de notas cuyas ediciones no se pudieron guardar porque
+     *         cambiaron o se eliminaron desde otra sesión (0 sin búfer)
+     */
+    public int flushPendingWrites() {
+        return writeBuffer == null ? 0 : writeBuffer.flush();
+    }
+
+    /**
+     * Escribe las ediciones pendientes antes de una lectura o escritura que
+     * consulta el almacenamiento, para que vea siempre las ediciones propias.
+     */
+    private void writePendingEdits() {
+        if (writeBuffer != null) {
+            writeBuffer.writePending();
+        }
+    }
+
+    /**
+     * Prepara una copia de la nota para insertarla como nota nueva del usuario.
+     * @param source La nota recibida
+     * @param userId El ID del usuario propietario
+     * @param now La fecha a usar si la nota no trae fechas
+     * @return La nota lista para insertar
+     */
+    private Note prepareForInsert(Note source, String userId, Date now) {
+        Note note = new Note();
+        note.setUserId(userId);
+        note.setTitle(source.getTitle());
+        note.setContent(source.getContent());
+        note.setStatus(source.getStatus());
+        note.setCreatedAt(source.getCreatedAt() != null ? source.getCreatedAt() : now);
+        note.setUpdatedAt(source.getUpdatedAt() != null ? source.getUpdatedAt() : now);
+        note.setVersion(0L);
+        return note;
     }
-};
\ No newline at end of file
+};
@@ -0,0 +1,147 @@
+package com.notasapp.service;
+
+import com.notasapp.model.ExportFormat;
+import com.notasapp.model.Note;
+import com.notasapp.model.NoteSummary;
+import com.notasapp.repository.reactive.ReactiveNoteRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Versión no bloqueante de los listados y la exportación de NotesService,
+ * sobre el repositorio reactivo. Ninguna lectura ocupa un hilo mientras
+ * espera a MongoDB, por lo que un mismo proceso puede atender muchos más
+ * listados concurrentes que con un hilo de plataforma por petición.
+ *
+ * Lee lo que ya está guardado en MongoDB: las ediciones que aún esperan en el
+ * búfer de escritura diferida de una sesión no se ven hasta que se escriben.
+ * La consola y las escrituras siguen usando NotesService.
+ */
+@Service
+@Profile("!embedded")
+public class ReactiveNotesService {
+
+    // Número de notas exportadas entre cada vaciado del búfer del fichero
+    private static final int EXPORT_FLUSH_INTERVAL = 1000;
+
+    // Notas pedidas por adelantado al cursor durante una exportación
+    private static final int EXPORT_PREFETCH = 500;
+
+    private final ReactiveNoteRepository noteRepository;
+
+    /**
+     * Constructor que inyecta el repositorio reactivo de notas.
+     * @param noteRepository El repositorio reactivo de notas
+     */
+    public ReactiveNotesService(ReactiveNoteRepository noteRepository) {
+        this.noteRepository = noteRepository;
+    }
+
+    /**
+     * Obtiene todas las notas de un usuario a medida que llegan del cursor.
+     * @param userId El ID del usuario
+     * @return Flux de notas del usuario
+     */
+    public Flux<Note> getAllNotesByUser(String userId) {
+        return noteRepository.findByUserId(userId);
+    }
+
+    /**
+     * Obtiene los resúmenes de las notas de un usuario, sin su contenido.
+     * @param userId El ID del usuario
+     * @return Flux de resúmenes de las notas del usuario
+     */
+    public Flux<NoteSummary> getNoteSummariesByUser(String userId) {
+        return noteRepository.findSummariesByUserId(userId);
+    }
+
+    /**
+     * Obtiene los resúmenes de las notas de un usuario con un estado específico.
+     * @param userId El ID del usuario
+     * @param status El estado de las notas a buscar
+     * @return Flux de resúmenes filtrados por usuario y estado
+     */
+    public Flux<NoteSummary> getNoteSummariesByStatus(String userId, String status) {
+        return noteRepository.findSummariesByUserIdAndStatus(userId, status);
+    }
+
+    /**
+     * Exporta todas las notas de un usuario a un fichero JSON Lines o CSV.
+     * Las escrituras en el fichero se hacen en un hilo de E/S y las notas se
+     * piden al cursor de EXPORT_PREFETCH en EXPORT_PREFETCH según se escriben,
+     * de modo que un disco lento frena la lectura en lugar de acumular notas en memoria.
+     * @param userId El ID del usuario
+     * @param target El fichero de destino (se sobrescribe si existe)
+     * @param format El formato de salida
+     * @return Número de notas exportadas
+     */
+    public Mono<Long> exportNotes(String userId, Path target, ExportFormat format) {
+        return Mono.using(
+                () -> Files.newBufferedWriter(target, StandardCharsets.UTF_8),
+                writer -> {
+                    NoteExportWriter exportWriter = new NoteExportWriter(writer, format);
+                    return Mono.fromRunnable(() -> writeHeader(exportWriter))
+                            .thenMany(noteRepository.findByUserId(userId))
+                            .publishOn(Schedulers.boundedElastic(), EXPORT_PREFETCH)
+                            .index()
+                            .doOnNext(indexed -> writeNote(writer, exportWriter, indexed.getT2(), indexed.getT1() + 1))
+                            .count();
+                },
+                this::closeWriter)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Escribe la cabecera de la exportación.
+     * @param exportWriter El escritor de la exportación
+     * @throws UncheckedIOException si falla la escritura
+     */
+    private void writeHeader(NoteExportWriter exportWriter) {
+        try {
+            exportWriter.writeHeader();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Escribe una nota exportada y vacía el búfer del fichero cada EXPORT_FLUSH_INTERVAL notas.
+     * @param writer El fichero de destino
+     * @param exportWriter El escritor de la exportación
+     * @param note La nota a escribir
+     * @param exported Número de notas escritas contando esta
+     * @throws UncheckedIOException si falla la escritura
+     */
+    private void writeNote(BufferedWriter writer, NoteExportWriter exportWriter, Note note, long exported) {
+        try {
+            exportWriter.write(note);
+            if (exported % EXPORT_FLUSH_INTERVAL == 0) {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Cierra el fichero de la exportación al terminar, con o sin error.
+     * @param writer El fichero de destino
+     * @throws UncheckedIOException si no se puede cerrar
+     */
+    private void closeWriter(BufferedWriter writer) {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+};
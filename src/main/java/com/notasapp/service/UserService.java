@@ -1,74 +1,84 @@
 package com.notasapp.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.notasapp.model.User;
-import com.notasapp.repository.UserRepository;
+import com.notasapp.repository.UserStore;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import java.time.Duration;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Servicio que maneja la lógica de negocio relacionada con los usuarios.
+ * Mantiene una caché en memoria de usuarios, acotada en tamaño y con caducidad,
+ * para que las comprobaciones de estados no requieran un viaje a la base de datos.
  */
 @Service
+@Timed("notas.service")
 public class UserService {
 
-    private final UserRepository userRepository;
+    // Almacenamiento de usuarios (MongoDB o embebido, según el perfil)
+    private final UserStore userStore;
+
+    // Caché de usuarios por nombre de usuario; sus instancias no se modifican nunca
+    private final Cache<String, User> userCache;
 
     /**
-     * Constructor que inyecta el repositorio de usuarios.
-     * @param userRepository El repositorio de usuarios
+     * Constructor que inyecta el almacenamiento de usuarios y configura la caché.
+     * @param userStore El almacenamiento de usuarios
+     * @param cacheMaximumSize Número máximo de usuarios en caché
+     * @param cacheTtl Tiempo que un usuario permanece en caché desde que se cargó
      */
-    public UserService(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public UserService(UserStore userStore,
+                       @Value("${notas.user-cache.maximum-size:10000}") long cacheMaximumSize,
+                       @Value("${notas.user-cache.ttl:10m}") Duration cacheTtl) {
+        this.userStore = userStore;
+        this.userCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
     };
 
     /**
      * Obtiene o crea un usuario por su nombre de usuario.
+     * Se resuelve en un solo viaje a la base de datos con un upsert atómico,
+     * por lo que dos inicios de sesión simultáneos nunca crean usuarios duplicados.
+     * Si el usuario está en caché no se accede a la base de datos.
      * @param username El nombre de usuario
      * @return El usuario existente o uno nuevo
      */
     public User getOrCreateUser(String username) {
-        User user = userRepository.findByUsername(username);
-
-        if (user == null) {
-            user = new User(username);
-            userRepository.save(user);
-        };
-
-        return user;
+        return userCache.get(username, userStore::upsertByUsername);
     };
 
     /**
      * Añade un nuevo estado a la lista de estados disponibles del usuario.
+     * El cambio se aplica de forma atómica en el almacenamiento, por lo que
+     * no se pierden las ediciones simultáneas de otras sesiones.
      * @param username El nombre de usuario
      * @param status El nuevo estado a añadir
      * @return true si se añadió correctamente, false si ya existía
      */
     public boolean addStatusToUser(String username, String status) {
-        User user = getOrCreateUser(username);
-        boolean added = user.addStatus(status);
-
-        if (added) {
-            userRepository.save(user);
-        };
-
-        return added;
+        getOrCreateUser(username);
+        return updateAndCache(username, () -> userStore.addStatus(username, status));
     };
 
     /**
      * Elimina un estado de la lista de estados disponibles del usuario.
+     * El cambio se aplica de forma atómica en el almacenamiento.
      * @param username El nombre de usuario
      * @param status El estado a eliminar
      * @return true si se eliminó correctamente, false si no se pudo eliminar
      */
     public boolean removeStatusFromUser(String username, String status) {
-        User user = getOrCreateUser(username);
-        boolean removed = user.removeStatus(status);
-
-        if (removed) {
-            userRepository.save(user);
-        };
-
-        return removed;
+        getOrCreateUser(username);
+        return updateAndCache(username, () -> userStore.removeStatus(username, status));
     };
 
     /**
@@ -89,4 +99,38 @@ public class UserService {
     public boolean isStatusAvailable(String username, String status) {
         return getOrCreateUser(username).isStatusAvailable(status);
     };
+
+    /**
+     * Obtiene las estadísticas de la caché de usuarios (aciertos, fallos, expulsiones).
+     * @return Instantánea de las estadísticas de la caché
+     */
+    public CacheStats getUserCacheStats() {
+        return userCache.stats();
+    };
+
+    /**
+     * Aplica un cambio atómico del usuario y sustituye la entrada de la caché
+     * por el usuario que devuelve el almacenamiento. Si el cambio no se aplicó,
+     * la caché puede estar desfasada respecto a otra sesión y se descarta la
+     * entrada; si falla, también, para no servir datos que no se persistieron.
+     * @param username El nombre de usuario
+     * @param update El cambio, que devuelve el usuario actualizado o null si no se aplicó
+     * @return true si el cambio se aplicó
+     */
+    private boolean updateAndCache(String username, Supplier<User> update) {
+        User updated;
+        try {
+            updated = update.get();
+        } catch (RuntimeException e) {
+            userCache.invalidate(username);
+            throw e;
+        }
+
+        if (updated == null) {
+            userCache.invalidate(username);
+            return false;
+        };
+        userCache.put(username, updated);
+        return true;
+    };
 };
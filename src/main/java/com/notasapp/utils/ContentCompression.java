@@ -0,0 +1,95 @@
+package com.notasapp.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Clase de utilidad para comprimir el contenido de las notas.
+ * El formato comprimido empieza por un byte de cabecera que indica el algoritmo,
+ * seguido de la longitud original en bytes UTF-8 (4 bytes) y los datos:
+ * así se puede cambiar de algoritmo más adelante sin perder lo ya guardado.
+ */
+public class ContentCompression {
+
+    // Byte de cabecera del formato DEFLATE (sin envoltorio zlib)
+    public static final byte DEFLATE = 1;
+
+    // Bytes de cabecera: algoritmo y longitud original
+    private static final int HEADER_SIZE = 1 + Integer.BYTES;
+
+    /**
+     * Comprime un texto con DEFLATE a máxima velocidad.
+     * @param text El texto a comprimir
+     * @return El texto comprimido con su cabecera
+     */
+    public static byte[] compress(String text) {
+        return compress(text.getBytes(StandardCharsets.UTF_8));
+    };
+
+    /**
+     * Comprime unos bytes UTF-8 con DEFLATE a máxima velocidad.
+     * @param utf8 Los bytes del texto
+     * @return Los datos comprimidos con su cabecera
+     */
+    public static byte[] compress(byte[] utf8) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(utf8);
+            deflater.finish();
+
+            // El texto incompresible puede crecer ligeramente: se reserva margen y se amplía si hace falta
+            byte[] output = new byte[HEADER_SIZE + utf8.length + utf8.length / 100 + 64];
+            output[0] = DEFLATE;
+            ByteBuffer.wrap(output, 1, Integer.BYTES).putInt(utf8.length);
+            int length = HEADER_SIZE;
+            while (!deflater.finished()) {
+                if (length == output.length) {
+                    output = Arrays.copyOf(output, output.length * 2);
+                };
+                length += deflater.deflate(output, length, output.length - length);
+            };
+            return Arrays.copyOf(output, length);
+        } finally {
+            deflater.end();
+        }
+    };
+
+    /**
+     * Descomprime un texto comprimido con compress.
+     * @param data Los datos comprimidos con su cabecera
+     * @return El texto original
+     * @throws IllegalArgumentException si la cabecera no es conocida o los datos están dañados
+     */
+    public static String decompress(byte[] data) {
+        if (data.length < HEADER_SIZE || data[0] != DEFLATE) {
+            throw new IllegalArgumentException("Formato de contenido comprimido desconocido");
+        };
+        int originalLength = ByteBuffer.wrap(data, 1, Integer.BYTES).getInt();
+
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data, HEADER_SIZE, data.length - HEADER_SIZE);
+            byte[] output = new byte[originalLength];
+            int length = 0;
+            while (length < originalLength && !inflater.finished()) {
+                int inflated = inflater.inflate(output, length, originalLength - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                };
+                length += inflated;
+            };
+            if (length != originalLength) {
+                throw new IllegalArgumentException("Contenido comprimido incompleto");
+            };
+            return new String(output, StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Contenido comprimido dañado", e);
+        } finally {
+            inflater.end();
+        }
+    };
+};
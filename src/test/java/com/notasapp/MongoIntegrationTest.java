@@ -0,0 +1,51 @@
+package com.notasapp;
+
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.junit.jupiter.api.Tag;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Base de las pruebas que necesitan MongoDB. Arranca un MongoDB embebido
+ * (flapdoodle) la primera vez que se usa, lo comparten todas las pruebas de
+ * la ejecución y se detiene al terminar la JVM. El cliente de la aplicación
+ * se apunta a él con notas.mongo.uri, igual que en los bancos de pruebas JMH.
+ *
+ * Cada subclase indica su propia base de datos (notas.mongo.database) para
+ * no compartir datos con las demás.
+ *
+ * Las pruebas llevan la etiqueta "mongo": sin acceso a la descarga de MongoDB
+ * se pueden excluir con mvn test -DexcludedGroups=mongo.
+ */
+@Tag("mongo")
+public abstract class MongoIntegrationTest {
+
+    private static TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        ServerAddress address = mongod().current().getServerAddress();
+        registry.add("notas.mongo.uri", () -> "mongodb://" + address.getHost() + ":" + address.getPort());
+        registry.add("spring.autoconfigure.exclude",
+                () -> "de.flapdoodle.embed.mongo.spring.autoconfigure.EmbeddedMongoAutoConfiguration");
+        // Los índices existen antes de la primera prueba y no se prepara ningún usuario
+        registry.add("notas.warm-up.background", () -> "false");
+        registry.add("notas.warm-up.last-user-file", () -> "${java.io.tmpdir}/tnote-mongo-test/last-user");
+    }
+
+    /**
+     * Arranca MongoDB si aún no está en marcha.
+     * @return El proceso de MongoDB
+     */
+    private static synchronized TransitionWalker.ReachedState<RunningMongodProcess> mongod() {
+        if (mongod == null) {
+            mongod = Mongod.instance().start(Version.Main.V7_0);
+            Runtime.getRuntime().addShutdownHook(new Thread(mongod::close, "mongod-stop"));
+        }
+        return mongod;
+    }
+};
@@ -0,0 +1,74 @@
+package com.notasapp.config;
+
+import com.notasapp.Main;
+import com.notasapp.MongoIntegrationTest;
+import com.notasapp.model.Note;
+import com.notasapp.model.NoteSearchHit;
+import com.notasapp.model.NoteUpdateResult;
+import com.notasapp.service.NotesService;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import java.util.List;
+import static com.mongodb.client.model.Filters.eq;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba que las notas cuyo contenido se guarda comprimido se siguen
+ * encontrando por una palabra del contenido, al crearlas y al editarlas.
+ */
+@SpringBootTest(classes = Main.class, properties = "notas.mongo.database=tnote-test-compressed-search")
+class CompressedContentSearchTest extends MongoIntegrationTest {
+
+    private static final String USER = "buscador";
+
+    @Autowired
+    private NotesService notesService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    void findsWordInsideCompressedContent() {
+        Note note = notesService.createNote(USER, "Registro del despliegue", longContent("zanahoria"), "Hecho");
+
+        // El contenido supera los 4 KB del umbral y está guardado comprimido
+        Document stored = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Note.class))
+                .find(eq("_id", new ObjectId(note.getId()))).first();
+        assertInstanceOf(Binary.class, stored.get("content"));
+
+        assertEquals(List.of(note.getId()), ids(notesService.searchNotes(USER, "zanahoria", 0, 10)));
+
+        // Al editar el contenido, la búsqueda encuentra la palabra nueva y ya no la anterior
+        NoteUpdateResult result = notesService.updateNote(note.getId(), USER, null, longContent("berenjena"),
+                note.getVersion());
+        assertTrue(result.isUpdated());
+        assertEquals(List.of(note.getId()), ids(notesService.searchNotes(USER, "berenjena", 0, 10)));
+        assertTrue(notesService.searchNotes(USER, "zanahoria", 0, 10).isEmpty());
+    }
+
+    private static List<String> ids(List<NoteSearchHit> hits) {
+        return hits.stream().map(NoteSearchHit::getId).toList();
+    }
+
+    /**
+     * Genera un registro de unos 8 KB, fácil de comprimir, con una palabra
+     * que aparece una sola vez en mitad del texto.
+     */
+    private static String longContent(String word) {
+        StringBuilder content = new StringBuilder();
+        for (int line = 0; line < 100; line++) {
+            if (line == 50) {
+                content.append("WARN inventario: falta ").append(word).append(" en el almacén\n");
+            }
+            content.append("INFO NotesService: listado de notas servido en 3 ms\n");
+        }
+        return content.toString();
+    }
+};
@@ -0,0 +1,28 @@
+package com.notasapp.config;
+
+import com.notasapp.Main;
+import com.notasapp.MongoIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+
+/**
+ * Ejecuta QueryPlanVerifier contra una base de datos recién creada: el
+ * arranque crea los índices y ninguna consulta principal debe usar COLLSCAN.
+ * Con notas.mongo.verify-query-plans=true la comprobación se ejecuta también
+ * al arrancar el contexto, como en una ejecución real.
+ */
+@SpringBootTest(classes = Main.class, properties = {
+        "notas.mongo.database=tnote-test-query-plans",
+        "notas.mongo.verify-query-plans=true"})
+class QueryPlanVerifierTest extends MongoIntegrationTest {
+
+    @Autowired
+    private QueryPlanVerifier queryPlanVerifier;
+
+    @Test
+    void mainQueriesUseAnIndex() {
+        assertDoesNotThrow(queryPlanVerifier::verify);
+    }
+};
@@ -0,0 +1,73 @@
+package com.notasapp.repository;
+
+import com.notasapp.Main;
+import com.notasapp.MongoIntegrationTest;
+import com.notasapp.model.Note;
+import com.notasapp.model.NoteCursor;
+import com.notasapp.model.NoteFeedEntry;
+import com.notasapp.model.NoteTombstone;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import java.util.Date;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba el registro de cambios sobre MongoDB: las marcas que dejan las
+ * eliminaciones y los cursores situados en el milisegundo de un cambio, cuyo
+ * ID se compara con el ObjectId de las notas.
+ */
+@SpringBootTest(classes = Main.class, properties = "notas.mongo.database=tnote-test-change-feed")
+class MongoChangeFeedTest extends MongoIntegrationTest {
+
+    @Autowired
+    private NoteStore noteStore;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    void deleteLeavesTombstoneOnlyForOwnNotes() {
+        Note note = noteStore.insert(note("ana", "se elimina"));
+
+        // Otro usuario no puede eliminarla ni dejar una marca con su ID
+        assertFalse(noteStore.delete(note.getId(), "intruso"));
+        assertFalse(mongoTemplate.exists(Query.query(Criteria.where("id").is(note.getId())), NoteTombstone.class));
+
+        assertTrue(noteStore.delete(note.getId(), "ana"));
+        List<NoteFeedEntry> changes = noteStore.findChangesSince("ana", null, 10);
+        assertEquals(List.of(note.getId()), changes.stream().map(NoteFeedEntry::getNoteId).toList());
+        assertTrue(changes.get(0).isDeleted());
+    }
+
+    @Test
+    void cursorStartingAtAChangeIncludesIt() {
+        Note note = noteStore.insert(note("luis", "mismo milisegundo"));
+        NoteCursor cursor = NoteCursor.startingAt(note.getChangedAt());
+        assertEquals(List.of(note.getId()),
+                noteStore.findChangesSince("luis", cursor, 10).stream().map(NoteFeedEntry::getNoteId).toList());
+
+        assertTrue(noteStore.delete(note.getId(), "luis"));
+        Date deletedAt = mongoTemplate.findById(note.getId(), NoteTombstone.class).getDeletedAt();
+        List<NoteFeedEntry> changes = noteStore.findChangesSince("luis", NoteCursor.startingAt(deletedAt), 10);
+        assertEquals(List.of(note.getId()), changes.stream().map(NoteFeedEntry::getNoteId).toList());
+        assertTrue(changes.get(0).isDeleted());
+    }
+
+    private static Note note(String userId, String title) {
+        Note note = new Note();
+        note.setUserId(userId);
+        note.setTitle(title);
+        note.setContent("contenido");
+        note.setStatus("Hecho");
+        note.setCreatedAt(new Date());
+        note.setUpdatedAt(new Date());
+        return note;
+    }
+};
@@ -0,0 +1,106 @@
+package com.notasapp.repository;
+
+import com.notasapp.Main;
+import com.notasapp.MongoIntegrationTest;
+import com.notasapp.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Comprueba que muchos inicios de sesión simultáneos con el mismo nombre de
+ * usuario crean un único usuario y que ninguno recibe el DuplicateKeyException
+ * del índice único: el que pierde la carrera lee el usuario ya insertado.
+ * Comprueba también que las ediciones simultáneas de los estados no se pisan.
+ */
+@SpringBootTest(classes = Main.class, properties = "notas.mongo.database=tnote-test-user-store")
+class UserStoreConcurrencyTest extends MongoIntegrationTest {
+
+    // Hilos que inician sesión a la vez y rondas, cada una con un usuario nuevo
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private UserStore userStore;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    void concurrentLoginsCreateOneUser() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                String username = "concurrente-" + round;
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<User>> logins = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    logins.add(executor.submit(() -> {
+                        start.await();
+                        return userStore.upsertByUsername(username);
+                    }));
+                }
+                start.countDown();
+
+                // Future.get relanza cualquier excepción que haya llegado al hilo
+                String id = logins.get(0).get().getId();
+                for (Future<User> login : logins) {
+                    User user = login.get();
+                    assertEquals(id, user.getId());
+                    assertEquals(User.DEFAULT_STATUSES, user.getAvailableStatuses());
+                }
+                assertEquals(1, mongoTemplate.count(
+                        Query.query(Criteria.where("username").is(username)), User.class));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentStatusEditsAreNotLost() throws Exception {
+        String username = "estados-concurrentes";
+        userStore.upsertByUsername(username);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<User>> edits = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                String status = "Estado " + i;
+                edits.add(executor.submit(() -> {
+                    start.await();
+                    return userStore.addStatus(username, status);
+                }));
+            }
+            start.countDown();
+            for (Future<User> edit : edits) {
+                assertNotNull(edit.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        User user = userStore.upsertByUsername(username);
+        assertEquals(User.DEFAULT_STATUSES.size() + THREADS, user.getAvailableStatuses().size());
+        assertNull(userStore.addStatus(username, "Estado 0"));
+
+        // Se pueden quitar todos los estados menos el último
+        for (String status : List.copyOf(user.getAvailableStatuses().subList(1, user.getAvailableStatuses().size()))) {
+            assertNotNull(userStore.removeStatus(username, status));
+        }
+        assertNull(userStore.removeStatus(username, user.getAvailableStatuses().get(0)));
+    }
+};
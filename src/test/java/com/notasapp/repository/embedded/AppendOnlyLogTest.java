@@ -0,0 +1,78 @@
+package com.notasapp.repository.embedded;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Comprueba que el log recupera su final tras una escritura a medias.
+ */
+class AppendOnlyLogTest {
+
+    private static final int INITIAL_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replayStopsAtTornRecordAndAppendsOverIt() throws IOException {
+        Path file = directory.resolve("torn.log");
+        int tornPosition;
+        try (AppendOnlyLog log = new AppendOnlyLog(file, INITIAL_SIZE)) {
+            log.append((byte) 1, bytes("uno"));
+            log.append((byte) 1, bytes("dos"));
+            tornPosition = log.append((byte) 1, bytes("tres"));
+        }
+
+        // La caída dejó escrita la longitud del último registro pero no todos sus datos
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0}), tornPosition + 2 * Integer.BYTES + 2);
+        }
+
+        try (AppendOnlyLog log = new AppendOnlyLog(file, INITIAL_SIZE)) {
+            assertEquals(List.of("uno", "dos"), replay(log));
+            assertEquals(tornPosition, log.size());
+
+            // El siguiente registro sustituye al incompleto
+            assertEquals(tornPosition, log.append((byte) 1, bytes("cuatro")));
+        }
+
+        try (AppendOnlyLog log = new AppendOnlyLog(file, INITIAL_SIZE)) {
+            assertEquals(List.of("uno", "dos", "cuatro"), replay(log));
+        }
+    }
+
+    @Test
+    void growsBeyondInitialSizeAndReopens() {
+        Path file = directory.resolve("grow.log");
+        List<String> written = new ArrayList<>();
+        try (AppendOnlyLog log = new AppendOnlyLog(file, INITIAL_SIZE)) {
+            for (int i = 0; i < 1000; i++) {
+                written.add("registro " + i);
+                log.append((byte) 1, bytes("registro " + i));
+            }
+        }
+
+        try (AppendOnlyLog log = new AppendOnlyLog(file, INITIAL_SIZE)) {
+            assertEquals(written, replay(log));
+        }
+    }
+
+    private static List<String> replay(AppendOnlyLog log) {
+        List<String> payloads = new ArrayList<>();
+        log.replay((position, type, payload) -> payloads.add(new String(payload, StandardCharsets.UTF_8)));
+        return payloads;
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+};
@@ -0,0 +1,126 @@
+package com.notasapp.repository.embedded;
+
+import com.notasapp.model.Note;
+import com.notasapp.model.NoteFeedEntry;
+import com.notasapp.model.NoteUpdateResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba que el almacenamiento embebido recupera sus datos al reabrirse:
+ * tras eliminar notas, tras compactar el log y con el directorio bloqueado.
+ */
+class EmbeddedNoteStoreTest {
+
+    private static final String USER = "ana";
+
+    @TempDir
+    Path directory;
+
+    private DataDirectoryLock directoryLock;
+    private EmbeddedNoteStore store;
+
+    @AfterEach
+    void closeStore() {
+        close();
+    }
+
+    @Test
+    void deletedNotesStayDeletedAfterReopening() {
+        open(DataSize.ofMegabytes(8));
+        Note kept = store.insert(note("se queda"));
+        Note deleted = store.insert(note("se elimina"));
+        assertTrue(store.delete(deleted.getId(), USER));
+
+        reopen(DataSize.ofMegabytes(8));
+        assertTrue(store.findByIdAndUserId(deleted.getId(), USER).isEmpty());
+        Note reloaded = store.findByIdAndUserId(kept.getId(), USER).orElseThrow();
+        assertEquals("se queda", reloaded.getTitle());
+        assertEquals(kept.getChangedAt(), reloaded.getChangedAt());
+        assertEquals(1, store.count(USER, null));
+
+        // La marca de eliminación sigue en el registro de cambios
+        List<NoteFeedEntry> changes = store.findChangesSince(USER, null, 10);
+        assertEquals(2, changes.size());
+        assertTrue(changes.stream().anyMatch(change -> change.isDeleted() && change.getNoteId().equals(deleted.getId())));
+    }
+
+    @Test
+    void compactionKeepsLatestVersionsAndTombstones() {
+        // Con un mínimo de 1 byte se compacta en cuanto lo obsoleto supera a lo vigente
+        open(DataSize.ofBytes(1));
+        Note edited = store.insert(note("versión 0"));
+        Note deleted = store.insert(note("eliminada"));
+        assertTrue(store.delete(deleted.getId(), USER));
+        for (long version = 0; version < 50; version++) {
+            NoteUpdateResult result = store.updateFields(edited.getId(), USER, version,
+                    "versión " + (version + 1), "contenido " + (version + 1), null, new Date());
+            assertTrue(result.isUpdated());
+        }
+        close();
+
+        // El log compactado solo conserva la última versión y la marca, no las 50 ediciones
+        AtomicInteger records = new AtomicInteger();
+        try (AppendOnlyLog log = new AppendOnlyLog(directory.resolve(EmbeddedNoteStore.LOG_FILE), 4096)) {
+            log.replay((position, type, payload) -> records.incrementAndGet());
+        }
+        assertTrue(records.get() < 10, "registros tras compactar: " + records.get());
+
+        open(DataSize.ofBytes(1));
+        Note reloaded = store.findByIdAndUserId(edited.getId(), USER).orElseThrow();
+        assertEquals("versión 50", reloaded.getTitle());
+        assertEquals("contenido 50", reloaded.getContent());
+        assertEquals(50L, reloaded.getVersion());
+        assertTrue(store.findByIdAndUserId(deleted.getId(), USER).isEmpty());
+        assertTrue(store.findChangesSince(USER, null, 10).stream().anyMatch(NoteFeedEntry::isDeleted));
+    }
+
+    @Test
+    void secondOpenOfTheSameDirectoryFailsFast() {
+        open(DataSize.ofMegabytes(8));
+        assertThrows(IllegalStateException.class, () -> new DataDirectoryLock(directory));
+    }
+
+    private void open(DataSize compactionMinSize) {
+        directoryLock = new DataDirectoryLock(directory);
+        store = new EmbeddedNoteStore(directoryLock, directory, DataSize.ofKilobytes(64), compactionMinSize,
+                Duration.ofDays(7));
+    }
+
+    private void reopen(DataSize compactionMinSize) {
+        close();
+        open(compactionMinSize);
+    }
+
+    private void close() {
+        if (store != null) {
+            store.close();
+            store = null;
+        }
+        if (directoryLock != null) {
+            directoryLock.close();
+            directoryLock = null;
+        }
+    }
+
+    private static Note note(String title) {
+        Note note = new Note();
+        note.setUserId(USER);
+        note.setTitle(title);
+        note.setContent("contenido");
+        note.setStatus("Hecho");
+        note.setCreatedAt(new Date());
+        note.setUpdatedAt(new Date());
+        return note;
+    }
+};
@@ -0,0 +1,85 @@
+package com.notasapp.service;
+
+import com.notasapp.Main;
+import com.notasapp.model.Note;
+import com.notasapp.model.NoteCursor;
+import com.notasapp.model.NoteFeedEntry;
+import com.notasapp.model.NoteFeedPage;
+import com.notasapp.repository.NoteStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba el cursor del registro de cambios: el de la última página se
+ * queda por detrás del momento actual y se puede enviar de vuelta, incluye
+ * los cambios de su mismo milisegundo, y una nota escrita después del cursor
+ * se sirve aunque su updatedAt sea anterior. Usa el almacenamiento embebido
+ * en un directorio temporal.
+ */
+@SpringBootTest(classes = Main.class)
+@ActiveProfiles("test")
+class NoteFeedCursorTest {
+
+    private static final String USER = "marta";
+
+    @TempDir
+    static Path directory;
+
+    @Autowired
+    private NotesService notesService;
+
+    @Autowired
+    private NoteStore noteStore;
+
+    @DynamicPropertySource
+    static void embeddedProperties(DynamicPropertyRegistry registry) {
+        registry.add("notas.embedded.directory", () -> directory.toString());
+        registry.add("notas.warm-up.last-user-file", () -> directory.resolve("last-user").toString());
+    }
+
+    @Test
+    void noteWrittenAfterTheCursorIsServedWhateverItsUpdatedAt() {
+        Note first = notesService.createNote(USER, "primera", "contenido", "Hecho");
+        NoteFeedPage page = notesService.changesSince(USER, null, 10);
+        assertEquals(List.of(first.getId()), ids(page));
+        assertFalse(page.isHasMore());
+        assertTrue(page.getNextCursor().getUpdatedAt().before(first.getChangedAt()));
+        assertEquals(page.getNextCursor(), NoteCursor.decode(page.getNextCursor().encode()));
+
+        // Una nota importada conserva un updatedAt de hace un año, pero se escribió ahora
+        Note imported = new Note();
+        imported.setUserId(USER);
+        imported.setTitle("importada");
+        imported.setContent("contenido");
+        imported.setStatus("Hecho");
+        imported.setCreatedAt(new Date(System.currentTimeMillis() - Duration.ofDays(365).toMillis()));
+        imported.setUpdatedAt(imported.getCreatedAt());
+        noteStore.insertBatch(1, List.of(imported), true);
+
+        // La siguiente llamada la sirve, y repite la primera, que sigue dentro del margen
+        assertEquals(List.of(first.getId(), imported.getId()), ids(notesService.changesSince(USER, page.getNextCursor(), 10)));
+    }
+
+    @Test
+    void cursorStartingAtAChangeIncludesIt() {
+        Note note = notesService.createNote("nuria", "mismo milisegundo", "contenido", "Hecho");
+        List<NoteFeedEntry> changes = noteStore.findChangesSince("nuria", NoteCursor.startingAt(note.getChangedAt()), 10);
+        assertEquals(List.of(note.getId()), changes.stream().map(NoteFeedEntry::getNoteId).toList());
+    }
+
+    private static List<String> ids(NoteFeedPage page) {
+        return page.getChanges().stream().map(NoteFeedEntry::getNoteId).toList();
+    }
+};
@@ -0,0 +1,141 @@
+package com.notasapp.service;
+
+import com.notasapp.Main;
+import com.notasapp.model.BulkOptions;
+import com.notasapp.model.Note;
+import com.notasapp.model.NoteSummary;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba que la copia de la consola aplica los cambios hechos por otra
+ * sesión: las eliminaciones, también cuando el número de notas no cambia, las
+ * notas importadas o creadas en bloque con una fecha de actualización
+ * antigua y los cambios del mismo milisegundo en que empieza el refresco. Usa el
+ * almacenamiento embebido en un directorio temporal, así que no necesita
+ * MongoDB.
+ */
+@SpringBootTest(classes = Main.class)
+@ActiveProfiles("test")
+class NoteSnapshotTest {
+
+    @TempDir
+    static Path directory;
+
+    @Autowired
+    private NotesService notesService;
+
+    @Autowired
+    private NoteImportService importService;
+
+    @DynamicPropertySource
+    static void embeddedProperties(DynamicPropertyRegistry registry) {
+        registry.add("notas.embedded.directory", () -> directory.toString());
+        registry.add("notas.warm-up.last-user-file", () -> directory.resolve("last-user").toString());
+    }
+
+    @Test
+    void remoteDeleteAndCreateKeepingTheCountAreApplied() {
+        String user = "ana";
+        Note deleted = notesService.createNote(user, "se elimina", "contenido", "Hecho");
+        Note kept = notesService.createNote(user, "se queda", "contenido", "Hecho");
+        NoteSnapshot snapshot = new NoteSnapshot(notesService, user);
+        snapshot.refresh();
+        assertEquals(List.of(kept.getId(), deleted.getId()), ids(snapshot));
+
+        // Otra sesión elimina una nota y crea otra: el usuario sigue teniendo dos
+        assertTrue(notesService.deleteNote(deleted.getId(), user));
+        Note created = notesService.createNote(user, "nueva", "contenido", "Hecho");
+        snapshot.refresh();
+        assertEquals(List.of(created.getId(), kept.getId()), ids(snapshot));
+    }
+
+    @Test
+    void remoteDeleteIsApplied() {
+        String user = "luis";
+        Note deleted = notesService.createNote(user, "se elimina", "contenido", "Hecho");
+        Note kept = notesService.createNote(user, "se queda", "contenido", "Hecho");
+        NoteSnapshot snapshot = new NoteSnapshot(notesService, user);
+        snapshot.refresh();
+
+        assertTrue(notesService.deleteNote(deleted.getId(), user));
+        snapshot.refresh();
+        assertEquals(List.of(kept.getId()), ids(snapshot));
+    }
+
+    @Test
+    void importedNoteWithOldUpdatedAtIsApplied() throws Exception {
+        String user = "eva";
+        Note existing = notesService.createNote(user, "existente", "contenido", "Hecho");
+        NoteSnapshot snapshot = new NoteSnapshot(notesService, user);
+        snapshot.refresh();
+
+        // Otra sesión importa una nota que se actualizó por última vez hace más de un año
+        Path source = directory.resolve("importacion.jsonl");
+        Files.writeString(source, """
+                {"userId": "eva", "title": "importada", "status": "Hecho", "updatedAt": "2025-01-15T10:00:00Z"}
+                """);
+        assertEquals(1L, importService.importNotes(source, BulkOptions.defaults(), 1).getInserted());
+        snapshot.refresh();
+        assertEquals(List.of("existente", "importada"), titles(snapshot));
+        assertEquals(existing.getId(), ids(snapshot).get(0));
+    }
+
+    @Test
+    void bulkCreatedNoteWithOldUpdatedAtIsApplied() {
+        String user = "pablo";
+        notesService.createNote(user, "existente", "contenido", "Hecho");
+        NoteSnapshot snapshot = new NoteSnapshot(notesService, user);
+        snapshot.refresh();
+
+        // Otra sesión crea en bloque una nota que conserva su fecha de hace más de un año
+        Note old = new Note();
+        old.setTitle("en bloque");
+        old.setContent("contenido");
+        old.setStatus("Hecho");
+        old.setCreatedAt(new Date(System.currentTimeMillis() - Duration.ofDays(400).toMillis()));
+        old.setUpdatedAt(old.getCreatedAt());
+        assertEquals(1L, notesService.createNotes(user, List.of(old), BulkOptions.defaults()).getTotalInserted());
+        snapshot.refresh();
+        assertEquals(List.of("existente", "en bloque"), titles(snapshot));
+    }
+
+    @Test
+    void changeAtTheFirstMillisecondOfTheRefreshIsApplied() {
+        String user = "sara";
+        Note note = notesService.createNote(user, "en el límite", "contenido", "Hecho");
+
+        // La sincronización se fecha de modo que el refresco empiece justo en el milisegundo de la nota
+        Instant syncStart = note.getChangedAt().toInstant().plus(NotesService.CHANGES_SAFETY_LAG);
+        NoteSnapshot snapshot = new NoteSnapshot(notesService, user, Clock.fixed(syncStart, ZoneOffset.UTC));
+        snapshot.refresh();
+
+        // La copia pierde la nota, como si no la hubiera visto, y el refresco la vuelve a traer
+        snapshot.remove(note.getId());
+        snapshot.refresh();
+        assertEquals(List.of(note.getId()), ids(snapshot));
+    }
+
+    private static List<String> titles(NoteSnapshot snapshot) {
+        return snapshot.getPage(null, null, true, 10).getNotes().stream().map(NoteSummary::getTitle).toList();
+    }
+
+    private static List<String> ids(NoteSnapshot snapshot) {
+        return snapshot.getPage(null, null, true, 10).getNotes().stream().map(NoteSummary::getId).toList();
+    }
+};
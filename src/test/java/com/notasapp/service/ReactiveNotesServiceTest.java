@@ -0,0 +1,58 @@
+package com.notasapp.service;
+
+import com.notasapp.Main;
+import com.notasapp.MongoIntegrationTest;
+import com.notasapp.model.ExportFormat;
+import com.notasapp.model.Note;
+import com.notasapp.model.NoteSummary;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Comprueba que el servicio reactivo lista y exporta las mismas notas que el
+ * bloqueante, también las que tienen el contenido guardado comprimido.
+ */
+@SpringBootTest(classes = Main.class, properties = "notas.mongo.database=tnote-test-reactive")
+class ReactiveNotesServiceTest extends MongoIntegrationTest {
+
+    private static final String USER = "reactivo";
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private NotesService notesService;
+
+    @Autowired
+    private ReactiveNotesService reactiveNotesService;
+
+    @Test
+    void listsAndExportsTheStoredNotes() throws Exception {
+        Note small = notesService.createNote(USER, "corta", "contenido", "Hecho");
+        Note large = notesService.createNote(USER, "larga", "x".repeat(8192), "En proceso");
+
+        // El orden de los listados no está definido, como en el servicio bloqueante
+        assertEquals(Set.of(small.getId(), large.getId()),
+                Set.copyOf(reactiveNotesService.getNoteSummariesByUser(USER).map(NoteSummary::getId).collectList().block()));
+        assertEquals(List.of(large.getId()),
+                reactiveNotesService.getNoteSummariesByStatus(USER, "En proceso").map(NoteSummary::getId)
+                        .collectList().block());
+
+        // El contenido comprimido se exporta ya descomprimido
+        Path target = directory.resolve("notas.jsonl");
+        assertEquals(2L, reactiveNotesService.exportNotes(USER, target, ExportFormat.JSONL).block());
+        Set<String> contents = Files.readAllLines(target).stream()
+                .map(line -> Document.parse(line).getString("content"))
+                .collect(Collectors.toSet());
+        assertEquals(Set.of("contenido", "x".repeat(8192)), contents);
+    }
+};